@@ -0,0 +1,91 @@
+package com.example.datalake.benchmarks;
+
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Synthetic CSV upload of configurable width and row count, plus the matching
+ * column metadata and DDL.  Column 0 is a bigint id; the others cycle through
+ * the types the loaders special-case (int, numeric, boolean, timestamp in
+ * several shapes, quoted and plain text) so every binder and parser branch
+ * shows up in the profile.  Generation is seeded and therefore repeatable.
+ */
+public final class CsvFixture {
+
+    private static final int[] TYPE_CYCLE = {
+            Types.INTEGER, Types.NUMERIC, Types.BOOLEAN, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR
+    };
+    private static final String[] TIMESTAMP_SHAPES = {
+            "2025-06-%02dT10:15:30Z", "2025-06-%02d 08:00:00+02", "2025-06-%02dT23:59:59.123456", "2025-06-%02d 00:00:00"
+    };
+
+    public final int rows;
+    public final List<ColumnMeta> columns;
+    public final String[] header;
+    public final byte[] csv;
+
+    private CsvFixture(int rows, List<ColumnMeta> columns, byte[] csv) {
+        this.rows = rows;
+        this.columns = columns;
+        this.header = columns.stream().map(ColumnMeta::name).toArray(String[]::new);
+        this.csv = csv;
+    }
+
+    public static CsvFixture generate(int rows, int width) {
+        List<ColumnMeta> cols = new ArrayList<>(width);
+        cols.add(new ColumnMeta("id", Types.BIGINT, false, false));
+        for (int c = 1; c < width; c++) {
+            cols.add(new ColumnMeta("c" + c, TYPE_CYCLE[(c - 1) % TYPE_CYCLE.length], true, false));
+        }
+
+        Random rnd = new Random(42);
+        StringBuilder sb = new StringBuilder(rows * width * 12);
+        sb.append(String.join(",", cols.stream().map(ColumnMeta::name).toList())).append('\n');
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < width; c++) {
+                if (c > 0) sb.append(',');
+                if (c > 0 && rnd.nextInt(50) == 0) continue;                  // ~2 % NULLs
+                appendValue(sb, cols.get(c).sqlType(), c == 0 ? r : rnd.nextInt(1_000_000), rnd, c);
+            }
+            sb.append('\n');
+        }
+        return new CsvFixture(rows, List.copyOf(cols), sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendValue(StringBuilder sb, int sqlType, int n, Random rnd, int col) {
+        switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER -> sb.append(n);
+            case Types.NUMERIC -> sb.append(n / 100).append('.').append(n % 100);
+            case Types.BOOLEAN -> sb.append(rnd.nextBoolean());
+            case Types.TIMESTAMP -> sb.append(String.format(TIMESTAMP_SHAPES[n % TIMESTAMP_SHAPES.length], 1 + n % 28));
+            default -> {
+                if (col % 2 == 0) sb.append("\"item ").append(n).append(", \"\"quoted\"\"\"");
+                else sb.append("sku-").append(n);
+            }
+        }
+    }
+
+    /** CREATE TABLE for H2 / Postgres matching {@link #columns}. */
+    public String createTableSql(String table) {
+        return "CREATE TABLE " + table + " (" + columns.stream()
+                .map(c -> c.name() + " " + ddlType(c.sqlType()) + (c.nullable() ? "" : " NOT NULL"))
+                .collect(Collectors.joining(", ")) + ")";
+    }
+
+    private static String ddlType(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT -> "BIGINT";
+            case Types.INTEGER -> "INTEGER";
+            case Types.NUMERIC -> "NUMERIC(18,2)";
+            case Types.BOOLEAN -> "BOOLEAN";
+            case Types.TIMESTAMP -> "TIMESTAMP";
+            default -> "VARCHAR(64)";
+        };
+    }
+}
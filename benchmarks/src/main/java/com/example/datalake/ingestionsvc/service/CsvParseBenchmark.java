@@ -0,0 +1,84 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.benchmarks.CsvFixture;
+import com.example.datalake.benchmarks.RowCounter;
+import com.example.datalake.ingestionsvc.util.CsvFormat;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import com.example.datalake.ingestionsvc.util.CsvUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CSV parsing of a synthetic upload, as the ingestion loaders read it
+ * (BatchIngestionService.openCsv + next() loop), as a lazy CsvUtils stream of
+ * reusable row views, and materialised into maps the way CsvUtils.parse used
+ * to.  Score = files/s; the {@code rows} counter gives rows/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"8", "32"})
+    public int width;
+
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        csv = CsvFixture.generate(rows, width).csv;
+    }
+
+    @Benchmark
+    public void ingestionReader(Blackhole bh, RowCounter counter) throws Exception {
+        try (CsvRows reader = BatchIngestionService.openCsv(new ByteArrayInputStream(csv), CsvRows.Parser.OPENCSV)) {
+            bh.consume(reader.header());
+            String[] line;
+            while ((line = reader.next()) != null) {
+                bh.consume(line);
+                counter.rows++;
+            }
+        }
+    }
+
+    @Benchmark
+    public void csvUtilsStream(Blackhole bh, RowCounter counter) {
+        try (Stream<CsvRows.Row> rows = CsvUtils.stream(new ByteArrayInputStream(csv), CsvFormat.DEFAULT)) {
+            rows.forEach(row -> {
+                bh.consume(row.get("id"));
+                counter.rows++;
+            });
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, String>> csvUtilsMaterialised(RowCounter counter) {
+        try (Stream<CsvRows.Row> rows = CsvUtils.stream(new ByteArrayInputStream(csv), CsvFormat.DEFAULT)) {
+            List<Map<String, String>> parsed = rows.map(CsvRows.Row::toMap).toList();
+            counter.rows += parsed.size();
+            return parsed;
+        }
+    }
+}
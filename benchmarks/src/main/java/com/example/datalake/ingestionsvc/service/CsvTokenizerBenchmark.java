@@ -0,0 +1,95 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.benchmarks.CsvFixture;
+import com.example.datalake.benchmarks.RowCounter;
+import com.example.datalake.ingestionsvc.util.ColumnBinder;
+import com.example.datalake.ingestionsvc.util.CopyRowBuffer;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import com.example.datalake.ingestionsvc.util.CsvTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenCSV against the byte tokenizer on a narrow and a wide upload:
+ * {@code split} reads every record as a {@code String[]} (BATCH and pipeline
+ * loads), {@code copyEncode} also converts the rows into COPY text the way
+ * the COPY loader does – from Strings with OpenCSV, from byte slices with
+ * the tokenizer.  Score = files/s; the {@code rows} counter gives rows/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvTokenizerBenchmark {
+
+    @Param({"20000"})
+    public int rows;
+
+    @Param({"4", "64"})
+    public int width;
+
+    @Param({"OPENCSV", "BYTES"})
+    public CsvRows.Parser parser;
+
+    private byte[] csv;
+    private ColumnBinder[] binders;
+    private int[] pos;
+    private CopyRowBuffer out;
+
+    @Setup
+    public void setUp() {
+        CsvFixture fixture = CsvFixture.generate(rows, width);
+        csv = fixture.csv;
+        binders = ColumnBinder.compile(fixture.columns);
+        pos = BatchIngestionService.columnPositions(fixture.columns, fixture.header);
+        out = new CopyRowBuffer(1 << 20);
+    }
+
+    @Benchmark
+    public void split(Blackhole bh, RowCounter counter) throws Exception {
+        try (CsvRows reader = BatchIngestionService.openCsv(new ByteArrayInputStream(csv), parser)) {
+            String[] line;
+            while ((line = reader.next()) != null) {
+                bh.consume(line);
+                counter.rows++;
+            }
+        }
+    }
+
+    @Benchmark
+    public void copyEncode(Blackhole bh, RowCounter counter) throws Exception {
+        try (CsvRows reader = BatchIngestionService.openCsv(new ByteArrayInputStream(csv), parser)) {
+            CsvTokenizer bytes = reader.tokenizer();
+            long n = 0;
+            if (bytes != null) {
+                while (bytes.next()) {
+                    bh.consume(BatchIngestionService.appendCopyRow(out, binders, pos, bytes));
+                    if (++n % 1_000 == 0) bh.consume(out.drain());
+                }
+            } else {
+                String[] line;
+                while ((line = reader.next()) != null) {
+                    bh.consume(BatchIngestionService.appendCopyRow(out, binders, pos, line));
+                    if (++n % 1_000 == 0) bh.consume(out.drain());
+                }
+            }
+            bh.consume(out.drain());
+            counter.rows += n;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.benchmarks.CsvFixture;
+import com.example.datalake.benchmarks.RowCounter;
+import com.example.datalake.ingestionsvc.util.ColumnBinder;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import com.example.datalake.ingestionsvc.util.RowSlab;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link BatchIngestionService#flushBatch} – bind a full slab through the
+ * column binders and executeBatch – against an in-memory H2 table.  The slab
+ * is refilled and the table truncated outside the measurement before every
+ * call; a call is ~1 ms, well above JMH's per-invocation setup overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlushBatchBenchmark {
+
+    private static final int BATCH_ROWS = 1_000;              // BatchIngestionService.BATCH_SIZE
+
+    @Param({"8", "32"})
+    public int width;
+
+    private Connection con;
+    private Statement ddl;
+    private PreparedStatement insert;
+    private ColumnBinder[] binders;
+    private int[] pos;
+    private final List<String[]> lines = new ArrayList<>();
+    private RowSlab slab;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        CsvFixture fixture = CsvFixture.generate(BATCH_ROWS, width);
+        con = DriverManager.getConnection("jdbc:h2:mem:flush_" + width + ";DB_CLOSE_DELAY=-1");
+        ddl = con.createStatement();
+        ddl.execute("DROP TABLE IF EXISTS bench");
+        ddl.execute(fixture.createTableSql("bench"));
+        insert = con.prepareStatement(BatchIngestionService.buildInsertSql("bench", fixture.columns));
+        binders = ColumnBinder.compile(fixture.columns);
+        pos = BatchIngestionService.columnPositions(fixture.columns, fixture.header);
+
+        try (CsvRows reader = BatchIngestionService.openCsv(new ByteArrayInputStream(fixture.csv), CsvRows.Parser.OPENCSV)) {
+            String[] line;
+            while ((line = reader.next()) != null) lines.add(line);
+        }
+        slab = new RowSlab(fixture.columns.size(), BATCH_ROWS);
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() throws Exception {
+        ddl.execute("TRUNCATE TABLE bench");
+        for (String[] line : lines) slab.add(line, pos);
+    }
+
+    @Benchmark
+    public long[] flushBatch(RowCounter counter) {
+        long[] stats = BatchIngestionService.flushBatch(insert, binders, slab);
+        counter.rows += stats[0];
+        return stats;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        con.close();
+    }
+}
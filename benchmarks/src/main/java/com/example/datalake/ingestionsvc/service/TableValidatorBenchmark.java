@@ -0,0 +1,80 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.benchmarks.CsvFixture;
+import com.example.datalake.benchmarks.RowCounter;
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import com.example.datalake.ingestionsvc.util.CsvFormat;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import com.example.datalake.ingestionsvc.util.CsvUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link ValidatorService.TableValidator#convert} over every row of a
+ * synthetic upload.  The schema lookup is stubbed: H2 reports SQL-standard
+ * type names, which the validator's Postgres name mapping would turn into
+ * all-VARCHAR and hide the casting cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableValidatorBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"8", "32"})
+    public int width;
+
+    private List<Map<String, String>> rawRows;
+    private ValidatorService.TableValidator validator;
+
+    @Setup
+    public void setUp() {
+        CsvFixture fixture = CsvFixture.generate(rows, width);
+        try (Stream<CsvRows.Row> rows = CsvUtils.stream(new ByteArrayInputStream(fixture.csv), CsvFormat.DEFAULT)) {
+            rawRows = rows.map(CsvRows.Row::toMap).toList();
+        }
+
+        Map<String, Integer> schema = new HashMap<>();
+        for (ColumnMeta c : fixture.columns) schema.put(c.name(), c.sqlType());
+        JdbcTemplate jdbc = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T query(String sql, ResultSetExtractor<T> rse, Object... args) {
+                return (T) schema;
+            }
+        };
+        validator = new ValidatorService(jdbc).forTable("bench");
+    }
+
+    @Benchmark
+    public void convert(Blackhole bh, RowCounter counter) {
+        for (Map<String, String> row : rawRows) {
+            bh.consume(validator.convert(row));
+        }
+        counter.rows += rawRows.size();
+    }
+}
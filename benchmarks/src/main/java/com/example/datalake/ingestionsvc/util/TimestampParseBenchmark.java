@@ -0,0 +1,83 @@
+package com.example.datalake.ingestionsvc.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timestamps parsed per second: the hand-rolled {@link IsoTimestamps} parser
+ * against the regex / exception-driven {@code parseTimestamp} it replaced in
+ * BatchIngestionService (kept verbatim below as the baseline).  The input
+ * mix covers every shape seen in uploads; run with {@code -prof gc} for the
+ * allocation side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampParseBenchmark {
+
+    private static final String[] INPUTS = {
+            "2025-06-01T10:15:30Z",
+            "2025-06-01 10:15:30+02",
+            "2025-06-01T10:15:30.123+02:00",
+            "2025-06-01 10:15:30",                  // no offset → Timestamp.valueOf fallback
+            "2025-06-01T10:15:30.123456",
+            "2025-06-01 10:15:30-05:30",
+            "2025-12-31T23:59:59.999999Z",
+            "2025-06-01T10:15:30",
+    };
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void isoTimestamps(Blackhole bh) {
+        for (String s : INPUTS) bh.consume(IsoTimestamps.toTimestamp(IsoTimestamps.parseMicros(s)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void isoTimestampsMicrosOnly(Blackhole bh) {
+        for (String s : INPUTS) bh.consume(IsoTimestamps.parseMicros(s));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void legacyParseTimestamp(Blackhole bh) {
+        for (String s : INPUTS) bh.consume(legacyParseTimestamp(s));
+    }
+
+    /** BatchIngestionService.parseTimestamp before the column binders. */
+    static Timestamp legacyParseTimestamp(String s) {
+        s = s.trim();
+        if (s.matches(".*[+-]\\d{1,2}$")) {
+            s = s + ":00";
+        }
+        String iso = s.contains("T") ? s : s.replace(' ', 'T');
+        try {
+            OffsetDateTime odt = OffsetDateTime.parse(iso, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            return Timestamp.from(odt.toInstant());
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return Timestamp.valueOf(s.replace('T', ' '));
+        } catch (IllegalArgumentException ignored) {
+        }
+        throw new IllegalArgumentException("Unparsable timestamp: " + s);
+    }
+}
@@ -1,22 +1,93 @@
 package com.example.datalake.ingestionsvc.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
+    /* ingestion.executor.max-size and ingestion.parallel.workers size the DB pool – see DatabaseConfig */
+    /* The queue lives in Postgres; the poller claims at most ConcurrencyLimits.jobSlots, so no in-memory queue here */
     @Bean("ingestionExecutor")
-    public TaskExecutor ingestionExecutor() {
+    public TaskExecutor ingestionExecutor(Environment env,
+                                          @Value("${ingestion.executor.max-size}") int maxSize) {
+        if (Threading.VIRTUAL.isActive(env)) return virtualExecutor("ingest-vt-");
         ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
-        exec.setCorePoolSize(4);
-        exec.setMaxPoolSize(8);
-        exec.setQueueCapacity(50);
+        exec.setCorePoolSize(maxSize);
+        exec.setMaxPoolSize(maxSize);
+        exec.setQueueCapacity(0);
+        exec.setAllowCoreThreadTimeOut(true);
         exec.setThreadNamePrefix("ingest-");
         exec.initialize();
         return exec;
     }
+
+    /* Workers for byte ranges of one file; jobs wait on them, so never share the job pool */
+    @Bean("ingestionRangeExecutor")
+    public TaskExecutor ingestionRangeExecutor(@Value("${ingestion.parallel.workers}") int workers) {
+        ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
+        exec.setCorePoolSize(workers);
+        exec.setMaxPoolSize(workers);
+        exec.setThreadNamePrefix("ingest-range-");
+        exec.initialize();
+        return exec;
+    }
+
+    @Bean
+    public PipelineProperties pipelineProperties(@Value("${ingestion.pipeline.enabled}") boolean enabled,
+                                                 @Value("${ingestion.pipeline.converters}") int converters,
+                                                 @Value("${ingestion.pipeline.writers}") int writers,
+                                                 @Value("${ingestion.pipeline.queue-capacity}") int queueCapacity) {
+        return new PipelineProperties(enabled, converters, writers, queueCapacity);
+    }
+
+    /* Stage threads: every running job may start converters + writers at once, so no queueing */
+    @Bean("ingestionPipelineExecutor")
+    public TaskExecutor ingestionPipelineExecutor(Environment env,
+                                                  @Value("${ingestion.executor.max-size}") int jobs,
+                                                  PipelineProperties pipeline) {
+        if (Threading.VIRTUAL.isActive(env)) return virtualExecutor("ingest-stage-vt-");
+        ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
+        int threads = Math.max(1, jobs * (pipeline.converters() + pipeline.writers()));
+        exec.setCorePoolSize(threads);
+        exec.setMaxPoolSize(threads);
+        exec.setQueueCapacity(0);
+        exec.setAllowCoreThreadTimeOut(true);
+        exec.setThreadNamePrefix("ingest-stage-");
+        exec.initialize();
+        return exec;
+    }
+
+    /*
+     * Job slots, loader-connection and storage-transfer permits.  With
+     * spring.threads.virtual.enabled jobs run on virtual threads and
+     * virtual-max-jobs may be claimed at once; connections and transfers
+     * stay bounded by the semaphores, not by thread count.
+     */
+    @Bean
+    public ConcurrencyLimits concurrencyLimits(Environment env,
+                                               @Value("${ingestion.executor.max-size}") int maxSize,
+                                               @Value("${ingestion.executor.virtual-max-jobs}") int virtualMaxJobs,
+                                               @Value("${ingestion.parallel.workers}") int rangeWorkers,
+                                               @Value("${ingestion.storage.max-concurrent-transfers}") int transfers,
+                                               PipelineProperties pipeline) {
+        int jobSlots = Threading.VIRTUAL.isActive(env) ? virtualMaxJobs : maxSize;
+        int dbPermits = DatabaseConfig.loaderConnections(maxSize, pipeline.enabled(), pipeline.writers(), rangeWorkers);
+        return ConcurrencyLimits.of(jobSlots, dbPermits, transfers);
+    }
+
+    private static TaskExecutor virtualExecutor(String prefix) {
+        SimpleAsyncTaskExecutor exec = new SimpleAsyncTaskExecutor(prefix);
+        exec.setVirtualThreads(true);
+        return exec;
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.datalake.ingestionsvc.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * What actually bounds ingestion concurrency once job threads are cheap:
+ * {@code jobSlots} jobs may be claimed at once, at most {@code db} of them
+ * (sized to the loader share of the connection pool) hold a connection, and
+ * at most {@code storage} object transfers are in flight.  With platform
+ * threads the job pool is the tighter limit; with virtual threads the
+ * semaphores are.
+ */
+public record ConcurrencyLimits(int jobSlots, Semaphore db, Semaphore storage) {
+
+    /** A held permit; release with try-with-resources (closing twice releases once). */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static ConcurrencyLimits of(int jobSlots, int dbPermits, int storagePermits) {
+        return new ConcurrencyLimits(jobSlots, new Semaphore(dbPermits, true), new Semaphore(storagePermits, true));
+    }
+
+    /** Blocks until a loader connection may be taken from the pool. */
+    public Permit acquireDb() throws InterruptedException {
+        return acquire(db);
+    }
+
+    /** A loader connection permit if one is free right now, else null. */
+    public Permit tryAcquireDb() {
+        return db.tryAcquire() ? permit(db) : null;
+    }
+
+    /** Blocks until another storage transfer may start. */
+    public Permit acquireStorage() throws InterruptedException {
+        return acquire(storage);
+    }
+
+    /** A transfer permit if one is free right now, else null (for optional work such as prefetch). */
+    public Permit tryAcquireStorage() {
+        return storage.tryAcquire() ? permit(storage) : null;
+    }
+
+    private static Permit acquire(Semaphore s) throws InterruptedException {
+        s.acquire();
+        return permit(s);
+    }
+
+    private static Permit permit(Semaphore s) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) s.release();
+        };
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.datalake.ingestionsvc.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
-/** Provides DataSource & JdbcTemplate for Supabase Postgres */
+/**
+ * Provides a pooled DataSource & JdbcTemplate for Supabase Postgres.
+ * The pool is sized from the ingestion worker counts: every running job (or
+ * each of its pipeline writers) and every range worker holds one connection
+ * for its whole file / range; the rest serve schema lookups / JPA.
+ */
 @Configuration
 public class DatabaseConfig {
     @Value("${spring.datasource.url}")
@@ -20,14 +26,60 @@ public class DatabaseConfig {
     @Value("${spring.datasource.password}")
     private String dbPass;
 
+    @Value("${spring.datasource.driver-class-name}")
+    private String driverClass;
+
+    @Value("${ingestion.executor.max-size}")
+    private int ingestionWorkers;
+
+    @Value("${ingestion.parallel.workers}")
+    private int rangeWorkers;
+
+    @Value("${ingestion.pipeline.enabled}")
+    private boolean pipelineEnabled;
+
+    @Value("${ingestion.pipeline.writers}")
+    private int pipelineWriters;
+
+    @Value("${ingestion.db.pool.extra-connections:2}")
+    private int extraConnections;
+
+    @Value("${ingestion.db.pool.min-idle:2}")
+    private int minIdle;
+
+    @Value("${ingestion.db.pool.leak-detection-ms:0}")
+    private long leakDetectionMs;
+
+    @Value("${ingestion.db.prepare-threshold:5}")
+    private int prepareThreshold;
+
+    @Value("${ingestion.db.rewrite-batched-inserts:true}")
+    private boolean rewriteBatchedInserts;
+
     @Bean
     public DataSource supabaseDataSource() {
-        var ds = new DriverManagerDataSource();
-        ds.setDriverClassName("org.postgresql.Driver");
-        ds.setUrl(dbUrl);
-        ds.setUsername(dbUser);
-        ds.setPassword(dbPass);
-        return ds;
+        var cfg = new HikariConfig();
+        cfg.setPoolName("supabase-pool");
+        cfg.setDriverClassName(driverClass);
+        cfg.setJdbcUrl(dbUrl);
+        cfg.setUsername(dbUser);
+        cfg.setPassword(dbPass);
+        cfg.setMaximumPoolSize(loaderConnections(ingestionWorkers, pipelineEnabled, pipelineWriters, rangeWorkers)
+                + extraConnections);
+        cfg.setMinimumIdle(Math.min(minIdle, cfg.getMaximumPoolSize()));
+        cfg.setLeakDetectionThreshold(leakDetectionMs);
+
+        // PgJDBC-only knobs; other drivers (H2 in tests) reject unknown properties
+        if (dbUrl.startsWith("jdbc:postgresql:")) {
+            cfg.addDataSourceProperty("prepareThreshold", prepareThreshold);
+            cfg.addDataSourceProperty("reWriteBatchedInserts", rewriteBatchedInserts);
+        }
+        return new HikariDataSource(cfg);
+    }
+
+    /** Connections held by loaders at peak; also the DB permits in {@link ConcurrencyLimits}. */
+    static int loaderConnections(int jobs, boolean pipelineEnabled, int pipelineWriters, int rangeWorkers) {
+        return jobs * (pipelineEnabled ? pipelineWriters : 1) + rangeWorkers;
     }
 
     @Bean
@@ -0,0 +1,12 @@
+package com.example.datalake.ingestionsvc.config;
+
+/**
+ * Shape of the staged read → convert → write pipeline used by sequential jobs.
+ *
+ * @param enabled       run sequential jobs through the pipeline instead of inline
+ * @param converters    parallel type-conversion stages per job
+ * @param writers       parallel DB writer stages per job (one connection each)
+ * @param queueCapacity batches buffered between two stages before back-pressure
+ */
+public record PipelineProperties(boolean enabled, int converters, int writers, int queueCapacity) {
+}
@@ -1,7 +1,9 @@
 package com.example.datalake.ingestionsvc.controller;
 
 import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.IngestionJobStatus;
 import com.example.datalake.ingestionsvc.service.BatchIngestionService;
+import com.example.datalake.ingestionsvc.service.IngestionJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,12 +16,15 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/ingest/files")
 @Tag(name = "Batch Ingestion", description = "Upload & ingest large CSV files")
 @RequiredArgsConstructor
 public class BatchIngestionController {
     private final BatchIngestionService service;
+    private final IngestionJobService jobs;
 
     /** POST /ingest/files  → 202 Accepted + async processing */
     @Operation(
@@ -30,13 +35,15 @@ public class BatchIngestionController {
                                                                  2) validate its contents,
                                                                  3) batch-insert the records into the database.
                                                                 \s
-                                                                 On success, returns HTTP 202 (Accepted). The final row count will be
-                                                                 reported later to metadata-svc via Kafka.
+                                                                 On success, returns HTTP 202 (Accepted) with the queued job; poll
+                                                                 GET /ingest/files/{id} for progress. Any replica may run the job.
                       """
     )
     @ApiResponses({
             @ApiResponse(responseCode = "202",
-                    description   = "Accepted – ingestion job queued"),
+                    description   = "Accepted – ingestion job queued; Location points at its status",
+                    content       = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = IngestionJobStatus.class))),
             @ApiResponse(responseCode = "400",
                     description   = "Validation error",
                     content       = @Content(mediaType = "application/json")),
@@ -45,8 +52,31 @@ public class BatchIngestionController {
                     content       = @Content)
     })
     @PostMapping
-    public ResponseEntity<Void> ingest(@Valid @RequestBody FileIngestionRequest req) {
-        service.enqueue(req);
-        return ResponseEntity.accepted().build();
+    public ResponseEntity<IngestionJobStatus> ingest(@Valid @RequestBody FileIngestionRequest req) {
+        long id = service.enqueue(req);
+        return ResponseEntity.accepted()
+                .location(URI.create("/ingest/files/" + id))
+                .body(jobs.status(id).orElse(null));
+    }
+
+    /** GET /ingest/files/{id}  → queue state and committed progress */
+    @Operation(
+            summary     = "Ingestion job status",
+            description = "Queue state, attempts and the rows / lines committed so far for one job."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200",
+                    description   = "Job found",
+                    content       = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = IngestionJobStatus.class))),
+            @ApiResponse(responseCode = "404",
+                    description   = "Unknown job id",
+                    content       = @Content)
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<IngestionJobStatus> status(@PathVariable("id") long id) {
+        return jobs.status(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 }
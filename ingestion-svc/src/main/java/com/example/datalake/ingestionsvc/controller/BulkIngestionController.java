@@ -0,0 +1,77 @@
+package com.example.datalake.ingestionsvc.controller;
+
+import com.example.datalake.ingestionsvc.dto.BulkIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.BulkIngestionStatus;
+import com.example.datalake.ingestionsvc.service.BulkIngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/ingest/bulk")
+@Tag(name = "Batch Ingestion", description = "Upload & ingest large CSV files")
+@RequiredArgsConstructor
+public class BulkIngestionController {
+    private final BulkIngestionService service;
+
+    /** POST /ingest/bulk  → 202 Accepted, one queued job per matched object */
+    @Operation(
+            summary     = "Bulk-ingest every CSV under a storage prefix",
+            description = """
+                    Lists the bucket under `prefix`, keeps the objects whose path matches `glob`
+                    and queues one ingestion job per object into the same table. At most
+                    `maxConcurrentFiles` of them load at once across all replicas; each file
+                    is checkpointed on its own. Poll GET /ingest/bulk/{id} for aggregate
+                    progress, or GET /ingest/files/{id} for a single file.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202",
+                    description   = "Accepted – file jobs queued; Location points at the aggregate status",
+                    content       = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkIngestionStatus.class))),
+            @ApiResponse(responseCode = "400",
+                    description   = "Validation error or invalid glob",
+                    content       = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "500",
+                    description   = "Listing the bucket failed",
+                    content       = @Content)
+    })
+    @PostMapping
+    public ResponseEntity<BulkIngestionStatus> ingest(@Valid @RequestBody BulkIngestionRequest req) {
+        long id = service.create(req);
+        return ResponseEntity.accepted()
+                .location(URI.create("/ingest/bulk/" + id))
+                .body(service.status(id).orElse(null));
+    }
+
+    /** GET /ingest/bulk/{id}  → file counts per state and rows committed over all files */
+    @Operation(
+            summary     = "Bulk ingestion progress",
+            description = "Files queued / running / completed / failed and the lines and rows committed so far."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200",
+                    description   = "Bulk request found",
+                    content       = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkIngestionStatus.class))),
+            @ApiResponse(responseCode = "404",
+                    description   = "Unknown bulk id",
+                    content       = @Content)
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<BulkIngestionStatus> status(@PathVariable("id") long id) {
+        return service.status(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
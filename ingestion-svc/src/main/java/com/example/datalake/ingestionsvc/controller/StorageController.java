@@ -1,26 +1,50 @@
 package com.example.datalake.ingestionsvc.controller;
 
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.dto.StorageObject;
+import com.example.datalake.ingestionsvc.service.ObjectCache;
 import com.example.datalake.ingestionsvc.service.StorageService;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/storage")
 public class StorageController {
+    /** Upstream response headers a download passes on to the client. */
+    private static final List<String> PASSED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.ACCEPT_RANGES, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
     private final StorageService storageService;
+    private final ConcurrencyLimits limits;
+    private final int prefetchBuffers;
 
-    public StorageController(StorageService storageService) {
+    public StorageController(StorageService storageService, ConcurrencyLimits limits,
+                             @Value("${ingestion.download.prefetch-buffers}") int prefetchBuffers) {
         this.storageService = storageService;
+        this.limits = limits;
+        this.prefetchBuffers = prefetchBuffers;
     }
 
     /**
@@ -43,11 +67,16 @@ public class StorageController {
     }
 
     /**
-     * 3) List all objects in the default bucket ("test")
+     * 3) List objects in the default bucket ("test"), streamed as NDJSON
+     *    (one StorageObject per line, pages fetched as the client reads)
+     *    @param prefix    only paths starting with this (e.g. "uploads/2025/06/")
+     *    @param delimiter "/" lists one level with sub-folders as entries;
+     *                     omitted, every object below the prefix is listed
      */
-    @GetMapping("/objects")
-    public Mono<String> listObjects() {
-        return storageService.listObjects(storageService.getDefaultBucket());
+    @GetMapping(value = "/objects", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<StorageObject> listObjects(@RequestParam(defaultValue = "") String prefix,
+                                           @RequestParam(required = false) String delimiter) {
+        return storageService.listObjects(storageService.getDefaultBucket(), prefix, delimiter);
     }
 
     /**
@@ -65,17 +94,106 @@ public class StorageController {
 
     /**
      * 5) Download a file from the default bucket (for public buckets)
-     *    @param path the path of the file inside the bucket
-     *                (e.g., "avatars/user123.png")
+     *    Streams the upstream body to the client as it arrives (at most
+     *    prefetch-buffers DataBuffers in memory); an optional Range header
+     *    is forwarded, so clients can fetch parts of a big object in parallel.
+     *    @param path  the path of the file inside the bucket
+     *                 (e.g., "avatars/user123.png")
+     *    @param range e.g. "bytes=0-1048575"
      */
     @GetMapping("/download")
-    public Mono<ResponseEntity<ByteArrayResource>> downloadFile(@RequestParam String path) {
-        return storageService.downloadFile(storageService.getDefaultBucket(), path)
-                .map(resource -> ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION,
-                                "attachment; filename=\"" + path + "\"")
-                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .body(resource));
+    public ResponseEntity<StreamingResponseBody> downloadFile(
+            @RequestParam String path,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range
+    ) throws InterruptedException {
+        var permit = limits.acquireStorage();
+        ObjectCache.Lookup object;
+        try {
+            object = storageService.downloadFile(storageService.getDefaultBucket(), path, range).block();
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(path.substring(path.lastIndexOf('/') + 1)).build();
+        if (object.isHit()) {
+            permit.close();
+            return serveCached(object, range, disposition);
+        }
+        ResponseEntity<Flux<DataBuffer>> upstream = object.remote();
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : PASSED_HEADERS) {
+            String value = upstream.getHeaders().getFirst(name);
+            if (value != null) headers.set(name, value);
+        }
+        headers.setContentDisposition(disposition);
+        Flux<DataBuffer> body = upstream.getBody();
+        StreamingResponseBody stream = out -> {
+            try (permit; InputStream in = DataBufferUtils.subscriberInputStream(body, prefetchBuffers)) {
+                in.transferTo(out);
+            }
+        };
+        return ResponseEntity.status(upstream.getStatusCode()).headers(headers).body(stream);
+    }
+
+    /**
+     * Serves a revalidated cache entry, or the one byte range asked for,
+     * with FileChannel.transferTo; multi-range or malformed Range headers
+     * get the whole object, which RFC 9110 allows.
+     */
+    private static ResponseEntity<StreamingResponseBody> serveCached(ObjectCache.Lookup hit, String range,
+                                                                     ContentDisposition disposition) {
+        ObjectCache.Entry entry = hit.entry();
+        FileChannel file = hit.channel();
+        long size = entry.size();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(disposition);
+        headers.setETag(entry.etag());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (entry.contentType() != null) headers.set(HttpHeaders.CONTENT_TYPE, entry.contentType());
+        if (entry.lastModified() != null) headers.set(HttpHeaders.LAST_MODIFIED, entry.lastModified());
+
+        HttpStatus status = HttpStatus.OK;
+        long from = 0;
+        long to = size - 1;
+        List<HttpRange> ranges = parseRanges(range);
+        if (ranges.size() == 1) {
+            from = ranges.get(0).getRangeStart(size);
+            to = ranges.get(0).getRangeEnd(size);
+            if (from >= size || from > to) {
+                closeQuietly(file);
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + from + "-" + to + "/" + size);
+        }
+        headers.setContentLength(to - from + 1);
+        long start = from;
+        long end = to + 1;
+        StreamingResponseBody stream = out -> {
+            try (file) {
+                WritableByteChannel sink = Channels.newChannel(out);
+                for (long pos = start; pos < end; ) pos += file.transferTo(pos, end - pos, sink);
+            }
+        };
+        return ResponseEntity.status(status).headers(headers).body(stream);
+    }
+
+    private static List<HttpRange> parseRanges(String range) {
+        if (range == null) return List.of();
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException malformed) {
+            return List.of();
+        }
+    }
+
+    private static void closeQuietly(FileChannel file) {
+        try {
+            file.close();
+        } catch (IOException ignored) {
+        }
     }
 
     /**
@@ -92,21 +210,23 @@ public class StorageController {
      *    Example:
      *      POST /api/storage/uploadBinary?path=avatars/cache.png
      *      Header: Content-Type: image/png (or application/octet-stream)
-     *      Body  : raw binary payload
+     *      Body  : raw binary payload, streamed (never buffered whole)
      */
     @PostMapping("/uploadBinary")
     public ResponseEntity<String> uploadBinary(
             @RequestParam("path") String path,
             HttpServletRequest request
-    ) throws IOException {
+    ) throws IOException, InterruptedException {
         // 1) Read the Content-Type header (e.g. image/png)
         String contentType = request.getContentType();
-        // 2) Read the full request body as a byte array
-        byte[] data = StreamUtils.copyToByteArray(request.getInputStream());
-        // 3) Forward payload to the reactive StorageService
-        String resultJson = storageService
-                .uploadBinary(path, data, contentType)
-                .block();
-        return ResponseEntity.ok(resultJson);
+        // 2) Wait for a transfer slot (cheap on virtual request threads)
+        try (var permit = limits.acquireStorage();
+             InputStream body = request.getInputStream()) {
+            // 3) Stream the body to Supabase; large bodies go up in resumable chunks
+            String resultJson = storageService
+                    .uploadStream(path, body, contentType, request.getContentLengthLong())
+                    .block();
+            return ResponseEntity.ok(resultJson);
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.example.datalake.ingestionsvc.dao;
+
+import com.example.datalake.ingestionsvc.model.BulkIngestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BulkIngestionRepository extends JpaRepository<BulkIngestion, Long> {
+}
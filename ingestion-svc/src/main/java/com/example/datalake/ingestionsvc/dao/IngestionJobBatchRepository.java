@@ -0,0 +1,29 @@
+package com.example.datalake.ingestionsvc.dao;
+
+import com.example.datalake.ingestionsvc.model.IngestionJobBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Set;
+
+public interface IngestionJobBatchRepository extends JpaRepository<IngestionJobBatch, IngestionJobBatch.Key> {
+
+    @Query("select b.batchSeq from IngestionJobBatch b where b.jobId = :jobId and b.rangeStart = :rangeStart")
+    Set<Long> findCommittedSeqs(@Param("jobId") long jobId, @Param("rangeStart") long rangeStart);
+
+    /** Ledger totals of one job so far. */
+    interface Progress {
+        long getBatches();
+        long getLines();
+        long getOkRows();
+        long getFailRows();
+    }
+
+    @Query("""
+            select count(b) as batches, coalesce(sum(b.lineCount), 0) as lines,
+                   coalesce(sum(b.okRows), 0) as okRows, coalesce(sum(b.failRows), 0) as failRows
+            from IngestionJobBatch b where b.jobId = :jobId
+            """)
+    Progress progress(@Param("jobId") long jobId);
+}
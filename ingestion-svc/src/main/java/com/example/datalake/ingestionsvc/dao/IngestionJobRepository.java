@@ -0,0 +1,8 @@
+package com.example.datalake.ingestionsvc.dao;
+
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/** Entity access only; queue transitions (claim, heartbeat, requeue) are SQL in IngestionJobService. */
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, Long> {
+}
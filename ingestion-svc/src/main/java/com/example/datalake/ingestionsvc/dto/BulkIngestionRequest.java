@@ -0,0 +1,55 @@
+package com.example.datalake.ingestionsvc.dto;
+
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(name = "BulkIngestionRequest",
+        description = "Ingest every object under a storage prefix whose path matches a glob into one table.")
+public record BulkIngestionRequest(
+        @Schema(description = "Bucket to scan (defaults to the service's bucket)", example = "raw")
+        String bucket,
+
+        @Schema(description = "Only objects whose path starts with this are listed",
+                example = "uploads/2025/06/")
+        @NotBlank String prefix,
+
+        @Schema(description = "Glob matched against the full object path (default **, everything under the prefix)",
+                example = "uploads/2025/06/*/sales-*.csv")
+        String glob,
+
+        @Schema(description = "Target Postgres table for every matched file", example = "sales")
+        @NotBlank String tableName,
+
+        @Schema(description = "Uploader e-mail / userId for auditing", example = "alice@example.com")
+        @NotBlank String uploader,
+
+        @Schema(description = "How rows are written to Postgres (defaults to BATCH)", example = "COPY")
+        LoadMode mode,
+
+        @Schema(description = "Files of this request loading at once across all replicas (default 4)",
+                example = "4")
+        @Min(1) @Max(64) Integer maxConcurrentFiles,
+
+        @Schema(description = "Queue priority of the file jobs, higher runs first (default 0)", example = "0")
+        @Min(0) @Max(9) Integer priority
+) {
+    public String globOrDefault() {
+        return glob == null || glob.isBlank() ? "**" : glob;
+    }
+
+    public LoadMode modeOrDefault() {
+        return mode == null ? LoadMode.BATCH : mode;
+    }
+
+    public int maxConcurrentFilesOrDefault() {
+        return maxConcurrentFiles == null ? 4 : maxConcurrentFiles;
+    }
+
+    /** The job request for one matched object. */
+    public FileIngestionRequest fileRequest(String url) {
+        return new FileIngestionRequest(url, tableName, uploader, mode, 1, priority);
+    }
+}
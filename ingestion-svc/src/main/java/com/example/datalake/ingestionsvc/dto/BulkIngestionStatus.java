@@ -0,0 +1,32 @@
+package com.example.datalake.ingestionsvc.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(name = "BulkIngestionStatus",
+        description = "Aggregate progress of a bulk request over all of its file jobs.")
+public record BulkIngestionStatus(
+        @Schema(example = "7") long id,
+        @Schema(example = "raw") String bucket,
+        @Schema(example = "uploads/2025/06/") String prefix,
+        @Schema(example = "**") String glob,
+        @Schema(example = "sales") String tableName,
+        @Schema(example = "alice@example.com") String uploader,
+
+        @Schema(description = "Files matched (one job each)", example = "5000")
+        long files,
+
+        @Schema(example = "4890") long queued,
+        @Schema(example = "4") long running,
+        @Schema(example = "105") long completed,
+        @Schema(example = "1") long failed,
+
+        @Schema(description = "CSV data lines committed over all files", example = "2100000")
+        long linesCommitted,
+
+        long okRows,
+        long failRows,
+        Instant createdAt
+) {
+}
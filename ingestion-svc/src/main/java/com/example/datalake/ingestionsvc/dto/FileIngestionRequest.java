@@ -1,6 +1,8 @@
 package com.example.datalake.ingestionsvc.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 @Schema(name = "FileIngestionRequest",
@@ -16,6 +18,39 @@ public record FileIngestionRequest(
 
         @Schema(description = "Uploader e-mail / userId for auditing",
                 example = "alice@example.com")
-        @NotBlank String uploader
-) { }
+        @NotBlank String uploader,
 
+        @Schema(description = "How rows are written to Postgres (defaults to BATCH)",
+                example = "COPY")
+        LoadMode mode,
+
+        @Schema(description = "Split the file into this many record-aligned byte ranges "
+                + "(row-group ranges for Parquet) loaded by parallel workers (default 1 = sequential)",
+                example = "8")
+        @Min(1) @Max(256) Integer parallelism,
+
+        @Schema(description = "Queue priority, higher runs first (default 0); "
+                + "jobs of equal priority run in arrival order",
+                example = "5")
+        @Min(0) @Max(9) Integer priority
+) {
+    @Schema(description = "Supported load modes")
+    public enum LoadMode {
+        /** JDBC PreparedStatement addBatch / executeBatch */
+        BATCH,
+        /** PgJDBC CopyManager – COPY … FROM STDIN */
+        COPY
+    }
+
+    public LoadMode modeOrDefault() {
+        return mode == null ? LoadMode.BATCH : mode;
+    }
+
+    public int parallelismOrDefault() {
+        return parallelism == null ? 1 : parallelism;
+    }
+
+    public int priorityOrDefault() {
+        return priority == null ? 0 : priority;
+    }
+}
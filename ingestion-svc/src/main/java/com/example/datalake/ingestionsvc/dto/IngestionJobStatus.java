@@ -0,0 +1,37 @@
+package com.example.datalake.ingestionsvc.dto;
+
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(name = "IngestionJobStatus",
+        description = "Queue state and committed progress of one ingestion job.")
+public record IngestionJobStatus(
+        @Schema(example = "42") long id,
+        @Schema(example = "sales") String tableName,
+        @Schema(example = "alice@example.com") String uploader,
+        LoadMode mode,
+        @Schema(example = "0") int priority,
+        IngestionJob.Status status,
+
+        @Schema(description = "Times the job was claimed by a worker", example = "1")
+        int attempts,
+
+        @Schema(description = "Worker currently running the job (null unless RUNNING)")
+        String claimedBy,
+
+        @Schema(description = "Batches committed so far", example = "120")
+        long batchesCommitted,
+
+        @Schema(description = "CSV data lines covered by committed batches", example = "120000")
+        long linesCommitted,
+
+        long okRows,
+        long failRows,
+        String error,
+        Instant createdAt,
+        Instant updatedAt
+) {
+}
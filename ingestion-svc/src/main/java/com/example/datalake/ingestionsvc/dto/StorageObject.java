@@ -0,0 +1,28 @@
+package com.example.datalake.ingestionsvc.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(name = "StorageObject",
+        description = "One entry of a bucket listing: an object, or a folder when listing with a delimiter.")
+public record StorageObject(
+        @Schema(description = "Full path inside the bucket (folders end with '/')",
+                example = "uploads/2025/06/sales.csv")
+        String name,
+
+        @Schema(description = "True for a common prefix rolled up by the delimiter")
+        boolean folder,
+
+        @Schema(description = "Object size in bytes (null for folders)", example = "1048576")
+        Long size,
+
+        @Schema(example = "text/csv")
+        String contentType,
+
+        @Schema(example = "\"5d41402abc4b2a76b9719d911017c592\"")
+        String etag,
+
+        Instant updatedAt
+) {
+}
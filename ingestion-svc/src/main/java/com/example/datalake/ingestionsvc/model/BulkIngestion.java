@@ -0,0 +1,70 @@
+package com.example.datalake.ingestionsvc.model;
+
+import com.example.datalake.ingestionsvc.dto.BulkIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One bulk request: every object under {@code prefix} whose path matches
+ * {@code glob} becomes an {@link IngestionJob} with this {@code bulk_id}.
+ * The queue runs at most {@code maxRunning} of them at once across all
+ * replicas; progress is aggregated from the children and their ledgers.
+ */
+@Entity
+@Table(name = "ingestion_bulks")
+@NoArgsConstructor
+@Getter
+@Setter
+public class BulkIngestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String bucket;
+
+    @Column(nullable = false, length = 1024)
+    private String prefix;
+
+    @Column(nullable = false, length = 512)
+    private String glob;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    @Column(nullable = false)
+    private String uploader;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LoadMode mode;
+
+    @Column(name = "max_running", nullable = false)
+    private int maxRunning;
+
+    /** Objects matched by discovery, i.e. child jobs created. */
+    @Column(nullable = false)
+    private long files;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public static BulkIngestion of(BulkIngestionRequest req, String bucket) {
+        BulkIngestion bulk = new BulkIngestion();
+        bulk.bucket = bucket;
+        bulk.prefix = req.prefix();
+        bulk.glob = req.globOrDefault();
+        bulk.tableName = req.tableName();
+        bulk.uploader = req.uploader();
+        bulk.mode = req.modeOrDefault();
+        bulk.maxRunning = req.maxConcurrentFilesOrDefault();
+        bulk.createdAt = Instant.now();
+        return bulk;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.datalake.ingestionsvc.model;
+
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Durable record of one file-ingestion request and its place in the shared
+ * job queue.  Replicas claim QUEUED rows with {@code FOR UPDATE SKIP LOCKED}
+ * (highest priority first, at most N running per uploader) and keep a
+ * heartbeat on the rows they run; a RUNNING row whose heartbeat expires is put
+ * back in the queue.  Progress lives in {@link IngestionJobBatch} rows
+ * committed together with the data, so the next claimant resumes from the
+ * last batch.
+ */
+@Entity
+@Table(name = "ingestion_jobs", indexes = {
+        @Index(name = "ix_ingestion_jobs_queue", columnList = "status, priority, id"),
+        @Index(name = "ix_ingestion_jobs_uploader", columnList = "uploader, status"),
+        @Index(name = "ix_ingestion_jobs_bulk", columnList = "bulk_id, status")
+})
+@NoArgsConstructor
+@Getter
+@Setter
+public class IngestionJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_url", nullable = false, length = 1024)
+    private String url;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    /** Also the tenant key for the per-uploader running cap. */
+    @Column(nullable = false)
+    private String uploader;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LoadMode mode;
+
+    @Column(nullable = false)
+    private int parallelism;
+
+    /** Data lines per batch, fixed at creation so a resumed run cuts the same batches. */
+    @Column(name = "batch_lines", nullable = false)
+    private int batchLines;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    /** Worker id of the replica running the job; null while queued. */
+    @Column(name = "claimed_by", length = 128)
+    private String claimedBy;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Version of the source object the first run loaded (ETag, size); a
+     * resumed run only skips committed batches if it reads the same version.
+     */
+    @Column(name = "source_etag", length = 256)
+    private String sourceEtag;
+
+    @Column(name = "source_size")
+    private Long sourceSize;
+
+    /** {@link BulkIngestion} this file belongs to; null for single-file jobs. */
+    @Column(name = "bulk_id")
+    private Long bulkId;
+
+    @Column(name = "ok_rows", nullable = false)
+    private long okRows;
+
+    @Column(name = "fail_rows", nullable = false)
+    private long failRows;
+
+    @Column(length = 1024)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public static IngestionJob of(FileIngestionRequest req, int batchLines) {
+        IngestionJob job = new IngestionJob();
+        job.url = req.url();
+        job.tableName = req.tableName();
+        job.uploader = req.uploader();
+        job.mode = req.modeOrDefault();
+        job.parallelism = req.parallelismOrDefault();
+        job.batchLines = batchLines;
+        job.priority = req.priorityOrDefault();
+        job.status = Status.QUEUED;
+        job.createdAt = job.updatedAt = Instant.now();
+        return job;
+    }
+
+    public FileIngestionRequest toRequest() {
+        return new FileIngestionRequest(url, tableName, uploader, mode, parallelism, priority);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.datalake.ingestionsvc.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Checkpoint of one committed batch: written on the loader's connection in
+ * the same transaction as the batch's rows, so it exists iff they do.
+ * Batch {@code seq} of a range covers data lines
+ * {@code [seq * batchLines, (seq + 1) * batchLines)} counted from the range start.
+ */
+@Entity
+@Table(name = "ingestion_job_batches")
+@IdClass(IngestionJobBatch.Key.class)
+@NoArgsConstructor
+@Getter
+@Setter
+public class IngestionJobBatch {
+
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    /** Byte offset of the range (0 for sequential jobs). */
+    @Id
+    @Column(name = "range_start")
+    private Long rangeStart;
+
+    @Id
+    @Column(name = "batch_seq")
+    private Long batchSeq;
+
+    @Column(name = "line_count", nullable = false)
+    private int lineCount;
+
+    @Column(name = "ok_rows", nullable = false)
+    private long okRows;
+
+    @Column(name = "fail_rows", nullable = false)
+    private long failRows;
+
+    @Column(name = "committed_at", nullable = false)
+    private Instant committedAt;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long jobId;
+        private Long rangeStart;
+        private Long batchSeq;
+    }
+}
@@ -1,11 +1,32 @@
 package com.example.datalake.ingestionsvc.service;
 
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.config.PipelineProperties;
 import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
 import com.example.datalake.ingestionsvc.events.IngestionCompletedEvent;
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import com.example.datalake.ingestionsvc.service.StorageClientService.ObjectVersion;
+import com.example.datalake.ingestionsvc.util.Compression;
+import com.example.datalake.ingestionsvc.util.ColumnBinder;
+import com.example.datalake.ingestionsvc.util.CopyInWriter;
+import com.example.datalake.ingestionsvc.util.CopyRowBuffer;
+import com.example.datalake.ingestionsvc.util.CsvFormat;
+import com.example.datalake.ingestionsvc.util.CsvRangeSplitter;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import com.example.datalake.ingestionsvc.util.CsvTokenizer;
+import com.example.datalake.ingestionsvc.util.CsvUtils;
+import com.example.datalake.ingestionsvc.util.FileRangeInputStream;
+import com.example.datalake.ingestionsvc.util.ParquetRowReader;
+import com.example.datalake.ingestionsvc.util.RowSlab;
+import com.example.datalake.ingestionsvc.util.ThreadAllocation;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -13,21 +34,24 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReaderBuilder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 import javax.sql.DataSource;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +59,16 @@ import java.util.stream.Collectors;
  * • Converts values to native types before binding.
  * • Skips rows missing a NOT‑NULL, no‑default column.
  * • Parses timestamps with or without offset.
+ * • Loads via JDBC batches or, per request, the COPY protocol.
+ * • Optionally splits one file into byte ranges loaded in parallel.
+ * • Optionally runs read → convert → write as a staged pipeline.
+ * • Queues every request as a durable job (see IngestionJobPoller); batches
+ *   commit with their checkpoint, so a re-claimed job resumes where it stopped.
+ * • Streams sequential downloads into the parser; temp-file spool as fallback.
+ * • Reads .gz / .zst uploads, decompressing while streaming into the parser.
+ * • Parses with OpenCSV or, if configured, the byte-block tokenizer.
+ * • Loads .parquet objects typed, reading only the target columns, one row
+ *   group range per worker (no staged pipeline).
  * Kafka publishing remains disabled.
  */
 @Slf4j
@@ -42,72 +76,342 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BatchIngestionService {
 
-    @Qualifier("ingestionExecutor")
-    private final TaskExecutor ingestionExecutor;
+    @Qualifier("ingestionRangeExecutor")
+    private final TaskExecutor rangeExecutor;     // parallel byte-range workers
+    @Qualifier("ingestionPipelineExecutor")
+    private final TaskExecutor pipelineExecutor;  // converter / writer stages
     private final StorageClientService storage;
+    private final IngestionJobService jobs;
     private final JdbcTemplate jdbc;          // for schema lookups
     private final DataSource dataSource;      // for high‑throughput inserts
+    private final PipelineProperties pipeline;
+    private final ConcurrencyLimits limits;
+    private final MeterRegistry meters;
+
+    // sequential jobs parse while downloading; the temp-file spool stays as fallback
+    @Value("${ingestion.download.streaming}")
+    private boolean streamingDownload;
+
+    // OPENCSV, or BYTES for the block tokenizer (COPY then decodes only text columns)
+    @Value("${ingestion.csv.parser}")
+    private CsvRows.Parser csvParser = CsvRows.Parser.OPENCSV;
 
     private static final int BATCH_SIZE  = 1_000;
+    private static final int COPY_SEGMENT_ROWS = 10_000;   // rows per COPY; a DB error loses one segment
     private static final Duration SCHEMA_TTL = Duration.ofHours(1);
+    private static final int PREFETCH_CANDIDATES = 8;     // queued siblings looked at for a prefetch
 
-    private record ColumnMeta(String name, int sqlType, boolean nullable, boolean hasDefault){}
     private record Cached(List<ColumnMeta> cols, Instant loadedAt){}
     private final ConcurrentMap<String, Cached> cache = new ConcurrentHashMap<>();
 
-    public void enqueue(FileIngestionRequest req) {
-        log.info("Enqueue ingestion: table='{}', url='{}'", req.tableName(), req.url());
-        ingestionExecutor.execute(() -> runJob(req));
+    /** Inserts the job into the shared queue; any replica's poller may run it. Returns the job id. */
+    public long enqueue(FileIngestionRequest req) {
+        IngestionJob job = jobs.create(req, batchLines(req.modeOrDefault()));
+        log.info("Enqueue ingestion job {}: table='{}', url='{}', priority {}",
+                job.getId(), req.tableName(), req.url(), job.getPriority());
+        return job.getId();
     }
 
-    @Transactional
+    /** Lines per checkpointed batch; stored on the job so a resumed run cuts the same batches. */
+    static int batchLines(FileIngestionRequest.LoadMode mode) {
+        return mode == FileIngestionRequest.LoadMode.COPY ? COPY_SEGMENT_ROWS : BATCH_SIZE;
+    }
+
+    void runJob(IngestionJob job) {
+        FileIngestionRequest req = job.toRequest();
+        String table = req.tableName().toLowerCase(Locale.ROOT);
+        try {
+            if (job.getBulkId() != null) prefetchNext(job.getBulkId());
+            load(req, table, job.getBatchLines(), rangeStart -> jobs.ledger(job, rangeStart),
+                    source -> jobs.pinSource(job, source));
+            if (!jobs.complete(job)) {
+                log.warn("Job {} was re-queued while running (lease expired); leaving it to its new owner", job.getId());
+                return;
+            }
+            log.info("Ingestion job {} done for table='{}' ({}): success={}, fail={} (attempt {})",
+                    job.getId(), table, req.modeOrDefault(), job.getOkRows(), job.getFailRows(), job.getAttempts());
+        } catch (Exception e) {
+            log.error("Fatal ingestion error for job {} table '{}': {}", job.getId(), table, e.getMessage(), e);
+            try {
+                jobs.fail(job, e);
+            } catch (Exception ex) {
+                log.error("Could not mark job {} failed: {}", job.getId(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Overlaps the next file's download with this file's load: prefetches the
+     * first queued sibling that no other running sibling is already fetching.
+     */
+    private void prefetchNext(long bulkId) {
+        try {
+            for (String url : jobs.nextInBulk(bulkId, PREFETCH_CANDIDATES)) {
+                if (storage.prefetch(url)) return;
+            }
+        } catch (Exception e) {
+            log.debug("No prefetch for bulk {}: {}", bulkId, e.getMessage());
+        }
+    }
+
+    /** Runs a request without a job row or checkpoints (benchmarks, one-off loads). */
     void runJob(FileIngestionRequest req) {
         long ok = 0, fail = 0;
         String table = req.tableName().toLowerCase(Locale.ROOT);
-        try (var in = storage.downloadStream(req.url());
-             var csv = new CSVReaderBuilder(new InputStreamReader(in))
-                     .withCSVParser(new CSVParserBuilder().withSeparator(',').build())
-                     .build()) {
-
-            String[] headerRaw = csv.readNext();
-            if (headerRaw == null) throw new IllegalStateException("Empty CSV");
-            String[] header = Arrays.stream(headerRaw)
-                    .map(h -> h.toLowerCase(Locale.ROOT).trim())
-                    .toArray(String[]::new);
-
-            List<ColumnMeta> schema = getSchema(table);
-            Set<String> csvCols = Set.of(header);
-            List<ColumnMeta> cols = schema.stream()
-                    .filter(c -> csvCols.contains(c.name()) || (!c.hasDefault() && !c.nullable()))
-                    .toList();
-            if (cols.isEmpty()) throw new IllegalStateException("No matching columns for table " + table);
-            String sql = buildInsertSql(table, cols);
-
-            List<Map<String, String>> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            long[] stats = load(req, table, batchLines(req.modeOrDefault()), rangeStart -> BatchLedger.UNTRACKED,
+                    source -> { });
+            ok = stats[0]; fail = stats[1];
+        } catch (Exception e) {
+            log.error("Fatal ingestion error for table '{}': {}", table, e.getMessage(), e);
+            ok = 0; fail = -1;
+        }
+        log.info("Ingestion done for table='{}' ({}): success={}, fail={}",
+                table, req.modeOrDefault(), ok, fail);
+    }
+
+    /**
+     * Loads the object at {@code req.url()}.  {@code onSource} sees the
+     * version of the very response that feeds the load, before any row is
+     * written, and may reject it by throwing.
+     */
+    private long[] load(FileIngestionRequest req, String table, int batchLines,
+                        LongFunction<BatchLedger> ledgers, Consumer<ObjectVersion> onSource) throws Exception {
+        if (ParquetRowReader.isParquet(req.url())) return runParquet(req, table, batchLines, ledgers, onSource);
+        return req.parallelismOrDefault() > 1
+                ? runParallel(req, table, batchLines, ledgers, onSource)
+                : runSequential(req, table, batchLines, ledgers.apply(0), onSource);
+    }
+
+    private long[] runSequential(FileIngestionRequest req, String table, int batchLines,
+                                 BatchLedger ledger, Consumer<ObjectVersion> onSource) throws Exception {
+        if (pipeline.enabled()) {                                 // writers take their own permits
+            try (CsvRows csv = openSource(req.url(), streamingDownload, onSource)) {
+                String[] header = header(csv);
+                List<ColumnMeta> cols = prepare(table, header, ledger);
+                return new IngestionPipeline(pipeline, pipelineExecutor, dataSource, limits, meters,
+                        req.modeOrDefault(), table, cols, header, batchLines, ledger).run(csv);
+            }
+        }
+        // stream only if a loader connection is free now; otherwise spool to disk while queuing for one
+        ConcurrencyLimits.Permit permit = limits.tryAcquireDb();
+        CsvRows source;
+        try {
+            source = openSource(req.url(), streamingDownload && permit != null, onSource);
+        } catch (Exception e) {
+            if (permit != null) permit.close();
+            throw e;
+        }
+        try (CsvRows csv = source;
+             var held = permit != null ? permit : limits.acquireDb();
+             Connection con = dataSource.getConnection()) {           // held for the whole file
+            String[] header = header(csv);
+            List<ColumnMeta> cols = prepare(table, header, ledger);
+            return loadRows(con, req.modeOrDefault(), table, cols, header, csv, batchLines, ledger);
+        }
+    }
+
+    private List<ColumnMeta> prepare(String table, String[] header, BatchLedger ledger) {
+        List<ColumnMeta> cols = resolveColumns(table, header);
+        if (ledger.committedCount() > 0) {
+            log.info("Resuming table='{}': skipping {} committed batches", table, ledger.committedCount());
+        }
+        return cols;
+    }
+
+    /**
+     * Opens the object for sequential parsing.  In streaming mode the parser
+     * reads straight off the download; if that fails before the header arrives
+     * (connect / HTTP error) the object is fetched again through the temp-file
+     * spool, which is safe since no row has been loaded yet.
+     */
+    private CsvRows openSource(String url, boolean stream, Consumer<ObjectVersion> onSource) throws Exception {
+        if (stream) {
+            try {
+                return openCsv(Compression.decompressing(url, storage.openStream(url, onSource)), csvParser);
+            } catch (Exception e) {
+                log.warn("Streaming download of '{}' failed ({}), retrying via temp file", url, e.getMessage());
+            }
+        }
+        return openCsv(Compression.decompressing(url, storage.downloadStream(url, onSource)), csvParser);
+    }
+
+    /**
+     * Spools the object to disk, cuts it into record-aligned byte ranges and
+     * loads every range on its own worker / connection; counts are merged.
+     */
+    private long[] runParallel(FileIngestionRequest req, String table, int batchLines,
+                               LongFunction<BatchLedger> ledgers, Consumer<ObjectVersion> onSource) throws Exception {
+        Path file = inflated(req.url(), storage.downloadToFile(req.url(), onSource), req.parallelismOrDefault());
+        try {
+            CsvRangeSplitter.Split split = CsvRangeSplitter.split(file, CSV, req.parallelismOrDefault());
+            String[] header;
+            try (var csv = openCsv(new FileRangeInputStream(file, 0, split.headerEnd()), csvParser)) {
+                header = header(csv);
+            }
+            List<ColumnMeta> cols = resolveColumns(table, header);
+            log.info("Parallel ingestion for table='{}': {} ranges", table, split.ranges().size());
+
+            return joinRanges(table, split.ranges().stream()
+                    .map(r -> CompletableFuture.supplyAsync(
+                            () -> loadRange(file, r, req.modeOrDefault(), table, cols, header,
+                                    batchLines, ledgers.apply(r.start())),
+                            rangeExecutor))
+                    .toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Waits for every range worker and merges their counts; fails if any range failed. */
+    private static long[] joinRanges(String table, List<CompletableFuture<long[]>> parts) {
+        long ok = 0, fail = 0;
+        int failedRanges = 0;
+        for (CompletableFuture<long[]> part : parts) {
+            try {
+                long[] stats = part.join();
+                ok += stats[0]; fail += stats[1];
+            } catch (CompletionException e) {
+                failedRanges++;
+                log.error("Range load failed for table '{}': {}", table, e.getCause().getMessage(), e.getCause());
+            }
+        }
+        if (failedRanges > 0) {
+            throw new IllegalStateException(failedRanges + " of " + parts.size()
+                    + " ranges failed (loaded " + ok + " ok / " + fail + " fail before that)");
+        }
+        return new long[]{ok, fail};
+    }
+
+    /**
+     * Byte ranges need plain text: a compressed spool is inflated into a new
+     * temp file first (multi-member gzip on the range workers) and deleted.
+     */
+    private Path inflated(String url, Path spool, int parts) throws IOException {
+        Path plain = null;
+        try {
+            Compression c = Compression.detect(url, spool);
+            if (c == Compression.NONE) return spool;
+            plain = Files.createTempFile("supabase-", ".csv");
+            long t0 = System.nanoTime();
+            Compression.decompressToFile(c, spool, plain, rangeExecutor, parts);
+            log.info("Inflated {} '{}' ({} -> {} bytes) in {} ms", c, url, Files.size(spool), Files.size(plain),
+                    (System.nanoTime() - t0) / 1_000_000);
+            Files.delete(spool);
+            return plain;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            if (plain != null) Files.deleteIfExists(plain);
+            throw e;
+        }
+    }
+
+    private long[] loadRange(Path file, CsvRangeSplitter.Range range, FileIngestionRequest.LoadMode mode,
+                             String table, List<ColumnMeta> cols, String[] header,
+                             int batchLines, BatchLedger ledger) {
+        try (var in = new FileRangeInputStream(file, range.start(), range.end());
+             var permit = limits.acquireDb();
+             Connection con = dataSource.getConnection();
+             var csv = CsvUtils.open(in, CSV.withoutHeader(), csvParser)) {
+            long[] stats = loadRows(con, mode, table, cols, header, csv, batchLines, ledger);
+            log.info("Range [{}, {}) -> {} ok / {} fail", range.start(), range.end(), stats[0], stats[1]);
+            return stats;
+        } catch (Exception e) {
+            throw new IllegalStateException("Range [" + range.start() + ", " + range.end() + ") failed", e);
+        }
+    }
+
+    /* ---------- shared per-stream helpers ---------- */
+
+    /** Dialect of CSV uploads; byte ranges after the first are read without the header line. */
+    static final CsvFormat CSV = CsvFormat.DEFAULT;
+
+    /** Opens a whole CSV object and reads its header line; closes {@code in} on failure. */
+    static CsvRows openCsv(InputStream in, CsvRows.Parser parser) throws IOException {
+        return CsvUtils.open(in, CSV, parser);
+    }
+
+    /** Header names lower-cased and trimmed, as matched against the table columns. */
+    private static String[] header(CsvRows csv) {
+        String[] headerRaw = csv.header();
+        if (headerRaw == null) throw new IllegalStateException("Empty CSV");
+        return Arrays.stream(headerRaw)
+                .map(h -> h.toLowerCase(Locale.ROOT).trim())
+                .toArray(String[]::new);
+    }
+
+    private List<ColumnMeta> resolveColumns(String table, String[] header) {
+        List<ColumnMeta> schema = getSchema(table);
+        Set<String> csvCols = Set.of(header);
+        List<ColumnMeta> cols = schema.stream()
+                .filter(c -> csvCols.contains(c.name()) || (!c.hasDefault() && !c.nullable()))
+                .toList();
+        if (cols.isEmpty()) throw new IllegalStateException("No matching columns for table " + table);
+        return cols;
+    }
+
+    private long[] loadRows(Connection con, FileIngestionRequest.LoadMode mode, String table,
+                            List<ColumnMeta> cols, String[] header, CsvRows csv,
+                            int batchLines, BatchLedger ledger) throws Exception {
+        long allocStart = ThreadAllocation.currentThreadBytes();
+        ledger.begin(con);
+        try {
+            long[] stats = mode == FileIngestionRequest.LoadMode.COPY
+                    ? copyRows(con, table, cols, header, csv, batchLines, ledger)
+                    : batchRows(con, table, cols, header, csv, batchLines, ledger);
+            recordAllocation(mode, allocStart, stats[0] + stats[1]);
+            return stats;
+        } finally {
+            ledger.end(con);
+        }
+    }
+
+    /** Heap bytes the loading thread (parser, binding and driver) allocated per row. */
+    private void recordAllocation(FileIngestionRequest.LoadMode mode, long startBytes, long rows) {
+        if (startBytes < 0 || rows <= 0) return;
+        long allocated = ThreadAllocation.currentThreadBytes() - startBytes;
+        DistributionSummary.builder("ingestion.alloc.bytes.per.row")
+                .description("Heap bytes allocated per ingested row by the loading thread")
+                .baseUnit("bytes")
+                .tag("mode", mode.name())
+                .register(meters)
+                .record((double) allocated / rows);
+        log.info("Loader allocated {} KB for {} rows ({} B/row)", allocated >> 10, rows, allocated / rows);
+    }
+
+    private long[] batchRows(Connection con, String table, List<ColumnMeta> cols, String[] header,
+                             CsvRows csv, int batchLines, BatchLedger ledger)
+            throws IOException, SQLException {
+        long ok = 0, fail = 0;
+        int[] pos = columnPositions(cols, header);
+        ColumnBinder[] binders = ColumnBinder.compile(cols);
+        RowSlab slab = new RowSlab(cols.size(), batchLines);        // reused for every batch
+        try (PreparedStatement ps = con.prepareStatement(buildInsertSql(table, cols))) {
             String[] line;
-            long lineNo = 1;
-            while ((line = csv.readNext()) != null) {
-                lineNo++;
-                Map<String, String> row = new HashMap<>();
-                for (int i = 0; i < header.length && i < line.length; i++) {
-                    row.put(header[i], line[i]);
-                }
-                batch.add(row);
-                if (batch.size() == BATCH_SIZE) {
-                    long[] stats = flushBatch(sql, cols, batch);
+            long lineIdx = 0, seq = 0;
+            while ((line = csv.next()) != null) {
+                seq = lineIdx++ / batchLines;
+                if (ledger.isCommitted(seq)) continue;             // loaded before a restart
+                if (slab.add(line, pos)) {
+                    long[] stats = commitBatch(con, ps, binders, slab, seq, ledger);
                     ok += stats[0]; fail += stats[1];
-                    log.info("Batch up to line {} -> {} ok / {} fail", lineNo, stats[0], stats[1]);
+                    log.info("Batch up to line {} -> {} ok / {} fail", lineIdx + 1, stats[0], stats[1]);
                 }
             }
-            if (!batch.isEmpty()) {
-                long[] stats = flushBatch(sql, cols, batch);
+            if (!slab.isEmpty()) {
+                long[] stats = commitBatch(con, ps, binders, slab, seq, ledger);
                 ok += stats[0]; fail += stats[1];
             }
-        } catch (Exception e) {
-            log.error("Fatal ingestion error for table '{}': {}", table, e.getMessage(), e);
-            ok = 0; fail = -1;
         }
-        log.info("Ingestion done for table='{}': success={}, fail={}", table, ok, fail);
+        return new long[]{ok, fail};
+    }
+
+    private static long[] commitBatch(Connection con, PreparedStatement ps, ColumnBinder[] binders,
+                                      RowSlab slab, long seq, BatchLedger ledger) throws SQLException {
+        int lines = slab.size();
+        long[] stats = flushBatch(ps, binders, slab);
+        ledger.commit(con, seq, lines, stats[0], stats[1]);
+        return stats;
     }
 
     private List<ColumnMeta> getSchema(String table) {
@@ -151,7 +455,7 @@ public class BatchIngestionService {
         };
     }
 
-    private String buildInsertSql(String table, List<ColumnMeta> cols) {
+    static String buildInsertSql(String table, List<ColumnMeta> cols) {
         String colNames = cols.stream()
                 .map(ColumnMeta::name)
                 .collect(Collectors.joining(","));
@@ -159,34 +463,16 @@ public class BatchIngestionService {
         return "INSERT INTO " + table + " (" + colNames + ") VALUES (" + placeholders + ")";
     }
 
-    private long[] flushBatch(String sql, List<ColumnMeta> cols, List<Map<String, String>> batch) {
+    /** Binds one slab and executes it as a JDBC batch; clears the slab. */
+    static long[] flushBatch(PreparedStatement ps, ColumnBinder[] binders, RowSlab batch) {
         int totalRows = batch.size();
         int invalidRows = 0;
         int validRows = 0;
-        try (Connection con = dataSource.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            for (Map<String, String> row : batch) {
+        try {
+            for (int r = 0; r < totalRows; r++) {
                 boolean rowValid = true;
-                int idx = 1;
-                for (ColumnMeta c : cols) {
-                    String raw = row.get(c.name());
-                    try {
-                        if (raw == null || raw.isBlank()) {
-                            ps.setNull(idx++, c.sqlType());
-                        } else {
-                            switch (c.sqlType()) {
-                                case Types.INTEGER -> ps.setInt(idx++, Integer.parseInt(raw));
-                                case Types.BIGINT  -> ps.setLong(idx++, Long.parseLong(raw));
-                                case Types.DOUBLE, Types.NUMERIC -> ps.setDouble(idx++, Double.parseDouble(raw));
-                                case Types.BOOLEAN -> ps.setBoolean(idx++, Boolean.parseBoolean(raw));
-                                case Types.TIMESTAMP -> ps.setTimestamp(idx++, parseTimestamp(raw));
-                                default -> ps.setString(idx++, raw);
-                            }
-                        }
-                    } catch (Exception e) {
-                        rowValid = false;
-                        break;
-                    }
+                for (int i = 0; i < binders.length && rowValid; i++) {
+                    rowValid = binders[i].bind(ps, i + 1, batch.get(r, i));
                 }
                 if (rowValid) {
                     ps.addBatch();
@@ -195,33 +481,285 @@ public class BatchIngestionService {
                     invalidRows++;
                 }
             }
-            int[] results = ps.executeBatch();
-            long success = Arrays.stream(results).filter(count -> count > 0).count();
-            long fail = (validRows - success) + invalidRows;
-            return new long[]{success, fail};
+            return executeBatch(ps, validRows, invalidRows);
         } catch (SQLException | DataAccessException e) {
-            log.warn("DB insert error on {} rows: {}", totalRows, e.getMessage());
-            return new long[]{0, totalRows};
+            return failedBatch(ps, totalRows, e);
         } finally {
             batch.clear();
         }
     }
 
-    private static Timestamp parseTimestamp(String s) {
-        s = s.trim();
-        if (s.matches(".*[+-]\\d{1,2}$")) {
-            s = s + ":00";
-        }
-        String iso = s.contains("T") ? s : s.replace(' ', 'T');
+    /** Executes the rows added to {@code ps}; returns {ok, fail} counting the rejected rows as failed. */
+    private static long[] executeBatch(PreparedStatement ps, int validRows, int invalidRows) throws SQLException {
+        int[] results = ps.executeBatch();
+        // reWriteBatchedInserts reports multi-row statements as SUCCESS_NO_INFO
+        long success = Arrays.stream(results)
+                .filter(count -> count > 0 || count == Statement.SUCCESS_NO_INFO)
+                .count();
+        long fail = (validRows - success) + invalidRows;
+        return new long[]{success, fail};
+    }
+
+    /** Drops a batch the database refused; all of its rows count as failed. */
+    private static long[] failedBatch(PreparedStatement ps, int totalRows, Exception e) {
+        log.warn("DB insert error on {} rows: {}", totalRows, e.getMessage());
         try {
-            OffsetDateTime odt = OffsetDateTime.parse(iso, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            return Timestamp.from(odt.toInstant());
-        } catch (DateTimeParseException ignored) {
+            ps.clearBatch();
+            if (!ps.getConnection().getAutoCommit()) ps.getConnection().rollback();
+        } catch (SQLException ignored) { }
+        return new long[]{0, totalRows};
+    }
+
+    /* ---------- COPY FROM STDIN path ---------- */
+
+    static String buildCopySql(String table, List<ColumnMeta> cols) {
+        String colNames = cols.stream()
+                .map(ColumnMeta::name)
+                .collect(Collectors.joining(","));
+        return "COPY " + table + " (" + colNames + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    /**
+     * Streams validated rows from the reader into COPY segments of
+     * {@code batchLines} lines, each committed with its ledger row.  Rows that
+     * fail type conversion are skipped and counted; a server-side error fails
+     * the whole segment.
+     */
+    private long[] copyRows(Connection con, String table, List<ColumnMeta> cols, String[] header,
+                            CsvRows csv, int batchLines, BatchLedger ledger)
+            throws SQLException, IOException {
+        int[] pos = columnPositions(cols, header);
+        ColumnBinder[] binders = ColumnBinder.compile(cols);
+        String copySql = buildCopySql(table, cols);
+
+        long ok = 0, fail = 0;
+        CsvTokenizer bytes = csv.tokenizer();                       // null on the OpenCSV path
+        CopyManager copyApi = con.unwrap(PGConnection.class).getCopyAPI();
+        for (long seq = 0; ; seq++) {
+            if (ledger.isCommitted(seq)) {                          // loaded before a restart
+                if (csv.skip(batchLines) < batchLines) break;
+                continue;
+            }
+            CopyInWriter out = new CopyInWriter(copyApi, copySql);
+            int seen = 0, invalid = 0;
+            long copied;
+            try {
+                if (bytes != null) {                                // fields straight from the byte block
+                    while (seen < batchLines && bytes.next()) {
+                        seen++;
+                        if (!appendCopyRow(out, binders, pos, bytes)) invalid++;
+                    }
+                } else {
+                    String[] line;
+                    while (seen < batchLines && (line = csv.next()) != null) {
+                        seen++;
+                        if (!appendCopyRow(out, binders, pos, line)) invalid++;
+                    }
+                }
+                copied = out.finish();
+                log.info("COPY up to line {} -> {} ok / {} invalid", seq * batchLines + seen + 1, copied, invalid);
+            } catch (SQLException e) {
+                out.abort();
+                ledger.rollback(con);
+                seen += csv.skip(batchLines - seen);
+                log.warn("COPY error on segment ending line {}: {}", seq * batchLines + seen + 1, e.getMessage());
+                copied = 0;
+            } catch (IOException | RuntimeException e) {
+                out.abort();                                        // frees the connection for rollback
+                throw e;
+            }
+            if (seen > 0) ledger.commit(con, seq, seen, copied, seen - copied);
+            ok += copied;
+            fail += seen - copied;
+            if (seen < batchLines) break;
         }
+        return new long[]{ok, fail};
+    }
+
+    /** Converts one CSV line into a COPY row; returns false (and writes nothing) if invalid. */
+    static boolean appendCopyRow(CopyRowBuffer out, ColumnBinder[] binders, int[] pos, String[] line)
+            throws SQLException {
+        out.beginRow();
+        for (int i = 0; i < pos.length; i++) {
+            String raw = pos[i] >= 0 && pos[i] < line.length ? line[pos[i]] : null;
+            if (!binders[i].appendCopy(out, raw)) {         // a bad row would abort the whole segment
+                out.discardRow();
+                return false;
+            }
+        }
+        out.endRow();
+        return true;
+    }
+
+    /** Same as above for the current record of a byte tokenizer; only text cells become Strings. */
+    static boolean appendCopyRow(CopyRowBuffer out, ColumnBinder[] binders, int[] pos, CsvTokenizer record)
+            throws SQLException {
+        out.beginRow();
+        for (int i = 0; i < pos.length; i++) {
+            if (!binders[i].appendCopy(out, record, pos[i])) {
+                out.discardRow();
+                return false;
+            }
+        }
+        out.endRow();
+        return true;
+    }
+
+    /** Same as above for one row of a positional slab. */
+    static boolean appendCopyRow(CopyRowBuffer out, ColumnBinder[] binders, RowSlab slab, int row)
+            throws SQLException {
+        out.beginRow();
+        for (int i = 0; i < binders.length; i++) {
+            if (!binders[i].appendCopy(out, slab.get(row, i))) {
+                out.discardRow();
+                return false;
+            }
+        }
+        out.endRow();
+        return true;
+    }
+
+    /* ---------- Parquet path ---------- */
+
+    /**
+     * Spools the object (Parquet needs its footer first), resolves the target
+     * columns against the file's columns and loads its row groups – split into
+     * up to {@code parallelism} ranges, each on its own worker / connection.
+     */
+    private long[] runParquet(FileIngestionRequest req, String table, int batchLines,
+                              LongFunction<BatchLedger> ledgers, Consumer<ObjectVersion> onSource) throws Exception {
+        Path file = storage.downloadToFile(req.url(), onSource);
         try {
-            return Timestamp.valueOf(s.replace('T', ' '));
-        } catch (IllegalArgumentException ignored) {
+            ParquetRowReader.Layout layout = ParquetRowReader.layout(file, req.parallelismOrDefault());
+            List<ColumnMeta> cols = resolveColumns(table, layout.columns());
+            List<ParquetRowReader.Range> ranges = layout.ranges();
+            if (ranges.size() <= 1) {
+                if (ranges.isEmpty()) return new long[]{0, 0};
+                return loadParquetRange(file, ranges.get(0), req.modeOrDefault(), table, cols,
+                        batchLines, ledgers.apply(0));
+            }
+            log.info("Parallel Parquet ingestion for table='{}': {} row-group ranges", table, ranges.size());
+            return joinRanges(table, ranges.stream()
+                    .map(r -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return loadParquetRange(file, r, req.modeOrDefault(), table, cols,
+                                    batchLines, ledgers.apply(r.start()));
+                        } catch (Exception e) {
+                            throw new IllegalStateException("Row groups [" + r.fromGroup() + ", "
+                                    + r.toGroup() + ") failed", e);
+                        }
+                    }, rangeExecutor))
+                    .toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private long[] loadParquetRange(Path file, ParquetRowReader.Range range, FileIngestionRequest.LoadMode mode,
+                                    String table, List<ColumnMeta> cols, int batchLines,
+                                    BatchLedger ledger) throws Exception {
+        try (var rows = ParquetRowReader.open(file, cols, range);
+             var permit = limits.acquireDb();
+             Connection con = dataSource.getConnection()) {
+            if (ledger.committedCount() > 0) {
+                log.info("Resuming table='{}': skipping {} committed batches", table, ledger.committedCount());
+            }
+            long allocStart = ThreadAllocation.currentThreadBytes();
+            ledger.begin(con);
+            try {
+                long[] stats = mode == FileIngestionRequest.LoadMode.COPY
+                        ? copyParquet(con, table, cols, rows, batchLines, ledger)
+                        : batchParquet(con, table, cols, rows, batchLines, ledger);
+                recordAllocation(mode, allocStart, stats[0] + stats[1]);
+                log.info("Row groups [{}, {}) -> {} ok / {} fail", range.fromGroup(), range.toGroup(),
+                        stats[0], stats[1]);
+                return stats;
+            } finally {
+                ledger.end(con);
+            }
+        }
+    }
+
+    /** JDBC batches of {@code batchLines} rows bound straight from the typed cells. */
+    private long[] batchParquet(Connection con, String table, List<ColumnMeta> cols, ParquetRowReader rows,
+                                int batchLines, BatchLedger ledger) throws SQLException, IOException {
+        long ok = 0, fail = 0;
+        try (PreparedStatement ps = con.prepareStatement(buildInsertSql(table, cols))) {
+            for (long seq = 0; ; seq++) {
+                if (ledger.isCommitted(seq)) {                      // loaded before a restart
+                    if (rows.skip(batchLines) < batchLines) break;
+                    continue;
+                }
+                int seen = 0, valid = 0;
+                long[] stats;
+                try {
+                    while (seen < batchLines && rows.next()) {
+                        seen++;
+                        if (rows.bind(ps)) {
+                            ps.addBatch();
+                            valid++;
+                        }
+                    }
+                    stats = executeBatch(ps, valid, seen - valid);
+                } catch (SQLException e) {
+                    seen += (int) rows.skip(batchLines - seen);
+                    stats = failedBatch(ps, seen, e);
+                }
+                if (seen > 0) ledger.commit(con, seq, seen, stats[0], stats[1]);
+                ok += stats[0];
+                fail += stats[1];
+                if (seen < batchLines) break;
+            }
+        }
+        return new long[]{ok, fail};
+    }
+
+    /** COPY segments of {@code batchLines} rows, same contract as {@link #copyRows}. */
+    private long[] copyParquet(Connection con, String table, List<ColumnMeta> cols, ParquetRowReader rows,
+                               int batchLines, BatchLedger ledger) throws SQLException, IOException {
+        String copySql = buildCopySql(table, cols);
+        long ok = 0, fail = 0;
+        CopyManager copyApi = con.unwrap(PGConnection.class).getCopyAPI();
+        for (long seq = 0; ; seq++) {
+            if (ledger.isCommitted(seq)) {
+                if (rows.skip(batchLines) < batchLines) break;
+                continue;
+            }
+            CopyInWriter out = new CopyInWriter(copyApi, copySql);
+            int seen = 0, invalid = 0;
+            long copied;
+            try {
+                while (seen < batchLines && rows.next()) {
+                    seen++;
+                    if (!rows.appendCopy(out)) invalid++;
+                }
+                copied = out.finish();
+                log.info("COPY up to row {} -> {} ok / {} invalid", seq * batchLines + seen, copied, invalid);
+            } catch (SQLException e) {
+                out.abort();
+                ledger.rollback(con);
+                seen += (int) rows.skip(batchLines - seen);
+                log.warn("COPY error on segment ending row {}: {}", seq * batchLines + seen, e.getMessage());
+                copied = 0;
+            } catch (IOException | RuntimeException e) {
+                out.abort();
+                throw e;
+            }
+            if (seen > 0) ledger.commit(con, seq, seen, copied, seen - copied);
+            ok += copied;
+            fail += seen - copied;
+            if (seen < batchLines) break;
+        }
+        return new long[]{ok, fail};
+    }
+
+    /** Header index of every target column, -1 if the CSV lacks it. */
+    static int[] columnPositions(List<ColumnMeta> cols, String[] header) {
+        int[] pos = new int[cols.size()];
+        List<String> headerList = Arrays.asList(header);
+        for (int i = 0; i < pos.length; i++) {
+            pos[i] = headerList.indexOf(cols.get(i).name());
         }
-        throw new IllegalArgumentException("Unparsable timestamp: " + s);
+        return pos;
     }
 }
@@ -0,0 +1,105 @@
+package com.example.datalake.ingestionsvc.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Checkpoints for one loader stream (a whole file, or one byte range of it).
+ * A tracked loader runs its connection in manual-commit mode and calls
+ * {@link #commit} after each batch, which inserts the batch's ledger row and
+ * commits it together with the rows – so after a crash the ledger says
+ * exactly which batches are in the table.  The ledger row is only written
+ * while the job is still RUNNING under this loader's worker, and the job row
+ * stays share-locked until the commit, so a worker whose lease expired can
+ * never commit a batch next to the job's new owner.  A resumed loader still reads
+ * every line but skips the batches {@link #isCommitted} reports; the job
+ * checks first that the source object is still the version those batches
+ * came from (see {@code IngestionJobService#pinSource}).
+ * {@link #UNTRACKED} keeps auto-commit and records nothing.
+ */
+class BatchLedger {
+
+    static final BatchLedger UNTRACKED = new BatchLedger(null, null, 0, Set.of());
+
+    /* inserts nothing unless the job is still ours */
+    private static final String INSERT_SQL = """
+            INSERT INTO ingestion_job_batches
+                   (job_id, range_start, batch_seq, line_count, ok_rows, fail_rows, committed_at)
+            SELECT id, ?, ?, ?, ?, ?, ?
+              FROM ingestion_jobs
+             WHERE id = ? AND claimed_by = ? AND status = 'RUNNING'
+               FOR SHARE
+            """;
+
+    private final Long jobId;
+    private final String worker;
+    private final long rangeStart;
+    private final Set<Long> committed;
+
+    BatchLedger(Long jobId, String worker, long rangeStart, Set<Long> committed) {
+        this.jobId = jobId;
+        this.worker = worker;
+        this.rangeStart = rangeStart;
+        this.committed = committed;
+    }
+
+    boolean isCommitted(long seq) {
+        return committed.contains(seq);
+    }
+
+    int committedCount() {
+        return committed.size();
+    }
+
+    /** Switches the loader's connection to manual commit for a tracked load. */
+    void begin(Connection con) throws SQLException {
+        if (jobId != null) con.setAutoCommit(false);
+    }
+
+    /**
+     * Records batch {@code seq} and commits it together with the rows sent on
+     * {@code con}.  If the job was re-queued or claimed by another worker
+     * meanwhile, the batch is rolled back and the load stops here.
+     */
+    void commit(Connection con, long seq, int lines, long ok, long fail) throws SQLException {
+        if (jobId == null) return;
+        int recorded;
+        try (PreparedStatement ps = con.prepareStatement(INSERT_SQL)) {
+            ps.setLong(1, rangeStart);
+            ps.setLong(2, seq);
+            ps.setInt(3, lines);
+            ps.setLong(4, ok);
+            ps.setLong(5, fail);
+            ps.setTimestamp(6, Timestamp.from(Instant.now()));
+            ps.setLong(7, jobId);
+            ps.setString(8, worker);
+            recorded = ps.executeUpdate();
+        }
+        if (recorded == 0) {
+            con.rollback();
+            throw new IllegalStateException("Job " + jobId + " is no longer owned by " + worker
+                    + " (lease expired); batch " + seq + " rolled back");
+        }
+        con.commit();
+    }
+
+    /** Discards a failed batch so its (all-failed) ledger row can still be committed. */
+    void rollback(Connection con) throws SQLException {
+        if (jobId != null) con.rollback();
+    }
+
+    /** Returns the connection to the pool in auto-commit mode, dropping anything uncommitted. */
+    void end(Connection con) {
+        if (jobId == null) return;
+        try {
+            con.rollback();
+            con.setAutoCommit(true);
+        } catch (SQLException ignored) {
+            // connection is broken; the pool will evict it
+        }
+    }
+}
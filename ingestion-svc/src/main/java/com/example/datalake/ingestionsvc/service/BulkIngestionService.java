@@ -0,0 +1,121 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.dao.BulkIngestionRepository;
+import com.example.datalake.ingestionsvc.dto.BulkIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.BulkIngestionStatus;
+import com.example.datalake.ingestionsvc.model.BulkIngestion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bulk prefix ingestion: lists the bucket under the prefix, keeps the objects
+ * whose path matches the glob and queues one {@code ingestion_jobs} row per
+ * object, tagged with the bulk id.  Scheduling is the job queue's: at most
+ * {@code maxConcurrentFiles} of a bulk request run at once, every file keeps
+ * its own ledger, and a running file prefetches its next sibling into the
+ * object cache (see {@link BatchIngestionService}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkIngestionService {
+
+    /** Jobs inserted per JDBC batch while the listing streams in. */
+    private static final int INSERT_CHUNK = 500;
+
+    private static final String ADD_FILES_SQL = "UPDATE ingestion_bulks SET files = files + ? WHERE id = ?";
+
+    private static final String FILES_SQL = """
+            SELECT count(*) AS files,
+                   coalesce(sum(CASE WHEN status = 'QUEUED' THEN 1 ELSE 0 END), 0) AS queued,
+                   coalesce(sum(CASE WHEN status = 'RUNNING' THEN 1 ELSE 0 END), 0) AS running,
+                   coalesce(sum(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END), 0) AS completed,
+                   coalesce(sum(CASE WHEN status = 'FAILED' THEN 1 ELSE 0 END), 0) AS failed
+              FROM ingestion_jobs WHERE bulk_id = ?
+            """;
+    // every committed batch of every attempt is in the ledger, finished or not
+    private static final String ROWS_SQL = """
+            SELECT coalesce(sum(b.line_count), 0) AS lines,
+                   coalesce(sum(b.ok_rows), 0) AS ok_rows,
+                   coalesce(sum(b.fail_rows), 0) AS fail_rows
+              FROM ingestion_job_batches b JOIN ingestion_jobs j ON j.id = b.job_id
+             WHERE j.bulk_id = ?
+            """;
+
+    private final StorageService storage;
+    private final IngestionJobService jobs;
+    private final BulkIngestionRepository bulks;
+    private final JdbcTemplate jdbc;
+
+    /**
+     * Discovers the matching objects and queues them; jobs are inserted in
+     * chunks while the listing pages in, so the first files can start loading
+     * before discovery has finished, and {@code files} counts every chunk
+     * as it is queued, so a listing that fails part-way leaves a bulk row
+     * that matches its queued jobs.  Returns the bulk id.
+     */
+    public long create(BulkIngestionRequest req) {
+        String bucket = req.bucket() == null || req.bucket().isBlank() ? storage.getDefaultBucket() : req.bucket();
+        PathMatcher glob;
+        try {
+            glob = FileSystems.getDefault().getPathMatcher("glob:" + req.globOrDefault());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid glob: " + e.getMessage());
+        }
+        BulkIngestion bulk = bulks.save(BulkIngestion.of(req, bucket));
+        int batchLines = BatchIngestionService.batchLines(req.modeOrDefault());
+
+        Long files = storage.listObjects(bucket, req.prefix(), null)
+                .filter(o -> !o.folder() && glob.matches(Path.of(o.name())))
+                .map(o -> req.fileRequest(objectUrl(bucket, o.name())))
+                .buffer(INSERT_CHUNK)
+                .map(chunk -> {
+                    jobs.createAll(bulk.getId(), chunk, batchLines);
+                    jdbc.update(ADD_FILES_SQL, chunk.size(), bulk.getId());
+                    return (long) chunk.size();
+                })
+                .reduce(0L, Long::sum)
+                .block();
+        bulk.setFiles(files == null ? 0 : files);
+        log.info("Bulk ingestion {}: queued {} files under '{}/{}' matching '{}' into '{}' ({} at a time)",
+                bulk.getId(), bulk.getFiles(), bucket, req.prefix(), bulk.getGlob(), bulk.getTableName(),
+                bulk.getMaxRunning());
+        return bulk.getId();
+    }
+
+    public Optional<BulkIngestionStatus> status(long id) {
+        return bulks.findById(id).map(bulk -> {
+            Map<String, Object> f = jdbc.queryForMap(FILES_SQL, id);
+            Map<String, Object> r = jdbc.queryForMap(ROWS_SQL, id);
+            return new BulkIngestionStatus(bulk.getId(), bulk.getBucket(), bulk.getPrefix(), bulk.getGlob(),
+                    bulk.getTableName(), bulk.getUploader(),
+                    num(f, "files"), num(f, "queued"), num(f, "running"), num(f, "completed"), num(f, "failed"),
+                    num(r, "lines"), num(r, "ok_rows"), num(r, "fail_rows"), bulk.getCreatedAt());
+        });
+    }
+
+    /** Storage URL of an object, every path segment encoded ({@code StorageClientService} sends it as is). */
+    static String objectUrl(String bucket, String name) {
+        StringBuilder url = new StringBuilder("/object/").append(UriUtils.encodePathSegment(bucket, StandardCharsets.UTF_8));
+        for (String segment : name.split("/", -1)) {
+            url.append('/').append(UriUtils.encodePathSegment(segment, StandardCharsets.UTF_8));
+        }
+        return url.toString();
+    }
+
+    private static long num(Map<String, Object> row, String column) {
+        return ((Number) row.get(column)).longValue();     // queryForMap keys are case-insensitive
+    }
+}
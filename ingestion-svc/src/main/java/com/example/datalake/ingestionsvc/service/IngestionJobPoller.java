@@ -0,0 +1,130 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Pulls work from the shared ingestion_jobs queue.  Every poll renews the
+ * lease on this replica's running jobs, returns jobs of dead replicas to the
+ * queue and claims as many queued jobs as there are free job slots – so the
+ * executor never queues and a replica only owns what it is actually running.
+ * A claimed job the executor rejects (every worker busy, one still winding
+ * down) goes straight back to the queue.
+ * Disable with {@code ingestion.queue.enabled=false} for an API-only replica.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ingestion.queue.enabled", havingValue = "true")
+public class IngestionJobPoller {
+
+    private final TaskExecutor ingestionExecutor;
+    private final IngestionJobService jobs;
+    private final BatchIngestionService ingestion;
+    private final int slots;
+    private final int perUploader;
+    private final Duration lease;
+    private final String workerId;
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    public IngestionJobPoller(@Qualifier("ingestionExecutor") TaskExecutor ingestionExecutor,
+                              IngestionJobService jobs,
+                              BatchIngestionService ingestion,
+                              ConcurrencyLimits limits,
+                              @Value("${ingestion.queue.max-running-per-uploader}") int perUploader,
+                              @Value("${ingestion.queue.lease-ms}") long leaseMs) {
+        this.ingestionExecutor = ingestionExecutor;
+        this.jobs = jobs;
+        this.ingestion = ingestion;
+        this.slots = limits.jobSlots();
+        this.perUploader = perUploader;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        log.info("Ingestion worker {} polling with {} slots, {} per uploader", workerId, slots, perUploader);
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.queue.poll-ms}")
+    public void poll() {
+        try {
+            if (!active.isEmpty()) renewLeases();
+            int requeued = jobs.requeueStale(lease);
+            if (requeued > 0) log.warn("Re-queued {} ingestion jobs with an expired lease", requeued);
+
+            int free = slots - active.size();
+            if (free <= 0) return;
+            List<IngestionJob> claimed = jobs.claim(workerId, free, perUploader);
+            for (int i = 0; i < claimed.size(); i++) {
+                IngestionJob job = claimed.get(i);
+                if (!start(job)) {
+                    // no free worker (one may still be finishing): hand the rest back untouched
+                    for (IngestionJob rest : claimed.subList(i, claimed.size())) jobs.release(rest, workerId);
+                    log.info("Worker {} released {} claimed jobs, executor is saturated", workerId, claimed.size() - i);
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Ingestion queue poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Renews the leases of the running jobs.  A job whose lease expired (a
+     * long GC pause, a lost DB connection) may already be running elsewhere;
+     * its ledger refuses our next batch, so it stops at that checkpoint.
+     */
+    private void renewLeases() {
+        Set<Long> running = Set.copyOf(active);
+        Set<Long> renewed = jobs.heartbeat(workerId, running);
+        for (Long id : running) {
+            if (!renewed.contains(id) && active.contains(id)) {
+                log.warn("Worker {} lost the lease on job {}; it stops at its next batch", workerId, id);
+            }
+        }
+    }
+
+    /** Jobs this worker is running right now; only their leases are renewed. */
+    Set<Long> active() {
+        return Set.copyOf(active);
+    }
+
+    private boolean start(IngestionJob job) {
+        active.add(job.getId());
+        try {
+            ingestionExecutor.execute(() -> {
+                try {
+                    ingestion.runJob(job);
+                } finally {
+                    active.remove(job.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            active.remove(job.getId());
+            return false;
+        }
+        log.info("Worker {} claimed job {} (table='{}', priority {}, attempt {})",
+                workerId, job.getId(), job.getTableName(), job.getPriority(), job.getAttempts());
+        return true;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "ingestion-svc";
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.dao.IngestionJobBatchRepository;
+import com.example.datalake.ingestionsvc.dao.IngestionJobRepository;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.IngestionJobStatus;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lifecycle of {@link IngestionJob} rows: the Postgres-backed job queue shared
+ * by all replicas, and access to each job's batch ledger.  Queue transitions
+ * are plain SQL so that claiming stays one short transaction per job and every
+ * state change after the claim is conditional on still owning the row.
+ */
+@Service
+@RequiredArgsConstructor
+public class IngestionJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    /*
+     * Next job whose uploader – and bulk request, if any – is under its running
+     * cap and not excluded by this poll; SKIP LOCKED lets concurrent pollers
+     * pass over rows another replica is claiming.
+     */
+    private static final String PICK_SQL = """
+            SELECT j.id, j.uploader, j.bulk_id, b.max_running FROM ingestion_jobs j
+              LEFT JOIN ingestion_bulks b ON b.id = j.bulk_id
+             WHERE j.status = 'QUEUED'
+               AND j.uploader <> ALL (?)
+               AND (j.bulk_id IS NULL OR j.bulk_id <> ALL (?))
+               AND (SELECT count(*) FROM ingestion_jobs r
+                     WHERE r.uploader = j.uploader AND r.status = 'RUNNING') < ?
+               AND (j.bulk_id IS NULL
+                    OR (SELECT count(*) FROM ingestion_jobs r
+                         WHERE r.bulk_id = j.bulk_id AND r.status = 'RUNNING') < b.max_running)
+             ORDER BY j.priority DESC, j.id
+             LIMIT 1
+             FOR UPDATE OF j SKIP LOCKED
+            """;
+    private static final String COUNT_RUNNING_SQL =
+            "SELECT count(*) FROM ingestion_jobs WHERE uploader = ? AND status = 'RUNNING'";
+    private static final String COUNT_BULK_RUNNING_SQL =
+            "SELECT count(*) FROM ingestion_jobs WHERE bulk_id = ? AND status = 'RUNNING'";
+    private static final String INSERT_SQL = """
+            INSERT INTO ingestion_jobs (source_url, table_name, uploader, mode, parallelism, batch_lines,
+                                        priority, status, attempts, ok_rows, fail_rows, bulk_id,
+                                        created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, 'QUEUED', 0, 0, 0, ?, ?, ?)
+            """;
+    private static final String NEXT_IN_BULK_SQL = """
+            SELECT source_url FROM ingestion_jobs
+             WHERE bulk_id = ? AND status = 'QUEUED'
+             ORDER BY priority DESC, id
+             LIMIT ?
+            """;
+    private static final String CLAIM_SQL = """
+            UPDATE ingestion_jobs
+               SET status = 'RUNNING', claimed_by = ?, heartbeat_at = ?, updated_at = ?,
+                   attempts = attempts + 1, error = NULL
+             WHERE id = ?
+            """;
+    private static final String HEARTBEAT_SQL = """
+            UPDATE ingestion_jobs SET heartbeat_at = ?
+             WHERE claimed_by = ? AND status = 'RUNNING' AND id = ANY (?)
+            RETURNING id
+            """;
+    /* undoes a claim whose job never started: back in the queue, attempt not counted */
+    private static final String RELEASE_SQL = """
+            UPDATE ingestion_jobs
+               SET status = 'QUEUED', claimed_by = NULL, heartbeat_at = NULL, updated_at = ?,
+                   attempts = attempts - 1
+             WHERE id = ? AND claimed_by = ? AND status = 'RUNNING'
+            """;
+    private static final String REQUEUE_STALE_SQL = """
+            UPDATE ingestion_jobs SET status = 'QUEUED', claimed_by = NULL, updated_at = ?
+             WHERE status = 'RUNNING' AND heartbeat_at < ?
+            """;
+    private static final String PIN_SOURCE_SQL = """
+            UPDATE ingestion_jobs SET source_etag = ?, source_size = ?, updated_at = ?
+             WHERE id = ? AND claimed_by = ? AND status = 'RUNNING'
+            """;
+    private static final String FINISH_SQL = """
+            UPDATE ingestion_jobs
+               SET status = ?, ok_rows = ?, fail_rows = ?, error = ?, claimed_by = NULL, updated_at = ?
+             WHERE id = ? AND claimed_by = ? AND status = 'RUNNING'
+            """;
+
+    private final IngestionJobRepository jobs;
+    private final IngestionJobBatchRepository batches;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    public IngestionJob create(FileIngestionRequest req, int batchLines) {
+        return jobs.save(IngestionJob.of(req, batchLines));
+    }
+
+    /** Queues one job per request of a bulk ingestion in a single JDBC batch. */
+    public void createAll(long bulkId, List<FileIngestionRequest> reqs, int batchLines) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.batchUpdate(INSERT_SQL, reqs, reqs.size(), (ps, req) -> {
+            ps.setString(1, req.url());
+            ps.setString(2, req.tableName());
+            ps.setString(3, req.uploader());
+            ps.setString(4, req.modeOrDefault().name());
+            ps.setInt(5, req.parallelismOrDefault());
+            ps.setInt(6, batchLines);
+            ps.setInt(7, req.priorityOrDefault());
+            ps.setLong(8, bulkId);
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+    }
+
+    /** Sources of the queued jobs of a bulk request, in the order they will be claimed. */
+    public List<String> nextInBulk(long bulkId, int limit) {
+        return jdbc.queryForList(NEXT_IN_BULK_SQL, String.class, bulkId, limit);
+    }
+
+    public Optional<IngestionJobStatus> status(long id) {
+        return jobs.findById(id).map(job -> {
+            IngestionJobBatchRepository.Progress p = batches.progress(id);
+            boolean finished = job.getStatus() == IngestionJob.Status.COMPLETED
+                    || job.getStatus() == IngestionJob.Status.FAILED;
+            return new IngestionJobStatus(job.getId(), job.getTableName(), job.getUploader(), job.getMode(),
+                    job.getPriority(), job.getStatus(), job.getAttempts(), job.getClaimedBy(),
+                    p.getBatches(), p.getLines(),
+                    finished ? job.getOkRows() : p.getOkRows(),
+                    finished ? job.getFailRows() : p.getFailRows(),
+                    job.getError(), job.getCreatedAt(), job.getUpdatedAt());
+        });
+    }
+
+    /**
+     * Claims up to {@code max} queued jobs for {@code worker}, highest priority
+     * first, never letting one uploader exceed {@code perUploader} running jobs
+     * nor a bulk request its {@code max_running}.  Each claim is its own
+     * transaction; a per-uploader advisory lock (a bulk request has a single
+     * uploader) makes both caps hold across replicas that claim at the same time.
+     */
+    public List<IngestionJob> claim(String worker, int max, int perUploader) {
+        List<Long> ids = new ArrayList<>(max);
+        Set<String> fullUploaders = new HashSet<>();
+        Set<Long> fullBulks = new HashSet<>();
+        while (ids.size() < max) {
+            Claim claim = tx.execute(status -> claimOne(worker, perUploader, fullUploaders, fullBulks));
+            if (claim == null || claim == Claim.NONE) break;
+            if (claim.id() != null) {
+                ids.add(claim.id());
+            } else if (claim.fullUploader() != null) {
+                fullUploaders.add(claim.fullUploader());
+            } else {
+                fullBulks.add(claim.fullBulk());
+            }
+        }
+        return ids.isEmpty() ? List.of() : jobs.findAllById(ids);
+    }
+
+    /**
+     * Outcome of one claim attempt: the claimed job, an empty queue, or a cap
+     * another replica filled between pick and lock – that uploader or bulk
+     * request is skipped for the rest of the poll, everybody else still gets
+     * their turn.
+     */
+    private record Claim(Long id, String fullUploader, Long fullBulk) {
+        static final Claim NONE = new Claim(null, null, null);
+    }
+
+    private Claim claimOne(String worker, int perUploader, Set<String> fullUploaders, Set<Long> fullBulks) {
+        List<Map<String, Object>> next = jdbc.query(PICK_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("varchar", fullUploaders.toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", fullBulks.toArray()));
+            ps.setInt(3, perUploader);
+        }, new ColumnMapRowMapper());
+        if (next.isEmpty()) return Claim.NONE;
+        long id = ((Number) next.get(0).get("id")).longValue();
+        String uploader = (String) next.get(0).get("uploader");
+        jdbc.queryForList("SELECT pg_advisory_xact_lock(hashtext(?))", uploader);
+        Long running = jdbc.queryForObject(COUNT_RUNNING_SQL, Long.class, uploader);
+        if (running != null && running >= perUploader) return new Claim(null, uploader, null);  // lost the race
+        if (next.get(0).get("bulk_id") instanceof Number bulkId) {
+            Long bulkRunning = jdbc.queryForObject(COUNT_BULK_RUNNING_SQL, Long.class, bulkId.longValue());
+            if (bulkRunning != null && bulkRunning >= ((Number) next.get(0).get("max_running")).intValue()) {
+                return new Claim(null, null, bulkId.longValue());
+            }
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update(CLAIM_SQL, worker, now, now, id);
+        return new Claim(id, null, null);
+    }
+
+    /**
+     * Renews the lease on the jobs {@code worker} is actually running; a job
+     * claimed but not running keeps ageing and is re-queued by another poll.
+     * Returns the ids still owned; the others lost their lease.
+     */
+    public Set<Long> heartbeat(String worker, Collection<Long> running) {
+        if (running.isEmpty()) return Set.of();
+        return Set.copyOf(jdbc.query(HEARTBEAT_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.from(Instant.now()));
+            ps.setString(2, worker);
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", running.toArray()));
+        }, (rs, i) -> rs.getLong(1)));
+    }
+
+    /** Returns a job claimed by {@code worker} but never started to the queue. */
+    public boolean release(IngestionJob job, String worker) {
+        return jdbc.update(RELEASE_SQL, Timestamp.from(Instant.now()), job.getId(), worker) == 1;
+    }
+
+    /** Puts RUNNING jobs whose worker stopped heart-beating back in the queue. */
+    public int requeueStale(Duration lease) {
+        Instant now = Instant.now();
+        return jdbc.update(REQUEUE_STALE_SQL, Timestamp.from(now), Timestamp.from(now.minus(lease)));
+    }
+
+    /**
+     * Ties the job to the version of its source object, as served by the GET
+     * that feeds the load (never a separate HEAD).  The first run records
+     * it; a resumed run must read the same version, since its ledger says which
+     * batches of <em>those</em> bytes are in the table.  If the object was
+     * replaced meanwhile the job starts over when nothing was committed yet,
+     * and fails otherwise: rows of the old version are already loaded.
+     */
+    void pinSource(IngestionJob job, StorageClientService.ObjectVersion source) {
+        boolean pinned = job.getSourceEtag() != null || job.getSourceSize() != null;
+        if (pinned && Objects.equals(job.getSourceEtag(), source.etag())
+                && Objects.equals(job.getSourceSize(), source.size())) {
+            return;
+        }
+        if (pinned) {
+            long committed = batches.progress(job.getId()).getBatches();
+            if (committed > 0) {
+                throw new IllegalStateException("Source changed since the job started (ETag "
+                        + job.getSourceEtag() + ", " + job.getSourceSize() + " bytes -> ETag " + source.etag()
+                        + ", " + source.size() + " bytes); " + committed + " batches of the old version are loaded");
+            }
+        }
+        job.setSourceEtag(source.etag());
+        job.setSourceSize(source.size());
+        jdbc.update(PIN_SOURCE_SQL, source.etag(), source.size(), Timestamp.from(Instant.now()),
+                job.getId(), job.getClaimedBy());
+    }
+
+    /** Marks the job done; counters are the ledger totals over every attempt. False if no longer ours. */
+    public boolean complete(IngestionJob job) {
+        return finish(job, IngestionJob.Status.COMPLETED, null);
+    }
+
+    public boolean fail(IngestionJob job, Exception e) {
+        String msg = String.valueOf(e.getMessage());
+        return finish(job, IngestionJob.Status.FAILED,
+                msg.length() > MAX_ERROR_LENGTH ? msg.substring(0, MAX_ERROR_LENGTH) : msg);
+    }
+
+    private boolean finish(IngestionJob job, IngestionJob.Status status, String error) {
+        IngestionJobBatchRepository.Progress p = batches.progress(job.getId());
+        job.setStatus(status);
+        job.setOkRows(p.getOkRows());
+        job.setFailRows(p.getFailRows());
+        job.setError(error);
+        return jdbc.update(FINISH_SQL, status.name(), p.getOkRows(), p.getFailRows(), error,
+                Timestamp.from(Instant.now()), job.getId(), job.getClaimedBy()) == 1;
+    }
+
+    BatchLedger ledger(IngestionJob job, long rangeStart) {
+        return new BatchLedger(job.getId(), job.getClaimedBy(), rangeStart,
+                batches.findCommittedSeqs(job.getId(), rangeStart));
+    }
+}
@@ -0,0 +1,404 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.config.PipelineProperties;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import com.example.datalake.ingestionsvc.util.ColumnBinder;
+import com.example.datalake.ingestionsvc.util.CopyRowBuffer;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import com.example.datalake.ingestionsvc.util.RowSlab;
+import com.example.datalake.ingestionsvc.util.ThreadAllocation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.core.task.TaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Staged loader for one CSV stream:
+ * <pre>
+ *   reader (job thread) ─▶ [raw queue] ─▶ N converters ─▶ [ready queue] ─▶ M writers ─▶ Postgres
+ * </pre>
+ * Both queues are bounded, so a slow stage back-pressures the stages before
+ * it instead of buffering the file in memory.  Converters turn raw lines into
+ * typed rows (BATCH) or encoded COPY text (COPY); each writer owns one
+ * connection.  Per-stage busy time and sampled queue depths are published to
+ * Micrometer and logged when the job ends: the stage with the highest
+ * utilisation – the one whose input queue sits full – is the bottleneck.
+ * Batches are the job's checkpoint units: each carries its sequence number and
+ * a writer commits it together with its {@link BatchLedger} row.
+ */
+@Slf4j
+class IngestionPipeline {
+    private static final long POLL_MS = 100;
+
+    /** Parsed lines of batch {@code seq} in a pooled slab, recycled once a converter is done with it. */
+    private record RawBatch(RowSlab slab, long seq) { }
+
+    /** BATCH mode fills rows, COPY mode fills copyData; valid = rows to write. */
+    private record ReadyBatch(List<Object[]> rows, byte[] copyData, int valid, int invalid, long seq) { }
+
+    private static final RawBatch RAW_EOF = new RawBatch(null, -1);
+    private static final ReadyBatch READY_EOF = new ReadyBatch(List.of(), null, 0, 0, -1);
+
+    private final PipelineProperties props;
+    private final TaskExecutor executor;
+    private final DataSource dataSource;
+    private final ConcurrencyLimits limits;
+    private final LoadMode mode;
+    private final String table;
+    private final List<ColumnMeta> cols;
+    private final ColumnBinder[] binders;
+    private final int[] pos;
+    private final String insertSql;
+    private final String copySql;
+    private final int batchLines;
+    private final BatchLedger ledger;
+
+    private final BlockingQueue<RawBatch> rawQueue;
+    private final BlockingQueue<ReadyBatch> readyQueue;
+    private final BlockingQueue<RowSlab> freeSlabs;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder fail = new LongAdder();
+
+    private final Stage read, convert, write;
+    private final Depth rawDepth, readyDepth;
+
+    IngestionPipeline(PipelineProperties props, TaskExecutor executor, DataSource dataSource,
+                      ConcurrencyLimits limits, MeterRegistry meters, LoadMode mode, String table,
+                      List<ColumnMeta> cols, String[] header, int batchLines, BatchLedger ledger) {
+        this.props = props;
+        this.executor = executor;
+        this.dataSource = dataSource;
+        this.limits = limits;
+        this.mode = mode;
+        this.table = table;
+        this.cols = cols;
+        this.binders = ColumnBinder.compile(cols);
+        this.pos = BatchIngestionService.columnPositions(cols, header);
+        this.insertSql = BatchIngestionService.buildInsertSql(table, cols);
+        this.copySql = BatchIngestionService.buildCopySql(table, cols);
+        this.batchLines = batchLines;
+        this.ledger = ledger;
+        this.rawQueue = new ArrayBlockingQueue<>(props.queueCapacity());
+        // one slab per raw-queue slot, per converter and for the reader: never starves, never grows
+        int slabs = props.queueCapacity() + props.converters() + 1;
+        this.freeSlabs = new ArrayBlockingQueue<>(slabs);
+        for (int i = 0; i < slabs; i++) freeSlabs.add(new RowSlab(cols.size(), batchLines));
+        this.readyQueue = new ArrayBlockingQueue<>(props.queueCapacity());
+        this.read = new Stage("read", 1, meters);
+        this.convert = new Stage("convert", props.converters(), meters);
+        this.write = new Stage("write", props.writers(), meters);
+        this.rawDepth = new Depth("raw", props.queueCapacity(), meters);
+        this.readyDepth = new Depth("ready", props.queueCapacity(), meters);
+    }
+
+    /** Runs all stages to completion; returns {success, fail} like the inline loaders. */
+    long[] run(CsvRows csv) throws Exception {
+        long start = System.nanoTime();
+        CountDownLatch convertersDone = new CountDownLatch(props.converters());
+        CountDownLatch writersDone = new CountDownLatch(props.writers());
+        try {
+            for (int i = 0; i < props.converters(); i++) start(this::convertLoop, convert, convertersDone);
+            for (int i = 0; i < props.writers(); i++) start(this::writeLoop, write, writersDone);
+            long allocStart = ThreadAllocation.currentThreadBytes();
+            try {
+                readLoop(csv);
+            } finally {
+                read.allocated(allocStart);
+            }
+        } catch (Exception e) {
+            abort(e);
+        }
+        convertersDone.await();
+        for (int i = 0; i < props.writers(); i++) put(readyQueue, READY_EOF);
+        writersDone.await();
+
+        report(System.nanoTime() - start);
+        Throwable t = failure.get();
+        if (t != null) throw new IllegalStateException("Pipeline failed for table " + table, t);
+        return new long[]{ok.sum(), fail.sum()};
+    }
+
+    /* ---------------- stages ---------------- */
+
+    private void readLoop(CsvRows csv) throws Exception {
+        RowSlab slab = take(freeSlabs);
+        long t0 = System.nanoTime();
+        long lineIdx = 0, seq = 0;
+        String[] line;
+        while (slab != null && (line = csv.next()) != null) {
+            seq = lineIdx++ / batchLines;
+            if (ledger.isCommitted(seq)) continue;       // loaded before a restart
+            if (slab.add(line, pos)) {
+                read.record(slab.size(), System.nanoTime() - t0);
+                if (!put(rawQueue, new RawBatch(slab, seq), rawDepth)) return;
+                slab = take(freeSlabs);
+                t0 = System.nanoTime();
+            }
+        }
+        if (slab == null) return;                     // aborted
+        if (!slab.isEmpty()) {
+            read.record(slab.size(), System.nanoTime() - t0);
+            if (!put(rawQueue, new RawBatch(slab, seq), rawDepth)) return;
+        }
+        for (int i = 0; i < props.converters(); i++) put(rawQueue, RAW_EOF);
+    }
+
+    private void convertLoop() throws Exception {
+        RawBatch batch;
+        while ((batch = take(rawQueue)) != null && batch != RAW_EOF) {
+            RowSlab slab = batch.slab();
+            long t0 = System.nanoTime();
+            ReadyBatch ready = mode == LoadMode.COPY ? encodeCopy(slab, batch.seq()) : convertTyped(slab, batch.seq());
+            convert.record(slab.size(), System.nanoTime() - t0);
+            slab.clear();
+            freeSlabs.add(slab);
+            if (!put(readyQueue, ready, readyDepth)) return;
+        }
+    }
+
+    private void writeLoop() throws Exception {
+        try (var permit = limits.acquireDb();
+             Connection con = dataSource.getConnection();
+             PreparedStatement ps = mode == LoadMode.BATCH ? con.prepareStatement(insertSql) : null) {
+            CopyManager copyApi = mode == LoadMode.COPY ? con.unwrap(PGConnection.class).getCopyAPI() : null;
+            ledger.begin(con);
+            try {
+                ReadyBatch batch;
+                while ((batch = take(readyQueue)) != null && batch != READY_EOF) {
+                    long t0 = System.nanoTime();
+                    int lines = batch.valid() + batch.invalid();
+                    long success = batch.valid() == 0 ? 0
+                            : mode == LoadMode.COPY ? writeCopy(con, copyApi, batch) : writeBatch(ps, batch);
+                    ledger.commit(con, batch.seq(), lines, success, lines - success);
+                    ok.add(success);
+                    fail.add(lines - success);
+                    write.record(lines, System.nanoTime() - t0);
+                }
+            } finally {
+                ledger.end(con);
+            }
+        }
+    }
+
+    /* ---------------- per-batch work ---------------- */
+
+    private ReadyBatch convertTyped(RowSlab slab, long seq) {
+        List<Object[]> rows = new ArrayList<>(slab.size());
+        int invalid = 0;
+        for (int r = 0; r < slab.size(); r++) {
+            Object[] row = new Object[binders.length];
+            boolean valid = true;
+            for (int i = 0; i < row.length && valid; i++) {
+                row[i] = binders[i].convert(slab.get(r, i));
+                valid = row[i] != ColumnBinder.INVALID;
+            }
+            if (valid) rows.add(row);
+            else invalid++;
+        }
+        return new ReadyBatch(rows, null, rows.size(), invalid, seq);
+    }
+
+    private ReadyBatch encodeCopy(RowSlab slab, long seq) throws SQLException {
+        CopyRowBuffer out = new CopyRowBuffer(slab.size() * 16 * cols.size());
+        int valid = 0, invalid = 0;
+        for (int r = 0; r < slab.size(); r++) {
+            if (BatchIngestionService.appendCopyRow(out, binders, slab, r)) valid++;
+            else invalid++;
+        }
+        return new ReadyBatch(null, out.drain(), valid, invalid, seq);
+    }
+
+    private long writeBatch(PreparedStatement ps, ReadyBatch batch) {
+        try {
+            for (Object[] row : batch.rows()) {
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] == null) ps.setNull(i + 1, cols.get(i).sqlType());
+                    else ps.setObject(i + 1, row[i]);
+                }
+                ps.addBatch();
+            }
+            long success = 0;
+            for (int count : ps.executeBatch()) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) success++;
+            }
+            return success;
+        } catch (SQLException e) {
+            log.warn("DB insert error on {} rows: {}", batch.valid(), e.getMessage());
+            try {
+                ps.clearBatch();
+                ledger.rollback(ps.getConnection());
+            } catch (SQLException ignored) { }
+            return 0;
+        }
+    }
+
+    private long writeCopy(Connection con, CopyManager copyApi, ReadyBatch batch) {
+        CopyIn copyIn = null;
+        try {
+            copyIn = copyApi.copyIn(copySql);
+            copyIn.writeToCopy(batch.copyData(), 0, batch.copyData().length);
+            return copyIn.endCopy();
+        } catch (SQLException e) {
+            log.warn("COPY error on {} rows: {}", batch.valid(), e.getMessage());
+            try {
+                if (copyIn != null && copyIn.isActive()) copyIn.cancelCopy();
+                ledger.rollback(con);
+            } catch (SQLException ignored) { }
+            return 0;
+        }
+    }
+
+    /* ---------------- plumbing ---------------- */
+
+    private interface StageBody { void run() throws Exception; }
+
+    /** Hands one stage worker to the executor; one it does not take fails the run but still counts as done. */
+    private void start(StageBody body, Stage stats, CountDownLatch done) {
+        try {
+            executor.execute(() -> stage(body, stats, done));
+        } catch (RuntimeException e) {
+            abort(e);
+            done.countDown();
+        }
+    }
+
+    private void stage(StageBody body, Stage stats, CountDownLatch done) {
+        long allocStart = ThreadAllocation.currentThreadBytes();
+        try {
+            body.run();
+        } catch (Throwable t) {
+            abort(t);
+        } finally {
+            stats.allocated(allocStart);
+            done.countDown();
+        }
+    }
+
+    private void abort(Throwable t) {
+        if (failure.compareAndSet(null, t)) {
+            log.error("Pipeline aborted for table '{}': {}", table, t.getMessage());
+        }
+    }
+
+    private <T> boolean put(BlockingQueue<T> q, T item, Depth depth) throws InterruptedException {
+        depth.sample(q.size());
+        return put(q, item);
+    }
+
+    /** Blocking put that gives up once another stage has failed. */
+    private <T> boolean put(BlockingQueue<T> q, T item) throws InterruptedException {
+        while (failure.get() == null) {
+            if (q.offer(item, POLL_MS, TimeUnit.MILLISECONDS)) return true;
+        }
+        return false;
+    }
+
+    /** Blocking take that returns null once another stage has failed. */
+    private <T> T take(BlockingQueue<T> q) throws InterruptedException {
+        while (failure.get() == null) {
+            T item = q.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            if (item != null) return item;
+        }
+        return null;
+    }
+
+    private void report(long wallNanos) {
+        log.info("Pipeline table='{}' ({}) took {} ms | {} | {} | {} | queue {} | queue {}",
+                table, mode, wallNanos / 1_000_000,
+                read.summary(wallNanos), convert.summary(wallNanos), write.summary(wallNanos),
+                rawDepth.summary(), readyDepth.summary());
+    }
+
+    /** Busy time & row throughput of one stage (summed over its workers). */
+    private static final class Stage {
+        private final String name;
+        private final int workers;
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder allocBytes = new LongAdder();
+        private final Timer timer;
+
+        Stage(String name, int workers, MeterRegistry meters) {
+            this.name = name;
+            this.workers = workers;
+            this.timer = Timer.builder("ingestion.pipeline.stage")
+                    .description("Busy time per batch of an ingestion pipeline stage")
+                    .tag("stage", name)
+                    .register(meters);
+        }
+
+        void record(int n, long nanos) {
+            rows.add(n);
+            busyNanos.add(nanos);
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /** Adds what the current worker thread allocated since {@code startBytes}. */
+        void allocated(long startBytes) {
+            if (startBytes >= 0) allocBytes.add(ThreadAllocation.currentThreadBytes() - startBytes);
+        }
+
+        String summary(long wallNanos) {
+            double busy = busyNanos.sum();
+            long n = rows.sum();
+            double perWorker = busy == 0 ? 0 : n * workers / (busy / 1e9);
+            return String.format("%s x%d: %,d rows, %,.0f rows/s busy, util %.0f%%, alloc %,d B/row",
+                    name, workers, n, perWorker, 100.0 * busy / ((double) wallNanos * workers),
+                    n == 0 ? 0 : allocBytes.sum() / n);
+        }
+    }
+
+    /** Queue depth sampled by the producer right before each put. */
+    private static final class Depth {
+        private final String name;
+        private final int capacity;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicInteger max = new AtomicInteger();
+        private final DistributionSummary summary;
+
+        Depth(String name, int capacity, MeterRegistry meters) {
+            this.name = name;
+            this.capacity = capacity;
+            this.summary = DistributionSummary.builder("ingestion.pipeline.queue.depth")
+                    .description("Batches waiting in an ingestion pipeline queue")
+                    .tag("queue", name)
+                    .register(meters);
+        }
+
+        void sample(int depth) {
+            samples.increment();
+            total.add(depth);
+            max.accumulateAndGet(depth, Math::max);
+            summary.record(depth);
+        }
+
+        String summary() {
+            long n = samples.sum();
+            return String.format("%s avg %.1f / max %d of %d",
+                    name, n == 0 ? 0.0 : (double) total.sum() / n, max.get(), capacity);
+        }
+    }
+}
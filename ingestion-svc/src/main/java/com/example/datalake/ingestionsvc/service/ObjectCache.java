@@ -0,0 +1,259 @@
+package com.example.datalake.ingestionsvc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read-through disk cache of Supabase Storage objects, keyed by bucket/path
+ * and validated by ETag.  A cached object is revalidated on every use with
+ * {@code If-None-Match}: a 304 serves the local file, anything else streams
+ * from upstream and – for a full 200 with an ETag – is written to the cache
+ * while the caller reads it.  Least recently used files are evicted once the
+ * cache exceeds {@code ingestion.cache.max-bytes}.  The index lives in memory,
+ * so files of a previous run are removed at startup.
+ */
+@Slf4j
+@Component
+public class ObjectCache {
+
+    /** Object path inside a Storage URL: /object[/public|/authenticated]/{bucket}/{path}. */
+    private static final Pattern OBJECT_URL =
+            Pattern.compile("/object/(?:public/|authenticated/)?([^?]+)");
+
+    /** A cached object; {@code file} is owned by the cache. */
+    public record Entry(Path file, String etag, long size, @Nullable String contentType,
+                        @Nullable String lastModified) {
+    }
+
+    /**
+     * Result of {@link #open}: either a revalidated local copy with an open
+     * channel (the caller closes it) or the upstream response, whose body
+     * must be consumed or cancelled.
+     */
+    public record Lookup(@Nullable Entry entry, @Nullable FileChannel channel,
+                         @Nullable ResponseEntity<Flux<DataBuffer>> remote) {
+        public boolean isHit() {
+            return channel != null;
+        }
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ObjectCache(@Value("${ingestion.cache.enabled}") boolean enabled,
+                       @Value("${ingestion.cache.dir}") Path dir,
+                       @Value("${ingestion.cache.max-bytes}") long maxBytes,
+                       MeterRegistry meters) {
+        this.enabled = enabled && maxBytes > 0;
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("ingestion.cache.requests").tag("result", "hit")
+                .description("Object fetches answered from the local cache after revalidation")
+                .register(meters);
+        this.misses = Counter.builder("ingestion.cache.requests").tag("result", "miss")
+                .description("Object fetches that went to Supabase Storage")
+                .register(meters);
+        Gauge.builder("ingestion.cache.bytes", this, ObjectCache::size)
+                .description("Bytes held by the local object cache")
+                .register(meters);
+        if (this.enabled) {
+            try (var old = Files.newDirectoryStream(Files.createDirectories(dir), "obj-*.part")) {
+                for (Path f : old) Files.deleteIfExists(f);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot prepare object cache at " + dir, e);
+            }
+            log.info("Object cache at {} (max {} bytes)", dir, maxBytes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /** Cache key of an object in a bucket. */
+    public static String key(String bucket, String path) {
+        return bucket + "/" + path;
+    }
+
+    /** Cache key of a Storage object URL (bucket/path), or the URL itself for anything else. */
+    public static String keyOf(String url) {
+        Matcher m = OBJECT_URL.matcher(url);
+        return m.find() ? m.group(1) : url;
+    }
+
+    /**
+     * Sends {@code request}, conditional on the cached ETag of {@code key} if
+     * there is one.  The cached file is opened before the request goes out,
+     * so a concurrent eviction cannot pull it away from under a 304.
+     */
+    public Mono<Lookup> open(String key, WebClient.RequestHeadersSpec<?> request) {
+        if (!enabled) {
+            return request.retrieve().toEntityFlux(DataBuffer.class).map(r -> new Lookup(null, null, r));
+        }
+        Entry cached;
+        FileChannel channel;
+        synchronized (this) {
+            cached = index.get(key);
+            channel = cached == null ? null : openOrDrop(key, cached);
+        }
+        if (channel != null) request = request.header(HttpHeaders.IF_NONE_MATCH, cached.etag());
+        AtomicBoolean answered = new AtomicBoolean();
+        return request.retrieve()
+                .toEntityFlux(DataBuffer.class)
+                .map(r -> {
+                    answered.set(true);
+                    if (channel != null && r.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        r.getBody().subscribe(DataBufferUtils::release);
+                        hits.increment();
+                        return new Lookup(cached, channel, null);
+                    }
+                    closeQuietly(channel);
+                    misses.increment();
+                    return new Lookup(null, null, accepts(r) ? fill(key, r) : r);
+                })
+                .doOnError(e -> closeQuietly(channel))
+                .doOnCancel(() -> {
+                    if (!answered.get()) closeQuietly(channel);
+                });
+    }
+
+    /**
+     * Whether the body of {@code r} is kept once read: only a full 200 with a
+     * strong ETag (the revalidator) that does not declare more than
+     * {@code max-bytes}.  Decided from the headers, before any byte is read.
+     */
+    public boolean accepts(ResponseEntity<?> r) {
+        String etag = r.getHeaders().getETag();
+        return enabled && r.getStatusCode().value() == HttpStatus.OK.value()
+                && etag != null && !etag.startsWith("W/") && r.getHeaders().getContentLength() <= maxBytes;
+    }
+
+    synchronized long size() {
+        return totalBytes;
+    }
+
+    /** Tees a full response into a new cache file; it is only indexed once the body completed. */
+    private ResponseEntity<Flux<DataBuffer>> fill(String key, ResponseEntity<Flux<DataBuffer>> r) {
+        HttpHeaders headers = r.getHeaders();
+        String etag = headers.getETag();
+        Flux<DataBuffer> body = Flux.defer(() -> {
+            Path tmp;
+            FileChannel out;
+            try {
+                tmp = Files.createTempFile(dir, "obj-", ".part");
+                out = FileChannel.open(tmp, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                log.warn("Not caching {}: {}", key, e.getMessage());
+                return r.getBody();
+            }
+            // each buffer is on disk before the reader gets it; the reader releases it
+            return DataBufferUtils.write(r.getBody(), out)
+                    .doFinally(signal -> {
+                        closeQuietly(out);
+                        if (signal == SignalType.ON_COMPLETE) {
+                            put(key, tmp, etag, headers);
+                        } else {
+                            deleteQuietly(tmp);
+                        }
+                    });
+        });
+        return new ResponseEntity<>(body, headers, r.getStatusCode());
+    }
+
+    private synchronized void put(String key, Path file, String etag, HttpHeaders headers) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            return;
+        }
+        if (size > maxBytes) {             // undeclared length: indexing it would evict everything else
+            deleteQuietly(file);
+            return;
+        }
+        Entry old = index.put(key, new Entry(file, etag, size, headers.getFirst(HttpHeaders.CONTENT_TYPE),
+                headers.getFirst(HttpHeaders.LAST_MODIFIED)));
+        if (old != null) drop(old);
+        totalBytes += size;
+        Iterator<Map.Entry<String, Entry>> lru = index.entrySet().iterator();
+        while (totalBytes > maxBytes && lru.hasNext()) {
+            Entry e = lru.next().getValue();
+            lru.remove();
+            drop(e);
+        }
+    }
+
+    /** Evicted files may still be open by readers; POSIX keeps them readable until closed. */
+    private void drop(Entry e) {
+        totalBytes -= e.size();
+        deleteQuietly(e.file());
+    }
+
+    private FileChannel openOrDrop(String key, Entry e) {
+        try {
+            return FileChannel.open(e.file(), StandardOpenOption.READ);
+        } catch (NoSuchFileException gone) {
+            index.remove(key);
+            totalBytes -= e.size();
+            return null;
+        } catch (IOException io) {
+            log.warn("Cannot open cached object {}: {}", key, io.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeQuietly(@Nullable FileChannel ch) {
+        if (ch == null) return;
+        try {
+            ch.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+}
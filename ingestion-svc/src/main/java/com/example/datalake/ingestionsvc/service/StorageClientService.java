@@ -1,55 +1,300 @@
 package com.example.datalake.ingestionsvc.service;
 
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
-/** Stream large objects from Supabase Storage without loading into memory */
+/**
+ * Stream large objects from Supabase Storage without loading into memory;
+ * every fetch goes through the {@link ObjectCache}, so re-ingesting an
+ * unchanged object reads the local copy after a 304.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class StorageClientService {
 
     private final WebClient supabaseWebClient;   // from SupabaseConfig
+    private final ConcurrencyLimits limits;      // caps concurrent transfers, not threads
+    private final ObjectCache cache;
+
+    // DataBuffers requested ahead of the reader (~8 KB each); bounds the in-flight bytes
+    @Value("${ingestion.download.prefetch-buffers}")
+    private int prefetchBuffers;
+
+    // background prefetches by cache key; a fetch of the same object waits for it
+    private final ConcurrentMap<String, CompletableFuture<Void>> prefetching = new ConcurrentHashMap<>();
+
+    /**
+     * Stream an object straight into an InputStream: the download is
+     * subscribed lazily and only {@code prefetchBuffers} DataBuffers are
+     * requested ahead of the reader, so a slow consumer back-pressures the
+     * HTTP connection instead of filling memory or disk.  Download errors
+     * surface from {@code read()}; {@code close()} cancels the transfer and
+     * frees its transfer slot.  A cache hit reads the local file instead;
+     * HTTP errors are thrown here.
+     */
+    public InputStream openStream(String fileUrl) {
+        return openStream(fileUrl, version -> { });
+    }
+
+    /**
+     * As {@link #openStream(String)}, first handing {@code onVersion} the
+     * version of the response the stream reads; if it throws, the transfer is
+     * cancelled and the exception propagates.
+     */
+    public InputStream openStream(String fileUrl, Consumer<ObjectVersion> onVersion) {
+        ConcurrencyLimits.Permit permit = transferPermit();
+        try {
+            ObjectCache.Lookup object = fetch(fileUrl, onVersion);
+            InputStream in = object.isHit()
+                    ? Channels.newInputStream(object.channel())
+                    : DataBufferUtils.subscriberInputStream(object.remote().getBody(), prefetchBuffers);
+            return new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        permit.close();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
 
     /**
      * Stream an object from Supabase Storage into a temp file and return FileInputStream.
      * The temp file auto-deletes when stream is closed (DELETE_ON_CLOSE).
      */
     public InputStream downloadStream(String fileUrl) {
+        return downloadStream(fileUrl, version -> { });
+    }
+
+    /** As {@link #downloadStream(String)}, checking the version first as {@link #downloadToFile(String, Consumer)} does. */
+    public InputStream downloadStream(String fileUrl, Consumer<ObjectVersion> onVersion) {
+        Path tmp = downloadToFile(fileUrl, onVersion);
+        try {
+            // InputStream that deletes the temp file when closed
+            return Files.newInputStream(tmp, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Temp-file open failed", ioe);
+        }
+    }
+
+    /**
+     * Stream an object into a temp file and return its path, for callers that
+     * need random access (e.g. splitting into byte ranges).  The caller owns
+     * the file and must delete it.  A cache hit is hard-linked (or copied)
+     * rather than downloaded, so deleting the file never touches the cache.
+     */
+    public Path downloadToFile(String fileUrl) {
+        return downloadToFile(fileUrl, version -> { });
+    }
+
+    /**
+     * As {@link #downloadToFile(String)}, first handing {@code onVersion} the
+     * version of the response that fills the file; if it throws, nothing is
+     * downloaded and the exception propagates.
+     */
+    public Path downloadToFile(String fileUrl, Consumer<ObjectVersion> onVersion) {
+        try (var permit = transferPermit()) {
+            return spool(fetch(fileUrl, onVersion));
+        }
+    }
+
+    private static Path spool(ObjectCache.Lookup object) {
         try {
             Path tmp = Files.createTempFile("supabase-", ".tmp");
             tmp.toFile().deleteOnExit();     // JVM-level safety net
 
+            if (object.isHit()) {
+                try (FileChannel cached = object.channel()) {
+                    linkOrCopy(object.entry().file(), cached, tmp);
+                }
+                return tmp;
+            }
             // Non-blocking download → write to temp file
-            Flux<DataBuffer> body = supabaseWebClient       // reuse the same WebClient
-                    .get()
-                    .uri(fileUrl)                           // <-- use full URL
-                    .accept(MediaType.APPLICATION_OCTET_STREAM)
-                    .retrieve()
-                    .bodyToFlux(DataBuffer.class);
-
-            DataBufferUtils.write(body, tmp, StandardOpenOption.WRITE)
+            DataBufferUtils.write(object.remote().getBody(), tmp, StandardOpenOption.WRITE)
                     .block();                        // wait for completion
-
-            // InputStream that deletes the temp file when closed
-            return Files.newInputStream(tmp, StandardOpenOption.DELETE_ON_CLOSE);
+            return tmp;
         } catch (IOException ioe) {
             throw new UncheckedIOException("Temp-file creation failed", ioe);
         } catch (Exception ex) {
             throw new RuntimeException("Supabase download failed", ex);
         }
     }
+
+    /**
+     * Downloads an object into the object cache in the background so that a
+     * later {@link #openStream} is a revalidated local read (one that starts
+     * meanwhile waits for the prefetch instead of downloading twice).  Best
+     * effort: false if the cache is off, the object is cached or already
+     * being prefetched, or no transfer slot is free right now.  A response the
+     * cache would not keep (see {@link ObjectCache#accepts}) is cancelled
+     * unread, so the job that loads it downloads it once, and barely waits.
+     */
+    public boolean prefetch(String fileUrl) {
+        String key = ObjectCache.keyOf(fileUrl);
+        if (!cache.isEnabled() || cache.contains(key) || prefetching.containsKey(key)) return false;
+        ConcurrencyLimits.Permit permit = limits.tryAcquireStorage();
+        if (permit == null) return false;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (prefetching.putIfAbsent(key, done) != null) {
+            permit.close();
+            return false;
+        }
+        cache.open(key, get(fileUrl))
+                .flatMapMany(object -> {
+                    if (!object.isHit()) {
+                        if (cache.accepts(object.remote())) return object.remote().getBody();
+                        cancelUnread(object.remote().getBody());
+                        return Flux.empty();
+                    }
+                    try {
+                        object.channel().close();
+                    } catch (IOException ignored) {
+                    }
+                    return Flux.empty();
+                })
+                .doFinally(signal -> {
+                    permit.close();
+                    prefetching.remove(key, done);
+                    done.complete(null);
+                })
+                .subscribe(DataBufferUtils::release,
+                        e -> log.debug("Prefetch of '{}' failed: {}", fileUrl, e.getMessage()));
+        return true;
+    }
+
+    /** What identifies one version of an object: its ETag and size (-1 if Storage did not declare it). */
+    public record ObjectVersion(@Nullable String etag, long size) {
+
+        /** The version a fetch is about to read: the revalidated cache entry, or the response headers. */
+        static ObjectVersion of(ObjectCache.Lookup object) {
+            if (object.isHit()) return new ObjectVersion(object.entry().etag(), object.entry().size());
+            HttpHeaders headers = object.remote().getHeaders();
+            return new ObjectVersion(headers.getETag(), headers.getContentLength());
+        }
+    }
+
+    /** Waits for a transfer slot; on virtual threads this parks cheaply instead of pinning a pool thread. */
+    public ConcurrencyLimits.Permit transferPermit() {
+        try {
+            return limits.acquireStorage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a storage transfer slot", e);
+        }
+    }
+
+    private ObjectCache.Lookup fetch(String fileUrl) {
+        String key = ObjectCache.keyOf(fileUrl);
+        CompletableFuture<Void> pending = prefetching.get(key);
+        if (pending != null) pending.join();
+        return cache.open(key, get(fileUrl)).block();
+    }
+
+    /**
+     * GET of an object URL.  A well-formed encoded URL (bulk ingestion stores
+     * these) is sent as given: its decoded path segments go in as URI
+     * variables, which WebClient encodes exactly once, so names with
+     * {@code { ? # %} reach the right object.  Anything else (e.g. a raw
+     * path with spaces) is expanded as a URI template, as before.
+     */
+    private WebClient.RequestHeadersSpec<?> get(String fileUrl) {
+        return target(supabaseWebClient.get(), fileUrl).accept(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private static WebClient.RequestHeadersSpec<?> target(WebClient.RequestHeadersUriSpec<?> spec, String fileUrl) {
+        UriComponents uri;
+        try {
+            uri = UriComponentsBuilder.fromUriString(fileUrl).build(true);
+        } catch (IllegalArgumentException notEncoded) {
+            return spec.uri(fileUrl);
+        }
+        if (uri.getScheme() != null) return spec.uri(uri.toUri());
+        if (uri.getQuery() != null || uri.getFragment() != null) return spec.uri(fileUrl);
+        Object[] segments = uri.getPathSegments().stream()
+                .map(segment -> UriUtils.decode(segment, StandardCharsets.UTF_8))
+                .toArray();
+        return spec.uri("/{segment}".repeat(segments.length), segments);
+    }
+
+    /** Fetches the object and hands its version to {@code onVersion}; a rejected object is released unread. */
+    private ObjectCache.Lookup fetch(String fileUrl, Consumer<ObjectVersion> onVersion) {
+        ObjectCache.Lookup object = fetch(fileUrl);
+        try {
+            onVersion.accept(ObjectVersion.of(object));
+            return object;
+        } catch (RuntimeException e) {
+            if (object.isHit()) {
+                try {
+                    object.channel().close();
+                } catch (IOException ignored) {
+                }
+            } else {
+                cancelUnread(object.remote().getBody());
+            }
+            throw e;
+        }
+    }
+
+    /** Subscribes only to cancel: the connection is dropped without requesting a byte. */
+    private static void cancelUnread(Flux<DataBuffer> body) {
+        body.subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                cancel();
+            }
+        });
+    }
+
+    /** The cached file may be evicted (unlinked) meanwhile; the open channel still reads it. */
+    private static void linkOrCopy(Path cached, FileChannel from, Path tmp) throws IOException {
+        try {
+            Files.delete(tmp);
+            Files.createLink(tmp, cached);
+            return;
+        } catch (IOException | UnsupportedOperationException e) {
+            // different file store or already evicted: copy from the open channel
+        }
+        try (FileChannel to = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = from.size();
+            for (long pos = 0; pos < size; ) pos += from.transferTo(pos, size - pos, to);
+        }
+    }
 }
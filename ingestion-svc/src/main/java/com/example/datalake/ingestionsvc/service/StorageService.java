@@ -1,28 +1,75 @@
 package com.example.datalake.ingestionsvc.service;
 
+import com.example.datalake.ingestionsvc.dto.StorageObject;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
 @Service
 public class StorageService {
+    private static final String TUS_VERSION = "1.0.0";
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+    private static final int CHUNK_ATTEMPTS = 3;
+    /** Zero-byte object the Supabase dashboard creates to keep empty folders. */
+    private static final String FOLDER_PLACEHOLDER = ".emptyFolderPlaceholder";
+    private static final ParameterizedTypeReference<List<ListedEntry>> LISTING = new ParameterizedTypeReference<>() { };
+
     private final WebClient webClient;
+    private final ObjectCache cache;
+    private final ObjectMapper mapper;
     private final String defaultBucket;
+    private final long resumableThreshold;
+    private final int chunkBytes;
+    private final int listPageSize;
 
     public String getDefaultBucket() {
         return defaultBucket;
     }
 
     public StorageService(WebClient supabaseWebClient,
-                          @Value("${supabase.bucket}") String defaultBucket) {
+                          ObjectCache cache,
+                          ObjectMapper mapper,
+                          @Value("${supabase.bucket}") String defaultBucket,
+                          @Value("${ingestion.storage.upload.resumable-threshold-bytes}") long resumableThreshold,
+                          @Value("${ingestion.storage.upload.chunk-bytes}") int chunkBytes,
+                          @Value("${ingestion.storage.list.page-size}") int listPageSize) {
         this.webClient = supabaseWebClient;
+        this.cache = cache;
+        this.mapper = mapper;
         this.defaultBucket = defaultBucket; // e.g. "test"
+        this.resumableThreshold = resumableThreshold;
+        this.chunkBytes = chunkBytes;
+        this.listPageSize = listPageSize;
     }
 
     /**
@@ -55,20 +102,69 @@ public class StorageService {
     }
 
     /**
-     * 3) List objects in a specific bucket
-     *    GET /object/list/{bucketId}?limit=100&offset=0
+     * 3) List objects in a specific bucket under a prefix
+     *    POST /object/list/{bucketId}   body: { prefix, search, limit, offset, sortBy }
+     *    Supabase lists one folder level per call, in pages of listPageSize;
+     *    the next page is only requested once the previous one has been
+     *    consumed, so a listing of millions of objects is never held in memory.
+     *    With delimiter "/" sub-folders come back as folder entries, without
+     *    one they are walked depth-first.  Offset paging is not a snapshot:
+     *    objects written during the walk may be missed or listed twice.
      */
-    public Mono<String> listObjects(String bucket) {
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/object/list/{bucketId}")
-                        .queryParam("limit", 100)
-                        .queryParam("offset", 0)
-                        .build(bucket))
+    public Flux<StorageObject> listObjects(String bucket, String prefix, @Nullable String delimiter) {
+        if (delimiter != null && !"/".equals(delimiter)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Only '/' is supported as delimiter"));
+        }
+        int slash = prefix.lastIndexOf('/');
+        Flux<StorageObject> level = listPage(bucket, prefix.substring(0, slash + 1), prefix.substring(slash + 1), 0);
+        return delimiter != null ? level : level.concatMap(o -> o.folder() ? listTree(bucket, o.name()) : Flux.just(o));
+    }
+
+    private Flux<StorageObject> listTree(String bucket, String folder) {
+        return listPage(bucket, folder, "", 0)
+                .concatMap(o -> o.folder() ? listTree(bucket, o.name()) : Flux.just(o));
+    }
+
+    /** One page of a folder; {@code search} narrows it to names starting with it. */
+    private Flux<StorageObject> listPage(String bucket, String folder, String search, int offset) {
+        Map<String, Object> body = Map.of(
+                "prefix", folder,
+                "search", search,
+                "limit", listPageSize,
+                "offset", offset,
+                "sortBy", Map.of("column", "name", "order", "asc"));
+        return webClient.post()
+                .uri("/object/list/{bucketId}", bucket)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
                 .retrieve()
-                .bodyToMono(String.class)
+                .bodyToMono(LISTING)
                 .onErrorResume(e -> Mono.error(
-                        new ResponseStatusException(500, "Failed to list objects", e)));
+                        new ResponseStatusException(500, "Failed to list objects", e)))
+                .flatMapMany(page -> Flux.fromIterable(page)
+                        // search is case-insensitive (ILIKE) upstream; keep exact prefix matches
+                        .filter(e -> e.name().startsWith(search) && !FOLDER_PLACEHOLDER.equals(e.name()))
+                        .map(e -> e.toObject(folder))
+                        .concatWith(page.size() < listPageSize
+                                ? Flux.empty()
+                                : Flux.defer(() -> listPage(bucket, folder, search, offset + listPageSize))));
+    }
+
+    /** Row of the Supabase list response; folders have no id and no metadata. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ListedEntry(String name, String id,
+                               @JsonProperty("updated_at") String updatedAt,
+                               Map<String, Object> metadata) {
+        StorageObject toObject(String folder) {
+            if (id == null) return new StorageObject(folder + name + "/", true, null, null, null, null);
+            Map<String, Object> meta = metadata == null ? Map.of() : metadata;
+            return new StorageObject(folder + name, false,
+                    meta.get("size") instanceof Number n ? n.longValue() : null,
+                    (String) meta.get("mimetype"),
+                    (String) meta.get("eTag"),
+                    updatedAt == null ? null : OffsetDateTime.parse(updatedAt).toInstant());
+        }
     }
 
     /**
@@ -95,15 +191,22 @@ public class StorageService {
     /**
      * 5) Download a file from a public bucket:
      *    GET /object/public/{bucketId}/{objectPath}
-     *    returns raw bytes as ByteArrayResource
+     *    goes through the object cache: either the revalidated local copy
+     *    (the caller serves any Range from it) or the upstream status and
+     *    headers with a lazy DataBuffer body; nothing is read until the body
+     *    is subscribed, so the caller can stream it out chunk by chunk.  A
+     *    Range header is passed through and answered by Supabase (206 / 416).
      */
-    public Mono<ByteArrayResource> downloadFile(String bucket, String objectPath) {
-        return webClient.get()
-                .uri("/object/public/{bucketId}/{objectPath}", bucket, objectPath)
-                .accept(MediaType.APPLICATION_OCTET_STREAM)
-                .retrieve()
-                .bodyToMono(ByteArrayResource.class)
-                .onErrorResume(e -> Mono.error(
+    public Mono<ObjectCache.Lookup> downloadFile(String bucket, String objectPath, @Nullable String range) {
+        return cache.open(ObjectCache.key(bucket, objectPath), webClient.get()
+                        .uri("/object/public/{bucketId}/{objectPath}", bucket, objectPath)
+                        .accept(MediaType.APPLICATION_OCTET_STREAM)
+                        .headers(h -> {
+                            if (range != null) h.set(HttpHeaders.RANGE, range);
+                        }))
+                .onErrorResume(WebClientResponseException.class, e -> Mono.error(
+                        new ResponseStatusException(e.getStatusCode(), "Download failed", e)))
+                .onErrorResume(e -> !(e instanceof ResponseStatusException), e -> Mono.error(
                         new ResponseStatusException(500, "Download failed", e)));
     }
 
@@ -121,21 +224,125 @@ public class StorageService {
     }
 
     /**
-     * Upload raw bytes directly to Supabase Storage under defaultBucket.
+     * 7) Stream an upload to Supabase Storage under defaultBucket without
+     *    holding the body in memory.
+     *    - Bodies of at least resumableThreshold bytes use the TUS endpoint
+     *      (POST /upload/resumable, then PATCH chunks): one chunk in memory,
+     *      and a failed chunk resumes from the offset the server reports.
+     *    - Smaller or unknown-length bodies are piped as DataBuffers in a
+     *      single POST /object/{bucket}/{path}.
      *
-     * @param objectPath  The path inside bucket (e.g. "avatars/user123.png")
-     * @param data        The raw bytes of the file
-     * @param contentType Must match the file mime (e.g. "image/png")
+     * @param objectPath    The path inside bucket (e.g. "avatars/user123.png")
+     * @param body          The payload; read on a bounded-elastic thread, not closed here
+     * @param contentType   Must match the file mime (e.g. "image/png")
+     * @param contentLength Payload size, or -1 if unknown
      */
-    public Mono<String> uploadBinary(String objectPath, byte[] data, String contentType) {
+    public Mono<String> uploadStream(String objectPath, InputStream body, String contentType, long contentLength) {
+        String type = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        if (contentLength >= resumableThreshold) {
+            return Mono.fromCallable(() -> uploadResumable(objectPath, body, type, contentLength))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .onErrorResume(e -> Mono.error(
+                            new ResponseStatusException(500, "Resumable upload failed", e)));
+        }
+        Flux<DataBuffer> data = DataBufferUtils
+                .readInputStream(() -> body, DefaultDataBufferFactory.sharedInstance, STREAM_BUFFER_BYTES)
+                .subscribeOn(Schedulers.boundedElastic());     // blocking reads stay off the event loop
         return webClient.post()
                 // maps to POST /object/{defaultBucket}/{objectPath}
                 .uri("/object/{bucket}/{path}", defaultBucket, objectPath)
-                .header("Content-Type", contentType)
-                .bodyValue(data)
+                .headers(h -> {
+                    h.set(HttpHeaders.CONTENT_TYPE, type);
+                    if (contentLength >= 0) h.setContentLength(contentLength);
+                })
+                .body(BodyInserters.fromDataBuffers(data))
                 .retrieve()
                 .bodyToMono(String.class)
                 .onErrorResume(e -> Mono.error(
                         new ResponseStatusException(500, "Binary upload failed", e)));
     }
+
+    /** TUS creation + sequential PATCHes of chunkBytes (the last one shorter). Blocking. */
+    private String uploadResumable(String objectPath, InputStream body, String contentType, long length)
+            throws IOException {
+        String location = webClient.post()
+                .uri("/upload/resumable")
+                .header("Tus-Resumable", TUS_VERSION)
+                .header("Upload-Length", Long.toString(length))
+                .header("Upload-Metadata", "bucketName " + b64(defaultBucket)
+                        + ",objectName " + b64(objectPath) + ",contentType " + b64(contentType))
+                .retrieve()
+                .toBodilessEntity()
+                .map(e -> e.getHeaders().getFirst(HttpHeaders.LOCATION))
+                .block();
+        if (location == null) throw new IOException("TUS create returned no Location");
+
+        byte[] chunk = new byte[chunkBytes];
+        long offset = 0;
+        while (offset < length) {
+            int n = body.readNBytes(chunk, 0, (int) Math.min(chunkBytes, length - offset));
+            if (n == 0) throw new EOFException("Upload body ended at " + offset + " of " + length + " bytes");
+            offset = patchChunk(location, offset, chunk, n);
+        }
+        log.info("Resumable upload of '{}/{}' done: {} bytes", defaultBucket, objectPath, length);
+        return mapper.writeValueAsString(Map.of("Key", defaultBucket + "/" + objectPath));   // shape of Supabase's single-POST reply
+    }
+
+    /**
+     * Sends chunk[0, n) at {@code offset} and returns {@code offset + n}. A PATCH the server only
+     * partly accepts, or one that fails, resumes from the offset the server reports.
+     */
+    private long patchChunk(String location, long offset, byte[] chunk, int n) throws IOException {
+        long end = offset + n;
+        long sent = offset;
+        int failures = 0;
+        while (sent < end) {
+            long reported;
+            try {
+                int from = (int) (sent - offset);
+                String newOffset = webClient.patch()
+                        .uri(location)
+                        .header("Tus-Resumable", TUS_VERSION)
+                        .header("Upload-Offset", Long.toString(sent))
+                        .contentType(MediaType.parseMediaType("application/offset+octet-stream"))
+                        .bodyValue(DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(chunk, from, n - from)))
+                        .retrieve()
+                        .toBodilessEntity()
+                        .map(e -> e.getHeaders().getFirst("Upload-Offset"))
+                        .block();
+                reported = newOffset != null ? Long.parseLong(newOffset) : end;
+                if (reported < sent || reported > end) {
+                    throw new IOException("Server offset " + reported + " outside chunk [" + sent + ", " + end + "]");
+                }
+                if (reported == sent && ++failures >= CHUNK_ATTEMPTS) {
+                    throw new IOException("Chunk at offset " + sent + " made no progress");
+                }
+                if (reported < end) log.debug("Server accepted chunk up to {} of {}, resending the rest", reported, end);
+            } catch (RuntimeException e) {
+                if (++failures >= CHUNK_ATTEMPTS) throw new IOException("Chunk at offset " + sent + " failed", e);
+                reported = serverOffset(location);
+                if (reported < offset || reported > end) {
+                    throw new IOException("Server offset " + reported + " outside chunk [" + offset + ", " + end + "]", e);
+                }
+                log.warn("Chunk at offset {} failed ({}), resuming at {}", sent, e.getMessage(), reported);
+            }
+            sent = reported;
+        }
+        return end;
+    }
+
+    private long serverOffset(String location) {
+        String offset = webClient.head()
+                .uri(location)
+                .header("Tus-Resumable", TUS_VERSION)
+                .retrieve()
+                .toBodilessEntity()
+                .map(e -> e.getHeaders().getFirst("Upload-Offset"))
+                .block();
+        return offset != null ? Long.parseLong(offset) : -1;
+    }
+
+    private static String b64(String s) {
+        return Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,264 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Per-column conversion, compiled once from the resolved column list: goes
+ * straight from the raw CSV cell to a JDBC parameter, a COPY field or a
+ * native value – no per-cell type switch, and no exceptions for the int,
+ * bigint, boolean and timestamp fast paths.  Blank cells are NULL; a blank
+ * cell in a NOT NULL column rejects the row instead of failing the batch.
+ * COPY fields can also come as {@link CsvTokenizer} slices: only text
+ * columns are then decoded into Strings.
+ */
+public abstract class ColumnBinder {
+
+    /** Returned by {@link #convert} when the row must be rejected. */
+    public static final Object INVALID = new Object();
+
+    protected final ColumnMeta column;
+
+    protected ColumnBinder(ColumnMeta column) {
+        this.column = column;
+    }
+
+    public static ColumnBinder[] compile(List<ColumnMeta> cols) {
+        return cols.stream().map(ColumnBinder::of).toArray(ColumnBinder[]::new);
+    }
+
+    public static ColumnBinder of(ColumnMeta c) {
+        return switch (c.sqlType()) {
+            case Types.INTEGER -> new IntBinder(c);
+            case Types.BIGINT  -> new LongBinder(c);
+            case Types.DOUBLE, Types.NUMERIC -> new DoubleBinder(c);
+            case Types.BOOLEAN -> new BooleanBinder(c);
+            case Types.TIMESTAMP -> new TimestampBinder(c);
+            default -> new TextBinder(c);
+        };
+    }
+
+    /** Binds one cell as parameter {@code idx}; false if the row must be rejected. */
+    public final boolean bind(PreparedStatement ps, int idx, String raw) throws SQLException {
+        if (raw == null || raw.isBlank()) {
+            if (!column.nullable()) return false;
+            ps.setNull(idx, column.sqlType());
+            return true;
+        }
+        return bindValue(ps, idx, raw);
+    }
+
+    /** Appends one cell as a COPY CSV field; false if the row must be rejected. */
+    public final boolean appendCopy(CopyRowBuffer out, String raw) {
+        if (raw == null || raw.isBlank()) {
+            if (!column.nullable()) return false;
+            out.appendNull();
+            return true;
+        }
+        return appendValue(out, raw);
+    }
+
+    /** Same as above, reading field {@code field} of the tokenizer's current record (absent if -1 or past the end). */
+    public final boolean appendCopy(CopyRowBuffer out, CsvTokenizer record, int field) {
+        if (field < 0 || field >= record.fields() || record.isBlank(field)) {
+            if (!column.nullable()) return false;
+            out.appendNull();
+            return true;
+        }
+        return appendValue(out, textual() ? record.string(field) : record.ascii(field));
+    }
+
+    /** Native JDBC value of one cell (null for blank), or {@link #INVALID}. */
+    public final Object convert(String raw) {
+        if (raw == null || raw.isBlank()) return column.nullable() ? null : INVALID;
+        return toValue(raw);
+    }
+
+    protected abstract boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException;
+
+    protected abstract boolean appendValue(CopyRowBuffer out, CharSequence raw);
+
+    protected abstract Object toValue(String raw);
+
+    /** Whether cells must be decoded as text; all other columns only accept ASCII. */
+    protected boolean textual() { return false; }
+
+    /* ---------- implementations ---------- */
+
+    private static final class IntBinder extends ColumnBinder {
+        IntBinder(ColumnMeta c) { super(c); }
+
+        @Override protected boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException {
+            long v = parseLong(raw, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            if (v == NO_LONG) return false;
+            ps.setInt(idx, (int) v);
+            return true;
+        }
+
+        @Override protected boolean appendValue(CopyRowBuffer out, CharSequence raw) {
+            long v = parseLong(raw, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            if (v == NO_LONG) return false;
+            out.appendPlain(v);
+            return true;
+        }
+
+        @Override protected Object toValue(String raw) {
+            long v = parseLong(raw, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            return v == NO_LONG ? INVALID : (Object) (int) v;
+        }
+    }
+
+    private static final class LongBinder extends ColumnBinder {
+        LongBinder(ColumnMeta c) { super(c); }
+
+        @Override protected boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException {
+            long v = parseLong(raw, Long.MIN_VALUE, Long.MAX_VALUE);
+            if (v == NO_LONG && !isMinLong(raw)) return false;
+            ps.setLong(idx, v);
+            return true;
+        }
+
+        @Override protected boolean appendValue(CopyRowBuffer out, CharSequence raw) {
+            long v = parseLong(raw, Long.MIN_VALUE, Long.MAX_VALUE);
+            if (v == NO_LONG && !isMinLong(raw)) return false;
+            out.appendPlain(v);
+            return true;
+        }
+
+        @Override protected Object toValue(String raw) {
+            long v = parseLong(raw, Long.MIN_VALUE, Long.MAX_VALUE);
+            return v == NO_LONG && !isMinLong(raw) ? INVALID : (Object) v;
+        }
+    }
+
+    /** Numeric / double keep the JDK parser (exponents, NaN, hex …); not a fast path. */
+    private static final class DoubleBinder extends ColumnBinder {
+        DoubleBinder(ColumnMeta c) { super(c); }
+
+        @Override protected boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException {
+            Object v = toValue(raw);
+            if (v == INVALID) return false;
+            ps.setDouble(idx, (Double) v);
+            return true;
+        }
+
+        @Override protected boolean appendValue(CopyRowBuffer out, CharSequence raw) {
+            Object v = toValue(raw.toString());
+            if (v == INVALID) return false;
+            out.appendPlain((Double) v);
+            return true;
+        }
+
+        @Override protected Object toValue(String raw) {
+            try {
+                return Double.parseDouble(raw);
+            } catch (NumberFormatException e) {
+                return INVALID;
+            }
+        }
+    }
+
+    /** Boolean.parseBoolean semantics: "true" in any case, everything else false. */
+    private static final class BooleanBinder extends ColumnBinder {
+        BooleanBinder(ColumnMeta c) { super(c); }
+
+        @Override protected boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException {
+            ps.setBoolean(idx, isTrue(raw));
+            return true;
+        }
+
+        @Override protected boolean appendValue(CopyRowBuffer out, CharSequence raw) {
+            out.appendPlain(isTrue(raw) ? "t" : "f");
+            return true;
+        }
+
+        @Override protected Object toValue(String raw) {
+            return isTrue(raw);
+        }
+
+        private static boolean isTrue(CharSequence raw) {
+            return raw.length() == 4 && (raw.charAt(0) | 0x20) == 't' && (raw.charAt(1) | 0x20) == 'r'
+                    && (raw.charAt(2) | 0x20) == 'u' && (raw.charAt(3) | 0x20) == 'e';
+        }
+    }
+
+    private static final class TimestampBinder extends ColumnBinder {
+        TimestampBinder(ColumnMeta c) { super(c); }
+
+        @Override protected boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException {
+            long micros = IsoTimestamps.parseMicros(raw);
+            if (micros == IsoTimestamps.INVALID) return false;
+            ps.setTimestamp(idx, IsoTimestamps.toTimestamp(micros));
+            return true;
+        }
+
+        @Override protected boolean appendValue(CopyRowBuffer out, CharSequence raw) {
+            long micros = IsoTimestamps.parseMicros(raw);
+            if (micros == IsoTimestamps.INVALID) return false;
+            out.appendTimestamp(micros);
+            return true;
+        }
+
+        @Override protected Object toValue(String raw) {
+            long micros = IsoTimestamps.parseMicros(raw);
+            return micros == IsoTimestamps.INVALID ? INVALID : IsoTimestamps.toTimestamp(micros);
+        }
+    }
+
+    private static final class TextBinder extends ColumnBinder {
+        TextBinder(ColumnMeta c) { super(c); }
+
+        @Override protected boolean textual() { return true; }
+
+        @Override protected boolean bindValue(PreparedStatement ps, int idx, String raw) throws SQLException {
+            ps.setString(idx, raw);
+            return true;
+        }
+
+        @Override protected boolean appendValue(CopyRowBuffer out, CharSequence raw) {
+            out.appendQuoted(raw);
+            return true;
+        }
+
+        @Override protected Object toValue(String raw) {
+            return raw;
+        }
+    }
+
+    /* ---------- integer fast path ---------- */
+
+    private static final long NO_LONG = Long.MIN_VALUE;
+
+    /** Long.parseLong semantics (optional sign, ASCII digits) bounded to [min, max]; NO_LONG if invalid. */
+    static long parseLong(CharSequence s, long min, long max) {
+        int n = s.length(), i = 0;
+        if (n == 0) return NO_LONG;
+        boolean neg = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            if (n == 1) return NO_LONG;
+            neg = first == '-';
+            i = 1;
+        }
+        long limit = neg ? min : -max;          // accumulate negatively, like the JDK
+        long multMin = limit / 10;
+        long v = 0;
+        for (; i < n; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9 || v < multMin) return NO_LONG;
+            v *= 10;
+            if (v < limit + d) return NO_LONG;
+            v -= d;
+        }
+        return neg ? v : -v;
+    }
+
+    /** The one valid input that collides with {@link #NO_LONG}. */
+    private static boolean isMinLong(CharSequence s) {
+        return "-9223372036854775808".contentEquals(s);
+    }
+}
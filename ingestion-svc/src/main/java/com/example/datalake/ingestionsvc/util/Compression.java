@@ -0,0 +1,124 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compression of an uploaded object, from its name ({@code .gz}, {@code .zst})
+ * or – for names without a telling extension – from its magic bytes, and
+ * the streams that undo it.  Decompression is streaming: the CSV parser
+ * pulls plain bytes while the compressed ones are still downloading.
+ */
+public enum Compression {
+    NONE, GZIP, ZSTD;
+
+    private static final int BUFFER = 64 * 1024;
+
+    /** Compression implied by the extension of an object name or URL, else null. */
+    public static Compression fromName(String name) {
+        int q = name.indexOf('?');
+        String n = (q < 0 ? name : name.substring(0, q)).toLowerCase(Locale.ROOT);
+        if (n.endsWith(".gz") || n.endsWith(".gzip")) return GZIP;
+        if (n.endsWith(".zst") || n.endsWith(".zstd")) return ZSTD;
+        return null;
+    }
+
+    /** Compression announced by the first bytes of a stream or file. */
+    public static Compression fromMagic(byte[] head, int n) {
+        if (n >= 2 && (head[0] & 0xff) == 0x1f && (head[1] & 0xff) == 0x8b) return GZIP;
+        if (n >= 4 && (head[0] & 0xff) == 0x28 && (head[1] & 0xff) == 0xb5
+                && (head[2] & 0xff) == 0x2f && (head[3] & 0xff) == 0xfd) return ZSTD;
+        return NONE;
+    }
+
+    /** Detects from the name, else by peeking at the file's first bytes. */
+    public static Compression detect(String name, Path file) throws IOException {
+        Compression byName = fromName(name);
+        if (byName != null) return byName;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            while (head.hasRemaining() && ch.read(head) > 0) { }
+            return fromMagic(head.array(), head.position());
+        }
+    }
+
+    /**
+     * Wraps {@code in} so that reads return decompressed bytes.  Detection is
+     * by name, else by peeking at the head of the stream (mark/reset, nothing
+     * is consumed).  Concatenated gzip members are read one after the other.
+     */
+    public static InputStream decompressing(String name, InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER);
+        Compression c = fromName(name);
+        if (c == null) {
+            byte[] head = new byte[4];
+            buffered.mark(head.length);
+            int n = buffered.readNBytes(head, 0, head.length);
+            buffered.reset();
+            c = fromMagic(head, n);
+        }
+        return c.wrap(buffered);
+    }
+
+    private InputStream wrap(InputStream in) throws IOException {
+        try {
+            return switch (this) {
+                case GZIP -> new GZIPInputStream(new MemberBoundaries(in), BUFFER);
+                case ZSTD -> new BufferedInputStream(new ZstdInputStream(in), BUFFER);
+                case NONE -> in;
+            };
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Decompresses {@code src} into {@code dst} for byte-range splitting.
+     * Gzip files made of several members (bgzip, concatenated .gz parts) are
+     * inflated on up to {@code parts} workers; everything else sequentially.
+     */
+    public static void decompressToFile(Compression c, Path src, Path dst, Executor executor, int parts)
+            throws IOException {
+        if (c == GZIP && parts > 1 && ParallelGunzip.inflate(src, dst, executor, parts)) return;
+        try (InputStream in = c.wrap(new BufferedInputStream(Files.newInputStream(src), BUFFER))) {
+            Files.copy(in, dst, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * {@link GZIPInputStream} only looks for another member after a trailer if
+     * {@code available() > 0}; a download that is between packets reports 0 and
+     * the rest of a multi-member (bgzip, concatenated) file was dropped.  Here
+     * {@code available()} waits for the next byte instead, so only the real end
+     * of the stream – or bytes that are not a gzip header – ends the data.
+     */
+    private static final class MemberBoundaries extends FilterInputStream {
+        MemberBoundaries(InputStream in) {
+            super(in.markSupported() ? in : new BufferedInputStream(in, BUFFER));
+        }
+
+        @Override
+        public int available() throws IOException {
+            int n = in.available();
+            if (n > 0) return n;
+            in.mark(1);
+            int b = in.read();
+            in.reset();
+            return b < 0 ? 0 : 1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.datalake.ingestionsvc.util;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.sql.SQLException;
+
+/**
+ * Buffers rows in Postgres COPY CSV text format and pushes them to a
+ * {@link CopyIn} in ~64 KB chunks.  The COPY itself is opened lazily on the
+ * first flush, so a segment without valid rows never reaches the server.
+ */
+public class CopyInWriter extends CopyRowBuffer {
+    private static final int FLUSH_CHARS = 1 << 16;
+
+    private final CopyManager copyApi;
+    private final String copySql;
+    private CopyIn copyIn;
+
+    public CopyInWriter(CopyManager copyApi, String copySql) {
+        super(FLUSH_CHARS + 4_096);
+        this.copyApi = copyApi;
+        this.copySql = copySql;
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        super.endRow();
+        if (buf.length() >= FLUSH_CHARS) flush();
+    }
+
+    /* ---------- COPY lifecycle ---------- */
+
+    /** Flushes the remaining buffer and ends the COPY; returns rows the server accepted. */
+    public long finish() throws SQLException {
+        if (!isEmpty()) flush();
+        return copyIn == null ? 0 : copyIn.endCopy();
+    }
+
+    /** Cancels an in-flight COPY after a failure; the segment is rolled back server-side. */
+    public void abort() {
+        buf.setLength(0);
+        try {
+            if (copyIn != null && copyIn.isActive()) copyIn.cancelCopy();
+        } catch (SQLException ignored) {
+            // connection is already in error state – nothing else to undo
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (copyIn == null) copyIn = copyApi.copyIn(copySql);
+        byte[] bytes = drain();
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+    }
+}
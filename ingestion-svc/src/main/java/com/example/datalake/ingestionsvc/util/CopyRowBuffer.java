@@ -0,0 +1,78 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Builds rows in Postgres COPY CSV text format.  Used directly when rows are
+ * encoded on one thread and shipped on another, and as the base of
+ * {@link CopyInWriter} when they are streamed straight into a COPY.
+ */
+public class CopyRowBuffer {
+    protected final StringBuilder buf;
+    private int rowStart;
+
+    public CopyRowBuffer(int initialChars) {
+        this.buf = new StringBuilder(initialChars);
+    }
+
+    /** Start a new row; {@link #discardRow()} rolls back to this point. */
+    public void beginRow() { rowStart = buf.length(); }
+
+    public void discardRow() { buf.setLength(rowStart); }
+
+    public void endRow() throws SQLException {
+        buf.setCharAt(buf.length() - 1, '\n');   // replace trailing separator
+    }
+
+    /** NULL in COPY CSV format is an unquoted empty field. */
+    public void appendNull() { buf.append(','); }
+
+    /** Appends a value that never needs quoting (numbers, booleans, timestamps). */
+    public void appendPlain(CharSequence v) { buf.append(v).append(','); }
+
+    public void appendPlain(long v) { buf.append(v).append(','); }
+
+    public void appendPlain(double v) { buf.append(v).append(','); }
+
+    /** Appends {@code unscaled × 10^-scale} in plain notation, e.g. (-5, 3) → {@code -0.005}. */
+    public void appendDecimal(long unscaled, int scale) {
+        int digitsStart = buf.length() + (unscaled < 0 ? 1 : 0);
+        buf.append(unscaled);
+        if (scale > 0) {
+            int digits = buf.length() - digitsStart;
+            for (int i = digits; i <= scale; i++) buf.insert(digitsStart, '0');
+            buf.insert(buf.length() - scale, '.');
+        } else {
+            for (int i = scale; i < 0; i++) buf.append('0');
+        }
+        buf.append(',');
+    }
+
+    /** Epoch microseconds rendered in the JVM zone, see {@link IsoTimestamps#appendIso}. */
+    public void appendTimestamp(long epochMicros) {
+        IsoTimestamps.appendIso(buf, epochMicros);
+        buf.append(',');
+    }
+
+    /** Appends an arbitrary text value, always quoted so "" stays distinct from NULL. */
+    public void appendQuoted(CharSequence v) {
+        buf.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char ch = v.charAt(i);
+            if (ch == '"') buf.append('"');
+            buf.append(ch);
+        }
+        buf.append('"').append(',');
+    }
+
+    public boolean isEmpty() { return buf.length() == 0; }
+
+    /** UTF-8 bytes of all complete rows, then resets the buffer. */
+    public byte[] drain() {
+        byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+        buf.setLength(0);
+        rowStart = 0;
+        return bytes;
+    }
+}
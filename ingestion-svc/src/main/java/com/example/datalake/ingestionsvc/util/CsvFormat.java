@@ -0,0 +1,54 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Dialect of a CSV file: separator, quote and escape characters, text
+ * encoding, leading lines to ignore and whether the first record is a
+ * header.  {@link #DEFAULT} is what ingestion reads: comma, double quote,
+ * backslash escape (OpenCSV's default), UTF-8, header line.
+ */
+public record CsvFormat(char separator, char quote, char escape, Charset charset,
+                        boolean header, int skipLines) {
+
+    /** Escape character that disables escaping. */
+    public static final char NO_ESCAPE = '\0';
+
+    public static final CsvFormat DEFAULT = new CsvFormat(',', '"', '\\', StandardCharsets.UTF_8, true, 0);
+
+    public CsvFormat {
+        Objects.requireNonNull(charset, "charset");
+        if (separator == quote || separator == escape || (escape != NO_ESCAPE && quote == escape)) {
+            throw new IllegalArgumentException("Separator, quote and escape characters must differ");
+        }
+        if (skipLines < 0) throw new IllegalArgumentException("skipLines must be >= 0");
+    }
+
+    public CsvFormat withSeparator(char separator) {
+        return new CsvFormat(separator, quote, escape, charset, header, skipLines);
+    }
+
+    public CsvFormat withQuote(char quote) {
+        return new CsvFormat(separator, quote, escape, charset, header, skipLines);
+    }
+
+    public CsvFormat withEscape(char escape) {
+        return new CsvFormat(separator, quote, escape, charset, header, skipLines);
+    }
+
+    public CsvFormat withCharset(Charset charset) {
+        return new CsvFormat(separator, quote, escape, charset, header, skipLines);
+    }
+
+    /** Every record is data; rows are then addressed by position only. */
+    public CsvFormat withoutHeader() {
+        return new CsvFormat(separator, quote, escape, charset, false, skipLines);
+    }
+
+    /** Ignores {@code lines} physical lines before the header (or first record). */
+    public CsvFormat withSkipLines(int lines) {
+        return new CsvFormat(separator, quote, escape, charset, header, lines);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a CSV file into byte ranges that each start and end on a record
+ * boundary, so every range can be parsed independently.
+ * <p>
+ * Boundaries are found with one sequential, quote-aware byte scan: a '\n'
+ * only ends a record when we are outside a quoted field.  Doubled quotes
+ * ("") toggle the state twice and therefore need no special handling.  Quote
+ * and escape characters come from the file's {@link CsvFormat}; inside quotes
+ * the escape character takes a following quote or escape byte out of the scan,
+ * as {@link CsvTokenizer} and OpenCSV read it.
+ */
+public final class CsvRangeSplitter {
+    private static final int SCAN_BUFFER = 1 << 20;
+
+    private CsvRangeSplitter() {}
+
+    /** [start, end) byte range of whole records. */
+    public record Range(long start, long end) {
+        public long length() { return end - start; }
+    }
+
+    /** headerEnd = offset of the first data record; ranges cover [headerEnd, size). */
+    public record Split(long headerEnd, List<Range> ranges) { }
+
+    public static Split split(Path file, CsvFormat format, int parts) throws IOException {
+        if (format.quote() > 0x7F || format.escape() > 0x7F) {
+            throw new IllegalArgumentException("Byte range splitting needs ASCII quote and escape characters");
+        }
+        byte quote = (byte) format.quote();
+        boolean escapes = format.escape() != CsvFormat.NO_ESCAPE;
+        byte escape = (byte) format.escape();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            List<Long> cuts = new ArrayList<>();
+            ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER);
+            byte[] arr = buf.array();
+
+            long headerEnd = -1, nextTarget = Long.MAX_VALUE, pos = 0;
+            boolean inQuotes = false, escaped = false;
+            int k = 1;
+            while (ch.read(buf.clear()) > 0) {
+                int n = buf.position();
+                for (int i = 0; i < n; i++) {
+                    byte b = arr[i];
+                    if (escaped) {                        // byte after an escape inside quotes
+                        escaped = false;
+                        if (b == quote || b == escape) continue;
+                    }
+                    if (inQuotes && escapes && b == escape) {
+                        escaped = true;
+                    } else if (b == quote) {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes) {
+                        long recordEnd = pos + i + 1;
+                        if (headerEnd < 0) {
+                            headerEnd = recordEnd;
+                            nextTarget = target(headerEnd, size, k, parts);
+                        } else if (recordEnd >= nextTarget) {
+                            cuts.add(recordEnd);
+                            nextTarget = ++k < parts ? target(headerEnd, size, k, parts) : Long.MAX_VALUE;
+                        }
+                    }
+                }
+                pos += n;
+            }
+            if (headerEnd < 0) headerEnd = size;            // header only, no trailing newline
+
+            List<Range> ranges = new ArrayList<>(cuts.size() + 1);
+            long start = headerEnd;
+            for (long cut : cuts) {
+                if (cut > start) ranges.add(new Range(start, cut));
+                start = cut;
+            }
+            if (size > start) ranges.add(new Range(start, size));
+            return new Split(headerEnd, ranges);
+        }
+    }
+
+    private static long target(long headerEnd, long size, int k, int parts) {
+        return headerEnd + (size - headerEnd) * k / parts;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy reader over the records of one CSV stream – the single place
+ * ingestion-svc decodes CSV, so memory stays constant whatever the file
+ * size.  Loaders pull raw records with {@link #next()}; other callers iterate
+ * {@link Row} views.  There is one view per reader, moved to each record in
+ * turn: a caller that keeps rows must copy them ({@link Row#toMap()}).
+ * Records are split by OpenCSV or, with {@link Parser#BYTES}, by
+ * {@link CsvTokenizer}, whose field slices loaders can also read directly.
+ */
+public final class CsvRows implements Iterable<CsvRows.Row>, Closeable {
+
+    /** Record splitter behind a reader. */
+    public enum Parser {
+        /** OpenCSV over a decoding {@link InputStreamReader}. */
+        OPENCSV,
+        /** {@link CsvTokenizer}: byte slices, text decoded per field. */
+        BYTES
+    }
+
+    private final CSVReader reader;           // exactly one of reader / tokenizer is set
+    private final CsvTokenizer tokenizer;
+    private final String[] header;
+    private final Row row = new Row();
+    private Map<String, Integer> index;       // header name → position, built on first lookup
+    private long records;
+    private boolean iterated;
+
+    private CsvRows(CSVReader reader, CsvTokenizer tokenizer, String[] header) {
+        this.reader = reader;
+        this.tokenizer = tokenizer;
+        this.header = header;
+    }
+
+    /** Opens {@code in} with OpenCSV and, if the format has one, reads the header; closes {@code in} on failure. */
+    public static CsvRows open(InputStream in, CsvFormat format) throws IOException {
+        return open(in, format, Parser.OPENCSV);
+    }
+
+    public static CsvRows open(InputStream in, CsvFormat format, Parser parser) throws IOException {
+        if (parser == Parser.BYTES) {
+            CsvTokenizer tokenizer;
+            try {
+                tokenizer = new CsvTokenizer(in, format);
+            } catch (RuntimeException e) {
+                in.close();
+                throw e;
+            }
+            try {
+                String[] header = format.header() && tokenizer.next() ? tokenizer.toArray() : null;
+                return new CsvRows(null, tokenizer, header);
+            } catch (IOException | RuntimeException e) {
+                tokenizer.close();
+                throw e;
+            }
+        }
+        CSVReader reader = new CSVReaderBuilder(new InputStreamReader(in, format.charset()))
+                .withCSVParser(new CSVParserBuilder()
+                        .withSeparator(format.separator())
+                        .withQuoteChar(format.quote())
+                        .withEscapeChar(format.escape())
+                        .build())
+                .withSkipLines(format.skipLines())
+                .build();
+        try {
+            return new CsvRows(reader, null, format.header() ? read(reader, 0) : null);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /** Header names as written (null without a header line, or for an empty file). */
+    public String[] header() {
+        return header;
+    }
+
+    /**
+     * The byte tokenizer this reader runs on, or null with OpenCSV.  Loaders
+     * may advance it directly instead of calling {@link #next()}.
+     */
+    public CsvTokenizer tokenizer() {
+        return tokenizer;
+    }
+
+    /** Next record's fields, or null at the end.  The array is the caller's to keep. */
+    public String[] next() throws IOException {
+        if (tokenizer != null) return tokenizer.next() ? tokenizer.toArray() : null;
+        String[] fields = read(reader, records + 1);
+        if (fields != null) records++;
+        return fields;
+    }
+
+    /** Reads past up to {@code n} records; returns how many were there. */
+    public int skip(int n) throws IOException {
+        int skipped = 0;
+        if (tokenizer != null) {
+            while (skipped < n && tokenizer.next()) skipped++;       // no decoding
+            return skipped;
+        }
+        while (skipped < n && next() != null) skipped++;
+        return skipped;
+    }
+
+    /** Data records read so far. */
+    public long recordsRead() {
+        if (tokenizer != null) return tokenizer.records() - (header != null ? 1 : 0);
+        return records;
+    }
+
+    private static String[] read(CSVReader reader, long record) throws IOException {
+        try {
+            return reader.readNext();
+        } catch (CsvValidationException e) {
+            throw new IOException("Malformed CSV " + (record == 0 ? "header" : "record " + record)
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Single-pass iteration over the remaining records; I/O errors surface as {@link UncheckedIOException}. */
+    @Override
+    public Iterator<Row> iterator() {
+        if (iterated) throw new IllegalStateException("CSV rows can be iterated once");
+        iterated = true;
+        return new Iterator<>() {
+            private String[] pending;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null) {
+                    try {
+                        pending = CsvRows.this.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return pending != null;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                row.values = pending;
+                row.number = recordsRead();
+                pending = null;
+                return row;
+            }
+        };
+    }
+
+    /** The remaining records as a sequential stream; closing it closes this reader. */
+    public Stream<Row> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tokenizer != null) tokenizer.close();
+        else reader.close();
+    }
+
+    private int indexOf(String column) {
+        if (header == null) throw new IllegalStateException("CSV format has no header; address fields by position");
+        if (index == null) {
+            index = new HashMap<>();
+            for (int i = header.length - 1; i >= 0; i--) index.put(header[i], i);   // first occurrence wins
+        }
+        return index.getOrDefault(column, -1);
+    }
+
+    /** View of the current record; valid until the iterator moves on. */
+    public final class Row {
+        private String[] values;
+        private long number;
+
+        private Row() { }
+
+        /** 1-based position of the record among the data records. */
+        public long number() { return number; }
+
+        public int size() { return values.length; }
+
+        /** Field {@code i}, null if the record is shorter. */
+        public String get(int i) {
+            return i < values.length ? values[i] : null;
+        }
+
+        /** Field under header name {@code column}, null if absent. */
+        public String get(String column) {
+            int i = indexOf(column);
+            return i >= 0 ? get(i) : null;
+        }
+
+        /** Header name → value for the fields present in both, in header order. */
+        public Map<String, String> toMap() {
+            if (header == null) throw new IllegalStateException("CSV format has no header");
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < header.length && i < values.length; i++) map.put(header[i], values[i]);
+            return map;
+        }
+    }
+}
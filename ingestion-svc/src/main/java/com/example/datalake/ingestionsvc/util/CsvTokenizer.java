@@ -0,0 +1,337 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level CSV tokenizer, the alternative to OpenCSV behind
+ * {@link CsvRows.Parser#BYTES}.  Input is read in large blocks and scanned
+ * eight bytes at a time (SWAR on {@code long} words) for separators, quotes
+ * and line ends; each field of the current record is kept as a slice of the
+ * block.  Nothing is decoded until asked: {@link #ascii} views a field as
+ * chars without copying (numbers, booleans, timestamps), {@link #string}
+ * decodes it in the format's charset (text).  Slices are valid until the
+ * next {@link #next()}.
+ * <p>
+ * Quoting follows RFC 4180 ({@code ""} inside quotes); inside quotes the
+ * format's escape character also escapes a following quote or escape
+ * character.  Unlike OpenCSV, a backslash before any other character and
+ * the {@code \r} of a quoted {@code \r\n} are kept, and escapes outside
+ * quotes are literal; malformed quoting (a stray quote, text after the
+ * closing quote) is read leniently, but not always the way OpenCSV reads
+ * it.  The charset must encode ASCII as single bytes.
+ */
+public final class CsvTokenizer implements Closeable {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final int BLOCK = 256 * 1024;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final byte sep, quote, escape;
+    private final boolean escapes;
+    private final long sepWord, quoteWord, escapeWord, lfWord, crWord;
+
+    private byte[] buf = new byte[BLOCK];
+    private int pos, limit;                  // unread bytes are buf[pos, limit)
+    private boolean eof;
+    private int skipLines;
+    private long records;
+
+    private int fields;
+    private int[] starts = new int[64], ends = new int[64];
+    private boolean[] raw = new boolean[64];  // slice still holds quotes / escapes, see unquote
+    private final Ascii view = new Ascii();
+
+    public CsvTokenizer(InputStream in, CsvFormat format) {
+        if (format.separator() > 0x7F || format.quote() > 0x7F || format.escape() > 0x7F) {
+            throw new IllegalArgumentException("Byte tokenizer needs ASCII separator, quote and escape characters");
+        }
+        if (!asciiCompatible(format.charset())) {
+            throw new IllegalArgumentException("Byte tokenizer needs an ASCII-compatible charset, not " + format.charset());
+        }
+        this.in = in;
+        this.charset = format.charset();
+        this.sep = (byte) format.separator();
+        this.quote = (byte) format.quote();
+        this.escapes = format.escape() != CsvFormat.NO_ESCAPE;
+        this.escape = escapes ? (byte) format.escape() : quote;
+        this.sepWord = broadcast(sep);
+        this.quoteWord = broadcast(quote);
+        this.escapeWord = broadcast(escape);
+        this.lfWord = broadcast('\n');
+        this.crWord = broadcast('\r');
+        this.skipLines = format.skipLines();
+    }
+
+    private static boolean asciiCompatible(Charset cs) {
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) ascii[i] = (byte) i;
+        return new String(ascii, StandardCharsets.US_ASCII).equals(new String(ascii, cs));
+    }
+
+    /** Moves to the next record; false at the end of the input. */
+    public boolean next() throws IOException {
+        while (skipLines > 0) {
+            int lf = indexOf((byte) '\n', pos);
+            if (lf >= 0) {
+                pos = lf + 1;
+                skipLines--;
+            } else if (eof) {
+                pos = limit;
+                skipLines = 0;
+            } else {
+                pos = limit;
+                fill();
+            }
+        }
+        while (true) {
+            if (pos == limit) {
+                if (eof) {
+                    fields = 0;
+                    return false;
+                }
+                fill();
+                continue;
+            }
+            if (parse()) {
+                records++;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    /** Records read so far, header included. */
+    public long records() { return records; }
+
+    /** Fields in the current record. */
+    public int fields() { return fields; }
+
+    /** True if field {@code i} is empty or whitespace only ({@link String#isBlank()} semantics). */
+    public boolean isBlank(int i) {
+        resolve(i);
+        for (int k = starts[i], end = ends[i]; k < end; k++) {
+            byte b = buf[k];
+            if (b < 0) return string(i).isBlank();
+            if (!Character.isWhitespace(b)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Field {@code i} as chars, one per byte, without copying – exact for
+     * ASCII, and non-ASCII bytes never parse as a digit or keyword.  The view
+     * is shared: it is valid until the next call.
+     */
+    public CharSequence ascii(int i) {
+        resolve(i);
+        view.from = starts[i];
+        view.to = ends[i];
+        return view;
+    }
+
+    /** Field {@code i} decoded in the format's charset. */
+    public String string(int i) {
+        resolve(i);
+        return new String(buf, starts[i], ends[i] - starts[i], charset);
+    }
+
+    /** The current record decoded, as OpenCSV would return it. */
+    public String[] toArray() {
+        String[] out = new String[fields];
+        for (int i = 0; i < fields; i++) out[i] = string(i);
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /* ---------- scanning ---------- */
+
+    /**
+     * Splits the record at {@code pos} into fields; false if the block ends
+     * first (the caller refills and it starts over, nothing has been changed).
+     */
+    private boolean parse() throws IOException {
+        fields = 0;
+        int p = pos, fieldStart = p, closedAt = -1;
+        boolean quoted = false, inQuotes = false, escaped = false;
+        while (true) {
+            int k = inQuotes ? findQuoted(p) : findPlain(p);
+            if (k < 0) {
+                if (!eof) return false;
+                if (inQuotes) throw new IOException("Unterminated quoted field in CSV record " + (records + 1));
+                addField(fieldStart, limit, quoted, closedAt, escaped);
+                pos = limit;
+                return true;
+            }
+            byte b = buf[k];
+            if (inQuotes) {
+                if (k + 1 >= limit && !eof) return false;
+                byte after = k + 1 < limit ? buf[k + 1] : 0;
+                if (b == escape && escapes && b != quote) {
+                    escaped = true;
+                    p = after == quote || after == escape ? k + 2 : k + 1;
+                } else if (after == quote) {                // "" inside quotes
+                    escaped = true;
+                    p = k + 2;
+                } else {
+                    inQuotes = false;
+                    closedAt = k;
+                    p = k + 1;
+                }
+            } else if (b == quote) {
+                if (k == fieldStart) {
+                    quoted = inQuotes = true;
+                }
+                p = k + 1;                                   // a quote inside a plain field is literal
+            } else if (b == sep) {
+                addField(fieldStart, k, quoted, closedAt, escaped);
+                p = fieldStart = k + 1;
+                quoted = escaped = false;
+                closedAt = -1;
+            } else {                                         // \n or \r
+                if (b == '\r' && k + 1 >= limit && !eof) return false;
+                addField(fieldStart, k, quoted, closedAt, escaped);
+                pos = b == '\r' && k + 1 < limit && buf[k + 1] == '\n' ? k + 2 : k + 1;
+                return true;
+            }
+        }
+    }
+
+    private void addField(int start, int end, boolean quoted, int closedAt, boolean escaped) {
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+            ends = Arrays.copyOf(ends, fields * 2);
+            raw = Arrays.copyOf(raw, fields * 2);
+        }
+        boolean plainQuoted = quoted && !escaped && closedAt == end - 1;
+        starts[fields] = plainQuoted ? start + 1 : start;
+        ends[fields] = plainQuoted ? end - 1 : end;
+        raw[fields] = quoted && !plainQuoted;
+        fields++;
+    }
+
+    /** First separator, quote or line end at or after {@code from}; -1 if none before {@code limit}. */
+    private int findPlain(int from) {
+        int i = from;
+        for (; i + 8 <= limit; i += 8) {
+            long w = (long) LONGS.get(buf, i);
+            long m = zeros(w ^ sepWord) | zeros(w ^ quoteWord) | zeros(w ^ lfWord) | zeros(w ^ crWord);
+            if (m != 0) return i + (Long.numberOfTrailingZeros(m) >>> 3);
+        }
+        for (; i < limit; i++) {
+            byte b = buf[i];
+            if (b == sep || b == quote || b == '\n' || b == '\r') return i;
+        }
+        return -1;
+    }
+
+    /** First quote or escape character at or after {@code from}; -1 if none before {@code limit}. */
+    private int findQuoted(int from) {
+        int i = from;
+        for (; i + 8 <= limit; i += 8) {
+            long w = (long) LONGS.get(buf, i);
+            long m = zeros(w ^ quoteWord) | zeros(w ^ escapeWord);
+            if (m != 0) return i + (Long.numberOfTrailingZeros(m) >>> 3);
+        }
+        for (; i < limit; i++) {
+            byte b = buf[i];
+            if (b == quote || b == escape) return i;
+        }
+        return -1;
+    }
+
+    private int indexOf(byte b, int from) {
+        for (int i = from; i < limit; i++) if (buf[i] == b) return i;
+        return -1;
+    }
+
+    /** High bit set in every zero byte of {@code x}; exact for the lowest one, which is all we use. */
+    private static long zeros(long x) {
+        return (x - ONES) & ~x & HIGHS;
+    }
+
+    private static long broadcast(int b) {
+        return (b & 0xFFL) * ONES;
+    }
+
+    /** Moves the unread bytes to the front and reads another block, growing the buffer for long records. */
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+        int n = in.readNBytes(buf, limit, buf.length - limit);
+        if (n == 0) eof = true;
+        limit += n;
+    }
+
+    /** Strips quotes and escapes of field {@code i} in place, once. */
+    private void resolve(int i) {
+        if (i >= fields) throw new IndexOutOfBoundsException("Field " + i + " of " + fields);
+        if (!raw[i]) return;
+        int r = starts[i], end = ends[i], w = r;
+        boolean inQuotes = false;
+        while (r < end) {
+            byte b = buf[r];
+            if (inQuotes) {
+                byte after = r + 1 < end ? buf[r + 1] : 0;
+                if (b == escape && escapes && b != quote && (after == quote || after == escape)) {
+                    buf[w++] = after;
+                    r += 2;
+                    continue;
+                }
+                if (b == quote) {
+                    if (after == quote) {
+                        buf[w++] = quote;
+                        r += 2;
+                    } else {
+                        inQuotes = false;
+                        r++;
+                    }
+                    continue;
+                }
+            } else if (b == quote && r == starts[i]) {
+                inQuotes = true;
+                r++;
+                continue;
+            }
+            buf[w++] = b;
+            r++;
+        }
+        ends[i] = w;
+        raw[i] = false;
+    }
+
+    /** Latin-1 window onto the block, reused for every {@link #ascii} call. */
+    private final class Ascii implements CharSequence {
+        int from, to;
+
+        @Override public int length() { return to - from; }
+
+        @Override public char charAt(int index) { return (char) (buf[from + index] & 0xFF); }
+
+        @Override public CharSequence subSequence(int start, int end) {
+            return new String(buf, from + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override public String toString() {
+            return new String(buf, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -1,32 +1,38 @@
 package com.example.datalake.ingestionsvc.util;
 
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReaderBuilder;
-
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.*;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Entry points for reading CSV lazily, one record at a time; see
+ * {@link CsvRows}.  Nothing is materialised: a caller that needs all rows
+ * in memory collects copies ({@code stream(..).map(Row::toMap).toList()}).
+ */
+public final class CsvUtils {
+
+    private CsvUtils() { }
+
+    /** Opens {@code in} in the default dialect (comma, UTF-8, header line). */
+    public static CsvRows open(InputStream in) throws IOException {
+        return open(in, CsvFormat.DEFAULT);
+    }
+
+    public static CsvRows open(InputStream in, CsvFormat format) throws IOException {
+        return CsvRows.open(in, format);
+    }
 
-public class CsvUtils {
-    public static List<Map<String, String>> parse(InputStream in)  {
-        var parser = new CSVParserBuilder().withSeparator(',').build();
-        var reader = new CSVReaderBuilder(new InputStreamReader(in)).withCSVParser(parser).build();
-        try (reader) {
-            String[] header = reader.readNext();
-            if (header == null) return List.of();
+    public static CsvRows open(InputStream in, CsvFormat format, CsvRows.Parser parser) throws IOException {
+        return CsvRows.open(in, format, parser);
+    }
 
-            List<Map<String, String>> rows = new ArrayList<>();
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                Map<String, String> row = new LinkedHashMap<>();
-                for (int i = 0; i < header.length && i < line.length; i++) {
-                    row.put(header[i], line[i]);
-                }
-                rows.add(row);
-            }
-            return rows;
-        } catch (Exception ex) {
-            throw new RuntimeException("Failed to parse CSV", ex);
+    /** Rows of {@code in} as a stream of reusable views; close the stream to close {@code in}. */
+    public static Stream<CsvRows.Row> stream(InputStream in, CsvFormat format) {
+        try {
+            return open(in, format).stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -0,0 +1,45 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** InputStream over the [start, end) slice of a file; each instance owns its own channel. */
+public class FileRangeInputStream extends InputStream {
+    private final FileChannel ch;
+    private final long end;
+    private long pos;
+
+    public FileRangeInputStream(Path file, long start, long end) throws IOException {
+        this.ch = FileChannel.open(file, StandardOpenOption.READ);
+        this.pos = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (pos >= end) return -1;
+        int n = ch.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - pos)), pos);
+        if (n > 0) pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - pos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Hand-rolled ISO-8601 timestamp parsing for CSV cells – no regex, no
+ * exceptions, no allocation for fixed-offset JVM zones.  Accepted form:
+ * <pre>
+ *   yyyy-M[M]-d[d] ('T' | ' ') HH:mm[:ss[.f{1,9}]] [ 'Z' | ±HH[:mm[:ss]] ]
+ * </pre>
+ * surrounded by optional whitespace.  Without an offset the wall-clock time is
+ * taken in the JVM default zone, as {@link Timestamp#valueOf(String)} does.
+ * Values are epoch microseconds (Postgres precision, fraction rounded
+ * half-up); unparsable or out-of-range input yields {@link #INVALID}.
+ */
+public final class IsoTimestamps {
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final ZoneRules ZONE = ZoneId.systemDefault().getRules();
+    private static final int NO_FIXED_OFFSET = Integer.MIN_VALUE;
+    private static final int FIXED_OFFSET = ZONE.isFixedOffset()
+            ? ZONE.getOffset(Instant.EPOCH).getTotalSeconds() : NO_FIXED_OFFSET;
+
+    private IsoTimestamps() { }
+
+    public static long parseMicros(CharSequence s) {
+        int i = 0, end = s.length();
+        while (i < end && s.charAt(i) <= ' ') i++;
+        while (end > i && s.charAt(end - 1) <= ' ') end--;
+
+        int year = fixed(s, i, end, 4);
+        if (year < 0 || !at(s, i + 4, end, '-')) return INVALID;
+        i += 5;
+        int month = digit(s, i++, end), d;
+        if (month < 0) return INVALID;
+        if ((d = digit(s, i, end)) >= 0) { month = month * 10 + d; i++; }
+        if (!at(s, i++, end, '-')) return INVALID;
+        int day = digit(s, i++, end);
+        if (day < 0) return INVALID;
+        if ((d = digit(s, i, end)) >= 0) { day = day * 10 + d; i++; }
+        if (!at(s, i, end, 'T') && !at(s, i, end, ' ')) return INVALID;
+        i++;
+
+        int hour = fixed(s, i, end, 2);
+        if (hour < 0 || !at(s, i + 2, end, ':')) return INVALID;
+        int minute = fixed(s, i + 3, end, 2);
+        if (minute < 0) return INVALID;
+        i += 5;
+        int second = 0;
+        long micros = 0;
+        if (at(s, i, end, ':')) {
+            second = fixed(s, i + 1, end, 2);
+            if (second < 0) return INVALID;
+            i += 3;
+            if (at(s, i, end, '.')) {
+                int start = ++i;
+                long nanos = 0;
+                while (i - start < 9 && (d = digit(s, i, end)) >= 0) { nanos = nanos * 10 + d; i++; }
+                if (i == start) return INVALID;
+                for (int k = i - start; k < 9; k++) nanos *= 10;
+                micros = (nanos + 500) / 1_000;          // may round up to a full second
+            }
+        }
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) return INVALID;
+        long local = daysFromCivil(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+
+        int offset;
+        if (i == end) {
+            offset = FIXED_OFFSET != NO_FIXED_OFFSET ? FIXED_OFFSET
+                    : ZONE.getOffset(LocalDateTime.of(year, month, day, hour, minute, second)).getTotalSeconds();
+        } else if (at(s, i, end, 'Z')) {
+            if (i + 1 != end) return INVALID;
+            offset = 0;
+        } else if (at(s, i, end, '+') || at(s, i, end, '-')) {
+            int sign = s.charAt(i) == '-' ? -1 : 1;
+            int oh = fixed(s, i + 1, end, 2), om = 0, os = 0;
+            i += 3;
+            if (i < end) {
+                om = at(s, i, end, ':') ? fixed(s, i + 1, end, 2) : -1;
+                i += 3;
+            }
+            if (i < end) {
+                os = at(s, i, end, ':') ? fixed(s, i + 1, end, 2) : -1;
+                i += 3;
+            }
+            if (i != end || oh < 0 || oh > 18 || om < 0 || om > 59 || os < 0 || os > 59) return INVALID;
+            offset = sign * (oh * 3_600 + om * 60 + os);
+        } else {
+            return INVALID;
+        }
+        return (local - offset) * 1_000_000L + micros;
+    }
+
+    /**
+     * Epoch microseconds of a wall-clock time given as microseconds since
+     * 1970-01-01T00:00 (no zone), taken in the JVM default zone – the same
+     * reading {@link #parseMicros} gives a timestamp without an offset.
+     */
+    public static long fromLocalMicros(long localMicros) {
+        long localSecond = Math.floorDiv(localMicros, 1_000_000L);
+        int offset = FIXED_OFFSET != NO_FIXED_OFFSET ? FIXED_OFFSET
+                : ZONE.getOffset(LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC)).getTotalSeconds();
+        return localMicros - offset * 1_000_000L;
+    }
+
+    /** JDBC value for {@link #parseMicros} output. */
+    public static Timestamp toTimestamp(long micros) {
+        Timestamp ts = new Timestamp(Math.floorDiv(micros, 1_000L));
+        ts.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1_000);
+        return ts;
+    }
+
+    /**
+     * Appends {@code micros} as wall-clock time in the JVM default zone plus
+     * that zone's offset – the rendering PgJDBC uses for {@code setTimestamp},
+     * so COPY and batch inserts store the same value in either column type.
+     */
+    public static void appendIso(StringBuilder sb, long micros) {
+        long epochSecond = Math.floorDiv(micros, 1_000_000L);
+        int fraction = (int) Math.floorMod(micros, 1_000_000L);
+        int offset = FIXED_OFFSET != NO_FIXED_OFFSET ? FIXED_OFFSET
+                : ZONE.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        long local = epochSecond + offset;
+        long days = Math.floorDiv(local, 86_400L);
+        int secOfDay = (int) Math.floorMod(local, 86_400L);
+
+        // civil-from-days (H. Hinnant), proleptic Gregorian
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1_460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9_999) {                    // only reachable via extreme offsets
+            sb.append(OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, fraction * 1_000L),
+                    ZONE.getOffset(Instant.ofEpochSecond(epochSecond))));
+            return;
+        }
+        pad(sb, (int) year, 4).append('-');
+        pad(sb, month, 2).append('-');
+        pad(sb, day, 2).append('T');
+        pad(sb, secOfDay / 3_600, 2).append(':');
+        pad(sb, secOfDay / 60 % 60, 2).append(':');
+        pad(sb, secOfDay % 60, 2);
+        if (fraction != 0) pad(sb.append('.'), fraction, 6);
+        if (offset == 0) {
+            sb.append('Z');
+            return;
+        }
+        int abs = Math.abs(offset);
+        pad(sb.append(offset < 0 ? '-' : '+'), abs / 3_600, 2).append(':');
+        pad(sb, abs / 60 % 60, 2);
+        if (abs % 60 != 0) pad(sb.append(':'), abs % 60, 2);
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static boolean at(CharSequence s, int i, int end, char c) {
+        return i < end && s.charAt(i) == c;
+    }
+
+    private static int digit(CharSequence s, int i, int end) {
+        if (i >= end) return -1;
+        int d = s.charAt(i) - '0';
+        return d >= 0 && d <= 9 ? d : -1;
+    }
+
+    /** Exactly {@code n} digits at {@code i}, or -1. */
+    private static int fixed(CharSequence s, int i, int end, int n) {
+        if (i + n > end) return -1;
+        int v = 0;
+        for (int k = i; k < i + n; k++) {
+            int d = s.charAt(k) - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** days-from-civil (H. Hinnant): epoch day of a proleptic Gregorian date. */
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+
+    private static StringBuilder pad(StringBuilder sb, int v, int width) {
+        for (int p = width == 6 ? 100_000 : width == 4 ? 1_000 : 10; p > 1 && v < p; p /= 10) sb.append('0');
+        return sb.append(v);
+    }
+}
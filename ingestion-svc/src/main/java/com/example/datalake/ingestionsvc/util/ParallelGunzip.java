@@ -0,0 +1,142 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflates a multi-member gzip file (bgzip, concatenated .gz parts) on
+ * several workers.  Member starts are found with one byte scan for a gzip
+ * header; each member's ISIZE trailer gives its uncompressed length, so every
+ * worker knows where its output goes and writes it with positional writes.
+ * <p>
+ * A header pattern can also occur inside compressed data.  Such a false start
+ * makes a worker fail its CRC / length check or produce a different byte count
+ * than the trailers promised; then {@link #inflate} returns false and the
+ * caller inflates sequentially – the result is never silently wrong.  Members
+ * of 4 GiB or more (ISIZE wraps) take the same fallback.
+ */
+final class ParallelGunzip {
+    private static final int BUFFER = 64 * 1024;
+    private static final int SCAN_BUFFER = 1 << 20;
+    private static final int HEADER = 10;
+
+    private ParallelGunzip() {}
+
+    /** True if {@code dst} now holds the inflated file; false if the caller must inflate sequentially. */
+    static boolean inflate(Path src, Path dst, Executor executor, int parts) throws IOException {
+        long[] starts;
+        long[] outStart;
+        long size;
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            size = in.size();
+            starts = memberStarts(in);
+            if (starts.length < 2) return false;
+            outStart = new long[starts.length + 1];
+            ByteBuffer isize = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < starts.length; i++) {
+                long end = i + 1 < starts.length ? starts[i + 1] : size;
+                if (end - starts[i] < HEADER + 8) return false;
+                readFully(in, isize.clear(), end - 4);
+                outStart[i + 1] = outStart[i] + (isize.getInt(0) & 0xffffffffL);
+            }
+        }
+
+        List<Integer> cuts = chunkCuts(starts, size, parts);
+        try (FileChannel out = FileChannel.open(dst, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int k = 0; k + 1 < cuts.size(); k++) {
+                int a = cuts.get(k), b = cuts.get(k + 1);
+                long from = starts[a], to = b < starts.length ? starts[b] : size;
+                long pos = outStart[a], expected = outStart[b] - outStart[a];
+                workers.add(CompletableFuture.runAsync(() -> inflateChunk(src, from, to, out, pos, expected), executor));
+            }
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+            return true;
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    /** Offsets of everything that looks like a gzip member header, ascending; empty unless one starts at 0. */
+    static long[] memberStarts(FileChannel in) throws IOException {
+        long size = in.size();
+        long[] found = new long[16];
+        int count = 0;
+        ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER + HEADER);
+        byte[] a = buf.array();
+        for (long pos = 0; pos < size; pos += SCAN_BUFFER) {
+            buf.clear();
+            int n = 0;
+            while (buf.hasRemaining()) {
+                int r = in.read(buf, pos + n);
+                if (r <= 0) break;
+                n += r;
+            }
+            int last = Math.min(n - HEADER, SCAN_BUFFER - 1);
+            for (int i = 0; i <= last; i++) {
+                if (a[i] == 0x1f && isHeader(a, i)) {
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = pos + i;
+                }
+            }
+        }
+        return count > 0 && found[0] == 0 ? Arrays.copyOf(found, count) : new long[0];
+    }
+
+    /** ID1 ID2 CM=deflate, reserved flag bits clear, XFL in {0,2,4}, a known OS byte. */
+    private static boolean isHeader(byte[] a, int i) {
+        int xfl = a[i + 8] & 0xff, os = a[i + 9] & 0xff;
+        return (a[i + 1] & 0xff) == 0x8b && a[i + 2] == 8 && (a[i + 3] & 0xe0) == 0
+                && (xfl == 0 || xfl == 2 || xfl == 4) && (os <= 13 || os == 255);
+    }
+
+    /** Member indexes where worker chunks begin, balanced by compressed bytes; last element = member count. */
+    private static List<Integer> chunkCuts(long[] starts, long size, int parts) {
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(0);
+        for (int k = 1; k < parts; k++) {
+            int i = Arrays.binarySearch(starts, size * k / parts);
+            if (i < 0) i = -i - 1;
+            if (i < starts.length && i > cuts.get(cuts.size() - 1)) cuts.add(i);
+        }
+        cuts.add(starts.length);
+        return cuts;
+    }
+
+    private static void inflateChunk(Path src, long from, long to, FileChannel out, long outPos, long expected) {
+        try (InputStream in = new GZIPInputStream(new FileRangeInputStream(src, from, to), BUFFER)) {
+            byte[] buf = new byte[BUFFER];
+            long pos = outPos;
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                ByteBuffer bb = ByteBuffer.wrap(buf, 0, n);
+                while (bb.hasRemaining()) pos += out.write(bb, pos);
+            }
+            if (pos - outPos != expected) {
+                throw new IOException("Inflated " + (pos - outPos) + " bytes, trailers say " + expected);
+            }
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int r = ch.read(buf, pos + buf.position());
+            if (r < 0) throw new IOException("Unexpected end of gzip file");
+        }
+    }
+}
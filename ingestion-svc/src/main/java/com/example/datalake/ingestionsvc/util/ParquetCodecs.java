@@ -0,0 +1,116 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.github.luben.zstd.Zstd;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import org.apache.parquet.bytes.ByteBufferReleaser;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Page decompressors for Parquet without Hadoop codecs.  parquet-hadoop's own
+ * {@code CodecFactory} instantiates them through a Hadoop
+ * {@code Configuration}, which needs the full Hadoop runtime; these go
+ * straight to snappy-java, zstd-jni, aircompressor and the JDK, which
+ * parquet-hadoop (or this service) already depends on.  Covers what writers
+ * produce in practice: UNCOMPRESSED, SNAPPY, GZIP, ZSTD and LZ4_RAW.  The
+ * service only reads Parquet, so there are no compressors.  Stateless, so one
+ * instance is shared.
+ */
+public final class ParquetCodecs implements CompressionCodecFactory {
+
+    public static final ParquetCodecs INSTANCE = new ParquetCodecs();
+
+    private ParquetCodecs() { }
+
+    @Override
+    public BytesInputCompressor getCompressor(CompressionCodecName codec) {
+        throw new UnsupportedOperationException("Parquet pages are only read here, not written");
+    }
+
+    @Override
+    public BytesInputDecompressor getDecompressor(CompressionCodecName codec) {
+        return new Codec(supported(codec));
+    }
+
+    @Override
+    public void release() { }
+
+    private static CompressionCodecName supported(CompressionCodecName codec) {
+        return switch (codec) {
+            case UNCOMPRESSED, SNAPPY, GZIP, ZSTD, LZ4_RAW -> codec;
+            default -> throw new UnsupportedOperationException("Parquet codec " + codec + " is not supported");
+        };
+    }
+
+    private record Codec(CompressionCodecName codec) implements BytesInputDecompressor {
+
+        @Override
+        public BytesInput decompress(BytesInput bytes, int uncompressedSize) throws IOException {
+            if (codec == CompressionCodecName.UNCOMPRESSED) return bytes;
+            byte[] out = new byte[uncompressedSize];
+            try (ByteBufferReleaser releaser = new ByteBufferReleaser(HeapByteBufferAllocator.getInstance())) {
+                ByteBuffer page = bytes.toByteBuffer(releaser);
+                decompress(page, page.remaining(), out);
+            }
+            return BytesInput.from(out);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int uncompressedSize)
+                throws IOException {
+            byte[] out = new byte[uncompressedSize];
+            decompress(input, compressedSize, out);
+            output.put(out);
+        }
+
+        /** Inflates the next {@code len} bytes of {@code page} into all of {@code out}; heap pages are not copied. */
+        private void decompress(ByteBuffer page, int len, byte[] out) throws IOException {
+            if (page.hasArray()) {
+                int off = page.arrayOffset() + page.position();
+                page.position(page.position() + len);
+                decompress(page.array(), off, len, out);
+            } else {
+                byte[] in = new byte[len];
+                page.get(in);
+                decompress(in, 0, len, out);
+            }
+        }
+
+        private void decompress(byte[] in, int off, int len, byte[] out) throws IOException {
+            int n = switch (codec) {
+                case UNCOMPRESSED -> {
+                    System.arraycopy(in, off, out, 0, len);
+                    yield len;
+                }
+                case SNAPPY -> Snappy.uncompress(in, off, len, out, 0);
+                case ZSTD -> {
+                    long r = Zstd.decompressByteArray(out, 0, out.length, in, off, len);
+                    if (Zstd.isError(r)) throw new IOException("ZSTD page: " + Zstd.getErrorName(r));
+                    yield (int) r;
+                }
+                case LZ4_RAW -> new Lz4Decompressor().decompress(in, off, len, out, 0, out.length);
+                case GZIP -> {
+                    try (InputStream gz = new GZIPInputStream(new ByteArrayInputStream(in, off, len))) {
+                        yield gz.readNBytes(out, 0, out.length);
+                    }
+                }
+                default -> throw new IllegalStateException(codec.name());
+            };
+            if (n != out.length) {
+                throw new IOException(codec + " page inflated to " + n + " bytes, header says " + out.length);
+            }
+        }
+
+        @Override
+        public void release() { }
+    }
+}
@@ -0,0 +1,635 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.EnumLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.UUIDLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads a Parquet file row by row into typed column cells and from there
+ * straight into JDBC parameters or COPY fields – numbers, booleans, decimals
+ * and timestamps never pass through text.  Only the target table's columns
+ * are requested, so the chunks of every other column are neither read nor
+ * decompressed.  A source type that does not match the target column
+ * (strings into an int column, say) is rendered and goes through the
+ * {@link ColumnBinder} of that column, with the CSV path's semantics.
+ * <p>
+ * Row groups are the unit of work: a reader covers one {@link Range} of
+ * them, so a file can be split over several workers the way CSV byte ranges
+ * are.  Flat (non-repeated, primitive) columns only; a target column backed
+ * by a nested or repeated field fails the file.
+ */
+public final class ParquetRowReader implements Closeable {
+
+    private static final ParquetReadOptions OPTIONS = ParquetReadOptions.builder(new PlainParquetConfiguration())
+            .withCodecFactory(ParquetCodecs.INSTANCE)
+            .build();
+
+    /** Top-level column names of a file (lowercase) and its row groups cut into ranges. */
+    public record Layout(String[] columns, List<Range> ranges) { }
+
+    /**
+     * Row groups {@code [fromGroup, toGroup)} holding {@code rows} rows;
+     * {@code start} keys the range's checkpoints – 0 for the first range,
+     * else the file offset of its first row group.
+     */
+    public record Range(int fromGroup, int toGroup, long start, long rows) { }
+
+    private final ParquetFileReader file;
+    private final Cell[] cells;               // one per target column
+    private final Cell[] attached;            // one per requested Parquet column
+    private final MessageColumnIO io;         // null if no target column is in the file
+    private final RecordMaterializer<Object> materializer;
+    private final long[] groupRows;
+    private int nextGroup;
+    private final int endGroup;
+    private RecordReader<Object> records;
+    private long groupLeft;
+
+    private ParquetRowReader(ParquetFileReader file, List<ColumnMeta> cols, Range range) {
+        this.file = file;
+        MessageType schema = file.getFileMetaData().getSchema();
+        Map<String, Type> fields = new HashMap<>();
+        for (Type t : schema.getFields()) fields.putIfAbsent(t.getName().toLowerCase(Locale.ROOT), t);
+
+        cells = new Cell[cols.size()];
+        List<Type> requested = new ArrayList<>();
+        List<Cell> sources = new ArrayList<>();
+        for (int i = 0; i < cells.length; i++) {
+            ColumnMeta c = cols.get(i);
+            Type t = fields.get(c.name());
+            if (t == null) {
+                cells[i] = new AbsentCell(c);
+                continue;
+            }
+            if (!t.isPrimitive() || t.isRepetition(Type.Repetition.REPEATED)) {
+                throw new IllegalStateException("Column '" + c.name() + "' is a nested or repeated Parquet field");
+            }
+            cells[i] = Cell.of(c, t.asPrimitiveType());
+            requested.add(t);
+            sources.add(cells[i].source());
+        }
+        attached = sources.toArray(Cell[]::new);
+
+        if (requested.isEmpty()) {
+            io = null;
+            materializer = null;
+        } else {
+            MessageType projection = new MessageType(schema.getName(), requested);
+            file.setRequestedSchema(projection);
+            io = new ColumnIOFactory(file.getFileMetaData().getCreatedBy()).getColumnIO(projection, schema);
+            materializer = new Materializer(attached);
+        }
+
+        List<BlockMetaData> groups = file.getRowGroups();
+        groupRows = groups.stream().mapToLong(BlockMetaData::getRowCount).toArray();
+        endGroup = range.toGroup();
+        while (nextGroup < range.fromGroup() && file.skipNextRowGroup()) nextGroup++;
+    }
+
+    /** True for object names / URLs with a Parquet extension. */
+    public static boolean isParquet(String name) {
+        int q = name.indexOf('?');
+        String n = (q < 0 ? name : name.substring(0, q)).toLowerCase(Locale.ROOT);
+        return n.endsWith(".parquet") || n.endsWith(".parq") || n.endsWith(".pqt");
+    }
+
+    /** Reads the footer: column names and up to {@code parts} ranges balanced by compressed bytes. */
+    public static Layout layout(Path path, int parts) throws IOException {
+        try (ParquetFileReader reader = new ParquetFileReader(new LocalInputFile(path), OPTIONS)) {
+            String[] columns = reader.getFileMetaData().getSchema().getFields().stream()
+                    .map(t -> t.getName().toLowerCase(Locale.ROOT))
+                    .toArray(String[]::new);
+            return new Layout(columns, ranges(reader.getRowGroups(), Math.max(1, parts)));
+        }
+    }
+
+    private static List<Range> ranges(List<BlockMetaData> groups, int parts) {
+        long total = groups.stream().mapToLong(BlockMetaData::getCompressedSize).sum();
+        List<Range> ranges = new ArrayList<>();
+        int from = 0;
+        long bytes = 0, rows = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            bytes += groups.get(g).getCompressedSize();
+            rows += groups.get(g).getRowCount();
+            boolean cut = ranges.size() + 1 < parts && bytes >= total * (ranges.size() + 1) / parts;
+            if (cut || g == groups.size() - 1) {
+                ranges.add(new Range(from, g + 1, from == 0 ? 0 : groups.get(from).getStartingPos(), rows));
+                from = g + 1;
+                rows = 0;
+            }
+        }
+        return ranges;
+    }
+
+    /** Opens {@code range} of the file, requesting only the columns of {@code cols} present in it. */
+    public static ParquetRowReader open(Path path, List<ColumnMeta> cols, Range range) throws IOException {
+        ParquetFileReader reader = new ParquetFileReader(new LocalInputFile(path), OPTIONS);
+        try {
+            return new ParquetRowReader(reader, cols, range);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /** Advances to the next row of the range; false at its end. */
+    public boolean next() throws IOException {
+        while (groupLeft == 0) {
+            if (nextGroup >= endGroup) return false;
+            if (io == null) {                           // nothing to decode, rows are just counted
+                file.skipNextRowGroup();
+                groupLeft = groupRows[nextGroup++];
+                continue;
+            }
+            PageReadStore pages = file.readNextRowGroup();
+            if (pages == null) return false;
+            nextGroup++;
+            groupLeft = pages.getRowCount();
+            records = io.getRecordReader(pages, materializer);
+        }
+        if (records != null) records.read();
+        groupLeft--;
+        return true;
+    }
+
+    /** Moves past up to {@code n} rows – whole row groups without reading them; returns how many. */
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (groupLeft == 0 && nextGroup < endGroup && groupRows[nextGroup] <= n - skipped) {
+                file.skipNextRowGroup();
+                skipped += groupRows[nextGroup++];
+            } else if (next()) {
+                skipped++;
+            } else {
+                break;
+            }
+        }
+        return skipped;
+    }
+
+    /** Binds the current row as parameters 1…n; false if the row must be rejected. */
+    public boolean bind(PreparedStatement ps) throws SQLException {
+        for (int i = 0; i < cells.length; i++) {
+            if (!cells[i].bind(ps, i + 1)) return false;
+        }
+        return true;
+    }
+
+    /** Appends the current row as a COPY row; returns false (and writes nothing) if invalid. */
+    public boolean appendCopy(CopyRowBuffer out) throws SQLException {
+        out.beginRow();
+        for (Cell cell : cells) {
+            if (!cell.appendCopy(out)) {
+                out.discardRow();
+                return false;
+            }
+        }
+        out.endRow();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /* ---------- record assembly ---------- */
+
+    private static final class Materializer extends RecordMaterializer<Object> {
+        private final GroupConverter root;
+
+        Materializer(Cell[] attached) {
+            root = new GroupConverter() {
+                @Override public Converter getConverter(int field) { return attached[field]; }
+
+                @Override public void start() {
+                    for (Cell c : attached) c.present = false;     // absent values stay NULL
+                }
+
+                @Override public void end() { }
+            };
+        }
+
+        @Override public Object getCurrentRecord() { return Boolean.TRUE; }
+
+        @Override public GroupConverter getRootConverter() { return root; }
+    }
+
+    /* ---------- typed cells ---------- */
+
+    /**
+     * Current value of one Parquet column, stored natively by the converter
+     * callbacks and written to the target column without conversion when
+     * {@link #fits} says the types line up.
+     */
+    abstract static class Cell extends PrimitiveConverter {
+        final ColumnMeta column;
+        boolean present;
+
+        Cell(ColumnMeta column) {
+            this.column = column;
+        }
+
+        static Cell of(ColumnMeta c, PrimitiveType type) {
+            LogicalTypeAnnotation logical = type.getLogicalTypeAnnotation();
+            Cell cell = switch (type.getPrimitiveTypeName()) {
+                case BOOLEAN -> new BooleanCell(c);
+                case FLOAT, DOUBLE -> new DoubleCell(c);
+                case INT96 -> new TimestampCell(c, null, true);
+                case INT32, INT64 -> {
+                    if (logical instanceof DecimalLogicalTypeAnnotation d) yield new DecimalCell(c, d.getScale());
+                    if (logical instanceof DateLogicalTypeAnnotation) yield new DateCell(c);
+                    if (logical instanceof TimestampLogicalTypeAnnotation t) {
+                        yield new TimestampCell(c, t.getUnit(), t.isAdjustedToUTC());
+                    }
+                    if (logical == null) yield new LongCell(c, false, false);
+                    if (logical instanceof IntLogicalTypeAnnotation i) {
+                        yield new LongCell(c, !i.isSigned() && i.getBitWidth() == 32, !i.isSigned() && i.getBitWidth() == 64);
+                    }
+                    throw unsupported(c, type);
+                }
+                case BINARY, FIXED_LEN_BYTE_ARRAY -> {
+                    if (logical instanceof DecimalLogicalTypeAnnotation d) yield new DecimalCell(c, d.getScale());
+                    if (logical instanceof UUIDLogicalTypeAnnotation) yield new TextCell(c, true);
+                    if (logical == null || logical instanceof StringLogicalTypeAnnotation
+                            || logical instanceof EnumLogicalTypeAnnotation
+                            || logical instanceof JsonLogicalTypeAnnotation) yield new TextCell(c, false);
+                    throw unsupported(c, type);
+                }
+            };
+            return cell.fits(c.sqlType()) ? cell : new RenderedCell(cell);
+        }
+
+        private static IllegalStateException unsupported(ColumnMeta c, PrimitiveType type) {
+            return new IllegalStateException("Column '" + c.name() + "': Parquet type " + type + " is not supported");
+        }
+
+        /** The cell the Parquet column reader feeds. */
+        Cell source() { return this; }
+
+        /** True if values go to a column of {@code sqlType} without a text round trip. */
+        abstract boolean fits(int sqlType);
+
+        abstract boolean bindValue(PreparedStatement ps, int idx) throws SQLException;
+
+        abstract boolean appendValue(CopyRowBuffer out);
+
+        /** Text form for columns of another type, as a CSV cell would carry it. */
+        abstract String render();
+
+        boolean bind(PreparedStatement ps, int idx) throws SQLException {
+            if (!present) {
+                if (!column.nullable()) return false;
+                ps.setNull(idx, column.sqlType());
+                return true;
+            }
+            return bindValue(ps, idx);
+        }
+
+        boolean appendCopy(CopyRowBuffer out) {
+            if (!present) {
+                if (!column.nullable()) return false;
+                out.appendNull();
+                return true;
+            }
+            return appendValue(out);
+        }
+    }
+
+    /** A target column the file does not have: always NULL. */
+    private static final class AbsentCell extends Cell {
+        AbsentCell(ColumnMeta c) { super(c); }
+
+        @Override boolean fits(int sqlType) { return true; }
+        @Override boolean bindValue(PreparedStatement ps, int idx) { return false; }
+        @Override boolean appendValue(CopyRowBuffer out) { return false; }
+        @Override String render() { return null; }
+    }
+
+    /** Source and target types differ: render the value and convert it like a CSV cell. */
+    private static final class RenderedCell extends Cell {
+        private final Cell source;
+        private final ColumnBinder binder;
+
+        RenderedCell(Cell source) {
+            super(source.column);
+            this.source = source;
+            this.binder = ColumnBinder.of(source.column);
+        }
+
+        @Override Cell source() { return source; }
+        @Override boolean fits(int sqlType) { return true; }
+        @Override boolean bindValue(PreparedStatement ps, int idx) { throw new IllegalStateException(); }
+        @Override boolean appendValue(CopyRowBuffer out) { throw new IllegalStateException(); }
+        @Override String render() { return source.present ? source.render() : null; }
+
+        @Override boolean bind(PreparedStatement ps, int idx) throws SQLException {
+            return binder.bind(ps, idx, render());
+        }
+
+        @Override boolean appendCopy(CopyRowBuffer out) {
+            return binder.appendCopy(out, render());
+        }
+    }
+
+    private static final class LongCell extends Cell {
+        private final boolean unsigned32, unsigned64;
+        private long value;
+
+        LongCell(ColumnMeta c, boolean unsigned32, boolean unsigned64) {
+            super(c);
+            this.unsigned32 = unsigned32;
+            this.unsigned64 = unsigned64;
+        }
+
+        @Override public void addInt(int v) { value = unsigned32 ? v & 0xffff_ffffL : v; present = true; }
+        @Override public void addLong(long v) { value = v; present = true; }
+
+        @Override boolean fits(int sqlType) {
+            return sqlType == Types.INTEGER || sqlType == Types.BIGINT
+                    || sqlType == Types.NUMERIC || sqlType == Types.DOUBLE;
+        }
+
+        /** False if the value is out of the target column's range. */
+        private boolean inRange() {
+            if (unsigned64 && value < 0) return false;
+            return column.sqlType() != Types.INTEGER || (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE);
+        }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            if (!inRange()) return false;
+            if (column.sqlType() == Types.INTEGER) ps.setInt(idx, (int) value);
+            else ps.setLong(idx, value);
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            if (!inRange()) return false;
+            out.appendPlain(value);
+            return true;
+        }
+
+        @Override String render() {
+            return unsigned64 ? Long.toUnsignedString(value) : Long.toString(value);
+        }
+    }
+
+    private static final class DoubleCell extends Cell {
+        private double value;
+
+        DoubleCell(ColumnMeta c) { super(c); }
+
+        @Override public void addDouble(double v) { value = v; present = true; }
+        @Override public void addFloat(float v) { value = v; present = true; }
+
+        @Override boolean fits(int sqlType) { return sqlType == Types.DOUBLE || sqlType == Types.NUMERIC; }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            ps.setDouble(idx, value);
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            out.appendPlain(value);
+            return true;
+        }
+
+        @Override String render() { return Double.toString(value); }
+    }
+
+    /** DECIMAL(p, s): unscaled long for INT32 / INT64 storage, BigDecimal only for binary storage. */
+    private static final class DecimalCell extends Cell {
+        private final int scale;
+        private long unscaled;
+        private BigDecimal big;
+
+        DecimalCell(ColumnMeta c, int scale) {
+            super(c);
+            this.scale = scale;
+        }
+
+        @Override public void addInt(int v) { unscaled = v; big = null; present = true; }
+        @Override public void addLong(long v) { unscaled = v; big = null; present = true; }
+
+        @Override public void addBinary(Binary v) {
+            big = new BigDecimal(new BigInteger(v.getBytes()), scale);
+            present = true;
+        }
+
+        @Override boolean fits(int sqlType) { return sqlType == Types.NUMERIC || sqlType == Types.DOUBLE; }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            ps.setBigDecimal(idx, big != null ? big : BigDecimal.valueOf(unscaled, scale));
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            if (big != null) out.appendPlain(big.toPlainString());
+            else out.appendDecimal(unscaled, scale);
+            return true;
+        }
+
+        @Override String render() {
+            return (big != null ? big : BigDecimal.valueOf(unscaled, scale)).toPlainString();
+        }
+    }
+
+    private static final class BooleanCell extends Cell {
+        private boolean value;
+
+        BooleanCell(ColumnMeta c) { super(c); }
+
+        @Override public void addBoolean(boolean v) { value = v; present = true; }
+
+        @Override boolean fits(int sqlType) { return sqlType == Types.BOOLEAN; }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            ps.setBoolean(idx, value);
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            out.appendPlain(value ? "t" : "f");
+            return true;
+        }
+
+        @Override String render() { return Boolean.toString(value); }
+    }
+
+    /**
+     * TIMESTAMP(MILLIS | MICROS | NANOS) on INT64, or legacy INT96 (unit null).
+     * Zone-less values are wall-clock times in the JVM zone, like CSV cells
+     * without an offset.
+     */
+    private static final class TimestampCell extends Cell {
+        private static final long JULIAN_EPOCH_DAY = 2_440_588;
+        private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+        private final LogicalTypeAnnotation.TimeUnit unit;
+        private final boolean utc;
+        private long micros;
+
+        TimestampCell(ColumnMeta c, LogicalTypeAnnotation.TimeUnit unit, boolean utc) {
+            super(c);
+            this.unit = unit;
+            this.utc = utc;
+        }
+
+        @Override public void addLong(long v) {
+            long m = switch (unit) {
+                case MILLIS -> v * 1_000;
+                case MICROS -> v;
+                case NANOS -> Math.floorDiv(v, 1_000);
+            };
+            micros = utc ? m : IsoTimestamps.fromLocalMicros(m);
+            present = true;
+        }
+
+        /** INT96: nanos of day (8 bytes) then Julian day (4 bytes), little-endian, UTC. */
+        @Override public void addBinary(Binary v) {
+            ByteBuffer b = v.toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+            long nanosOfDay = b.getLong(b.position());
+            long julianDay = b.getInt(b.position() + 8);
+            micros = (julianDay - JULIAN_EPOCH_DAY) * MICROS_PER_DAY + nanosOfDay / 1_000;
+            present = true;
+        }
+
+        @Override boolean fits(int sqlType) { return sqlType == Types.TIMESTAMP; }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            ps.setTimestamp(idx, IsoTimestamps.toTimestamp(micros));
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            out.appendTimestamp(micros);
+            return true;
+        }
+
+        @Override String render() {
+            StringBuilder sb = new StringBuilder(32);
+            IsoTimestamps.appendIso(sb, micros);
+            return sb.toString();
+        }
+    }
+
+    /** DATE: days since the epoch; midnight in the JVM zone for timestamp columns. */
+    private static final class DateCell extends Cell {
+        private int days;
+
+        DateCell(ColumnMeta c) { super(c); }
+
+        @Override public void addInt(int v) { days = v; present = true; }
+
+        @Override boolean fits(int sqlType) { return sqlType == Types.TIMESTAMP; }
+
+        private long micros() {
+            return IsoTimestamps.fromLocalMicros(days * TimestampCell.MICROS_PER_DAY);
+        }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            ps.setTimestamp(idx, IsoTimestamps.toTimestamp(micros()));
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            out.appendTimestamp(micros());
+            return true;
+        }
+
+        @Override String render() { return LocalDate.ofEpochDay(days).toString(); }
+    }
+
+    /** UTF-8 strings (or UUIDs); dictionary pages are decoded once per entry, not per row. */
+    private static final class TextCell extends Cell {
+        private final boolean uuid;
+        private Dictionary dictionary;
+        private String[] decoded;
+        private String value;
+
+        TextCell(ColumnMeta c, boolean uuid) {
+            super(c);
+            this.uuid = uuid;
+        }
+
+        @Override public void addBinary(Binary v) { value = decode(v); present = true; }
+
+        @Override public boolean hasDictionarySupport() { return true; }
+
+        @Override public void setDictionary(Dictionary d) {
+            dictionary = d;
+            decoded = new String[d.getMaxId() + 1];
+        }
+
+        @Override public void addValueFromDictionary(int id) {
+            String s = decoded[id];
+            if (s == null) decoded[id] = s = decode(dictionary.decodeToBinary(id));
+            value = s;
+            present = true;
+        }
+
+        private String decode(Binary v) {
+            if (!uuid) return v.toStringUsingUTF8();
+            ByteBuffer b = v.toByteBuffer();
+            return new UUID(b.getLong(b.position()), b.getLong(b.position() + 8)).toString();
+        }
+
+        @Override boolean fits(int sqlType) { return sqlType == Types.VARCHAR; }
+
+        @Override boolean bindValue(PreparedStatement ps, int idx) throws SQLException {
+            ps.setString(idx, value);
+            return true;
+        }
+
+        @Override boolean appendValue(CopyRowBuffer out) {
+            out.appendQuoted(value);
+            return true;
+        }
+
+        @Override String render() { return value; }
+    }
+}
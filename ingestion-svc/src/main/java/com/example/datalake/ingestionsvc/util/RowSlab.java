@@ -0,0 +1,51 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.util.Arrays;
+
+/**
+ * Reusable positional batch buffer: one flat {@code String[]} holding
+ * {@code capacity} rows × {@code width} target columns.  Header positions are
+ * resolved once per file, so adding a CSV line just copies the referenced
+ * cells – no per-row map or array – and the slab is cleared and refilled for
+ * every batch of the file.
+ */
+public final class RowSlab {
+    private final int width;
+    private final int capacity;
+    private final String[] cells;
+    private int rows;
+
+    public RowSlab(int width, int capacity) {
+        this.width = width;
+        this.capacity = capacity;
+        this.cells = new String[width * capacity];
+    }
+
+    /**
+     * Appends the cells of {@code line} selected by {@code pos} (target column
+     * → header index, -1 if absent); returns true once the slab is full.
+     */
+    public boolean add(String[] line, int[] pos) {
+        int base = rows * width;
+        for (int c = 0; c < width; c++) {
+            int p = pos[c];
+            cells[base + c] = p >= 0 && p < line.length ? line[p] : null;
+        }
+        return ++rows == capacity;
+    }
+
+    /** Cell of target column {@code col} in row {@code row}; null if missing. */
+    public String get(int row, int col) {
+        return cells[row * width + col];
+    }
+
+    public int size() { return rows; }
+
+    public boolean isEmpty() { return rows == 0; }
+
+    /** Drops the row references so the strings can be collected young. */
+    public void clear() {
+        Arrays.fill(cells, 0, rows * width, null);
+        rows = 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.datalake.ingestionsvc.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Heap bytes allocated by the calling thread, via HotSpot's
+ * {@code com.sun.management.ThreadMXBean}.  Used to report allocation per
+ * ingested row; returns -1 where the JVM does not support it.
+ */
+public final class ThreadAllocation {
+    private static final com.sun.management.ThreadMXBean MX = init();
+
+    private ThreadAllocation() { }
+
+    public static long currentThreadBytes() {
+        return MX == null ? -1 : MX.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean init() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx
+                && mx.isThreadAllocatedMemorySupported()) {
+            mx.setThreadAllocatedMemoryEnabled(true);
+            return mx;
+        }
+        return null;
+    }
+}
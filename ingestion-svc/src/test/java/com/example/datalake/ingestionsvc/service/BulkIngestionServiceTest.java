@@ -0,0 +1,160 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.dto.BulkIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.BulkIngestionStatus;
+import com.example.datalake.ingestionsvc.dto.StorageObject;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@Import({IngestionJobService.class, BulkIngestionService.class})
+class BulkIngestionServiceTest extends EmbeddedPostgresTest {
+
+    @MockitoBean
+    StorageService storage;
+
+    @Autowired
+    BulkIngestionService bulks;
+
+    @Autowired
+    IngestionJobService jobs;
+
+    @Test
+    void queuesTheObjectsMatchingTheGlobAndCountsEveryState() {
+        listing("uploads/", List.of(
+                folder("uploads/2025/"),
+                file("uploads/a.csv"), file("uploads/b.csv"), file("uploads/c.csv"), file("uploads/d.csv"),
+                file("uploads/readme.txt"), file("uploads/2025/e.csv")));
+        long id = bulks.create(request("uploads/", "uploads/*.csv", 4));
+
+        assertEquals(List.of("/object/raw/uploads/a.csv", "/object/raw/uploads/b.csv",
+                        "/object/raw/uploads/c.csv", "/object/raw/uploads/d.csv"),
+                jdbc.queryForList("SELECT source_url FROM ingestion_jobs WHERE bulk_id = ? ORDER BY id",
+                        String.class, id));
+        assertCounts(id, 4, 4, 0, 0, 0);
+
+        List<IngestionJob> claimed = jobs.claim("w1", 3, 10);
+        assertEquals(3, claimed.size());
+        commitBatch(claimed.get(0), 0, 100, 98, 2);
+        commitBatch(claimed.get(0), 1, 50, 50, 0);
+        commitBatch(claimed.get(1), 0, 10, 0, 10);
+        jobs.complete(claimed.get(0));
+        jobs.fail(claimed.get(1), new IllegalStateException("boom"));
+
+        BulkIngestionStatus status = assertCounts(id, 4, 1, 1, 1, 1);
+        assertEquals(160, status.linesCommitted());
+        assertEquals(148, status.okRows());
+        assertEquals(12, status.failRows());
+    }
+
+    @Test
+    void concurrentClaimersNeverRunMoreThanMaxConcurrentFiles() throws Exception {
+        listing("batch/", IntStream.range(0, 12).mapToObj(i -> file("batch/f" + i + ".csv")).toList());
+        long id = bulks.create(request("batch/", null, 3));
+
+        List<IngestionJob> claimed = claimConcurrently(4, 5);
+        assertEquals(3, claimed.size(), "claimed " + ids(claimed));
+        assertEquals(3, new HashSet<>(ids(claimed)).size());
+        assertCounts(id, 12, 9, 3, 0, 0);
+
+        jobs.complete(claimed.get(0));                            // one slot frees up
+        assertEquals(1, claimConcurrently(4, 5).size());
+        assertCounts(id, 12, 8, 3, 1, 0);
+    }
+
+    @Test
+    void encodesObjectNamesIntoTheJobUrl() {
+        listing("odd/", List.of(file("odd/q {1}?#100%.csv"), file("odd/a+b&c.csv")));
+        long id = bulks.create(request("odd/", null, 1));
+
+        assertEquals(List.of("/object/raw/odd/q%20%7B1%7D%3F%23100%25.csv", "/object/raw/odd/a+b&c.csv"),
+                jdbc.queryForList("SELECT source_url FROM ingestion_jobs WHERE bulk_id = ? ORDER BY id",
+                        String.class, id));
+    }
+
+    @Test
+    void aListingThatFailsPartWayKeepsTheFilesItQueued() {
+        int queued = 500;                                           // one full insert chunk
+        when(storage.listObjects(eq("raw"), eq("big/"), isNull())).thenReturn(Flux.concat(
+                Flux.range(0, queued + 10).map(i -> file("big/f" + i + ".csv")),
+                Flux.error(new IllegalStateException("listing page failed"))));
+
+        assertThrows(IllegalStateException.class, () -> bulks.create(request("big/", null, 1)));
+
+        assertEquals(List.of((long) queued, (long) queued), jdbc.query(
+                "SELECT b.files, (SELECT count(*) FROM ingestion_jobs j WHERE j.bulk_id = b.id) FROM ingestion_bulks b",
+                (rs, i) -> List.of(rs.getLong(1), rs.getLong(2))).get(0), "files recorded, jobs queued");
+    }
+
+    /** {@code workers} replicas polling at the same moment, each for up to {@code max} jobs. */
+    private List<IngestionJob> claimConcurrently(int workers, int max) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<List<IngestionJob>>> polls = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            String worker = "w" + w;
+            polls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return jobs.claim(worker, max, 100);
+            }));
+        }
+        go.countDown();
+        List<IngestionJob> all = new ArrayList<>();
+        for (var poll : polls) all.addAll(poll.get());
+        return all;
+    }
+
+    private BulkIngestionStatus assertCounts(long id, long files, long queued, long running,
+                                             long completed, long failed) {
+        BulkIngestionStatus s = bulks.status(id).orElseThrow();
+        assertEquals(List.of(files, queued, running, completed, failed),
+                List.of(s.files(), s.queued(), s.running(), s.completed(), s.failed()),
+                "files, queued, running, completed, failed");
+        return s;
+    }
+
+    private void commitBatch(IngestionJob job, long seq, int lines, long ok, long fail) {
+        jdbc.update("INSERT INTO ingestion_job_batches (job_id, range_start, batch_seq, line_count, ok_rows, "
+                + "fail_rows, committed_at) VALUES (?, 0, ?, ?, ?, ?, now())", job.getId(), seq, lines, ok, fail);
+    }
+
+    private void listing(String prefix, List<StorageObject> objects) {
+        when(storage.listObjects(eq("raw"), eq(prefix), isNull())).thenReturn(Flux.fromIterable(objects));
+    }
+
+    private static BulkIngestionRequest request(String prefix, String glob, int maxConcurrentFiles) {
+        return new BulkIngestionRequest("raw", prefix, glob, "sales", "alice@example.com", null,
+                maxConcurrentFiles, null);
+    }
+
+    private static StorageObject file(String name) {
+        return new StorageObject(name, false, 10L, "text/csv", "\"" + name.hashCode() + "\"", null);
+    }
+
+    private static StorageObject folder(String name) {
+        return new StorageObject(name, true, null, null, null, null);
+    }
+
+    private static List<Long> ids(List<IngestionJob> claimed) {
+        return claimed.stream().map(IngestionJob::getId).toList();
+    }
+}
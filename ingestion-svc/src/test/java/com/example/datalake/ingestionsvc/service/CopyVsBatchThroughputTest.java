@@ -0,0 +1,88 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.config.PipelineProperties;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput comparison of the BATCH and COPY load paths against a real
+ * Postgres.  Skipped unless INGESTION_BENCH_JDBC_URL is set, e.g.
+ * <pre>
+ * INGESTION_BENCH_JDBC_URL=jdbc:postgresql://localhost:5432/postgres?user=postgres&amp;password=postgres \
+ * INGESTION_BENCH_ROWS=500000 INGESTION_BENCH_PIPELINE=true mvn test -Dtest=CopyVsBatchThroughputTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "INGESTION_BENCH_JDBC_URL", matches = ".+")
+class CopyVsBatchThroughputTest {
+
+    private static final String TABLE = "bench_copy_vs_batch";
+    private static final int ROWS = Integer.parseInt(
+            System.getenv().getOrDefault("INGESTION_BENCH_ROWS", "200000"));
+    private static final boolean PIPELINE = Boolean.parseBoolean(
+            System.getenv().getOrDefault("INGESTION_BENCH_PIPELINE", "false"));
+
+    private static JdbcTemplate jdbc;
+    private static BatchIngestionService service;
+    private static byte[] csv;
+
+    @BeforeAll
+    static void setUp() {
+        var ds = new DriverManagerDataSource(System.getenv("INGESTION_BENCH_JDBC_URL"));
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("DROP TABLE IF EXISTS " + TABLE);
+        jdbc.execute("CREATE TABLE " + TABLE + " (id BIGINT NOT NULL, qty INTEGER, price NUMERIC, "
+                + "active BOOLEAN, created_at TIMESTAMP, note TEXT)");
+
+        StringBuilder sb = new StringBuilder("id,qty,price,active,created_at,note\n");
+        for (int i = 0; i < ROWS; i++) {
+            sb.append(i).append(',').append(i % 1000).append(',').append(i * 0.25).append(',')
+              .append(i % 2 == 0).append(",2025-06-0").append(1 + i % 9).append("T10:15:30Z,")
+              .append("\"row ").append(i).append(", quoted\"\n");
+        }
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        StorageClientService storage = new StorageClientService(null, null, null) {
+            @Override
+            public InputStream downloadStream(String fileUrl, Consumer<ObjectVersion> onVersion) {
+                return new ByteArrayInputStream(csv);
+            }
+        };
+        service = new BatchIngestionService(new SyncTaskExecutor(),
+                new SimpleAsyncTaskExecutor("bench-stage-"), storage, null, jdbc, ds,
+                new PipelineProperties(PIPELINE, 2, 2, 8), ConcurrencyLimits.of(1, 4, 4), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void copyOutpacesBatchInsert() {
+        double batchRate = load(LoadMode.BATCH);
+        double copyRate = load(LoadMode.COPY);
+        assertTrue(copyRate > batchRate, String.format("BATCH: %,.0f rows/s  COPY: %,.0f rows/s  (x%.1f)",
+                batchRate, copyRate, copyRate / batchRate));
+    }
+
+    private double load(LoadMode mode) {
+        jdbc.execute("TRUNCATE " + TABLE);
+        long start = System.nanoTime();
+        service.runJob(new FileIngestionRequest("bench.csv", TABLE, "bench", mode, null, null));
+        double secs = (System.nanoTime() - start) / 1e9;
+        assertEquals(ROWS, jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class));
+        return ROWS / secs;
+    }
+}
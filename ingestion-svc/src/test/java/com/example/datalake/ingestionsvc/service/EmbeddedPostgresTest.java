@@ -0,0 +1,56 @@
+package com.example.datalake.ingestionsvc.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Base of the tests that need real Postgres (SKIP LOCKED, advisory locks,
+ * COPY): one embedded server per JVM, the schema generated from the entities
+ * as in production, and no test-managed transaction, so that concurrent
+ * claimers see each other's commits.  Every test starts from empty tables.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class EmbeddedPostgresTest {
+
+    private static final EmbeddedPostgres PG = start();
+
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PG.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        // not create-drop: the drop would run at JVM exit, after the server below has stopped
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+    }
+
+    @BeforeEach
+    void emptyQueue() {
+        jdbc.execute("TRUNCATE ingestion_jobs, ingestion_job_batches, ingestion_bulks RESTART IDENTITY");
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();        // stopped by its own shutdown hook
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start embedded Postgres", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IngestionJobPollerTest {
+
+    @Test
+    void jobsTheSaturatedExecutorRejectsGoBackToTheQueue() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();   // one worker, no queue
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+
+        IngestionJobService jobs = mock(IngestionJobService.class);
+        BatchIngestionService ingestion = mock(BatchIngestionService.class);
+        CountDownLatch finish = new CountDownLatch(1);
+        doAnswer(inv -> finish.await(10, TimeUnit.SECONDS)).when(ingestion).runJob(any(IngestionJob.class));
+        IngestionJob first = job(1), second = job(2), third = job(3);
+        when(jobs.claim(anyString(), eq(3), anyInt())).thenReturn(List.of(first, second, third));
+
+        IngestionJobPoller poller = new IngestionJobPoller(executor, jobs, ingestion,
+                ConcurrencyLimits.of(3, 3, 3), 3, 60_000);
+        try {
+            poller.poll();
+            verify(jobs, never()).release(eq(first), anyString());
+            verify(jobs).release(eq(second), anyString());
+            verify(jobs).release(eq(third), anyString());
+            assertEquals(Set.of(1L), poller.active());
+
+            poller.poll();                                          // lease renewed for the running job only
+            verify(jobs).heartbeat(anyString(), eq(Set.of(1L)));
+
+            finish.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!poller.active().isEmpty() && System.nanoTime() < deadline) Thread.sleep(10);
+            assertTrue(poller.active().isEmpty(), "slot not freed: " + poller.active());
+        } finally {
+            finish.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static IngestionJob job(long id) {
+        IngestionJob job = new IngestionJob();
+        job.setId(id);
+        job.setTableName("t" + id);
+        return job;
+    }
+}
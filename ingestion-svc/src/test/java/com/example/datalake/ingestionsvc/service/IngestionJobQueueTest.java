@@ -0,0 +1,186 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The queue SQL (SKIP LOCKED pick, capped claim, lease, conditional finish) on real Postgres. */
+@Import(IngestionJobService.class)
+class IngestionJobQueueTest extends EmbeddedPostgresTest {
+
+    private static final int PER_UPLOADER = 3;
+
+    @Autowired
+    IngestionJobService jobs;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void concurrentClaimersShareTheQueueWithinTheCaps() throws Exception {
+        for (String uploader : List.of("a", "b", "c", "d")) {
+            for (int i = 0; i < 8; i++) enqueue(uploader, i % 3);
+        }
+        long bulk = bulk("e", 2);
+        for (int i = 0; i < 6; i++) enqueueInBulk(bulk, "e");
+
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<List<IngestionJob>>> workers = new ArrayList<>();
+        for (String worker : List.of("w1", "w2")) {
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                await(go);
+                List<IngestionJob> mine = new ArrayList<>();
+                for (List<IngestionJob> got; !(got = jobs.claim(worker, 2, PER_UPLOADER)).isEmpty(); ) {
+                    mine.addAll(got);
+                }
+                return mine;
+            }));
+        }
+        go.countDown();
+        List<Long> claimed = new ArrayList<>();
+        for (var worker : workers) {
+            for (IngestionJob job : worker.get(30, TimeUnit.SECONDS)) claimed.add(job.getId());
+        }
+
+        assertEquals(claimed.size(), new HashSet<>(claimed).size(), "claimed twice: " + claimed);
+        assertEquals(Map.of("a", 3L, "b", 3L, "c", 3L, "d", 3L, "e", 2L), runningByUploader());
+        assertEquals(claimed.size(), running());
+        assertEquals(2L, jdbc.queryForObject(
+                "SELECT count(*) FROM ingestion_jobs WHERE bulk_id = ? AND status = 'RUNNING'", Long.class, bulk));
+    }
+
+    @Test
+    void higherPriorityIsClaimedFirstThenArrivalOrder() {
+        long low = enqueue("a", 0);
+        long high = enqueue("b", 5);
+        long high2 = enqueue("c", 5);
+
+        assertEquals(List.of(high, high2, low),
+                List.of(claimOne("w1"), claimOne("w1"), claimOne("w1")));
+    }
+
+    /**
+     * Another replica fills uploader a's cap between this poll's pick and its
+     * lock: the poll skips a, but still claims b's job.
+     */
+    @Test
+    void aCapLostToAnotherReplicaOnlySkipsThatUploader() throws Exception {
+        long a1 = enqueue("a", 9);
+        long a2 = enqueue("a", 9);
+        long b1 = enqueue("b", 0);
+
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (PreparedStatement lock = other.prepareStatement("SELECT pg_advisory_xact_lock(hashtext('a'))");
+                 PreparedStatement run = other.prepareStatement(
+                         "UPDATE ingestion_jobs SET status = 'RUNNING', claimed_by = 'other', heartbeat_at = now() "
+                                 + "WHERE id = ?")) {
+                lock.execute();
+                run.setLong(1, a1);
+                run.executeUpdate();
+            }
+            CompletableFuture<List<IngestionJob>> poll = CompletableFuture.supplyAsync(() -> jobs.claim("w1", 2, 1));
+            awaitAdvisoryLockWait();                     // picked a2, now blocked on a's lock
+            other.commit();
+
+            List<IngestionJob> claimed = poll.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of(b1), claimed.stream().map(IngestionJob::getId).toList());
+        }
+        assertEquals("QUEUED", jdbc.queryForObject("SELECT status FROM ingestion_jobs WHERE id = ?", String.class, a2));
+    }
+
+    @Test
+    void staleLeasesGoBackToTheQueueAndTheOldOwnerCannotFinish() {
+        long id = enqueue("a", 0);
+        IngestionJob first = jobs.claim("w1", 1, PER_UPLOADER).get(0);
+        assertEquals(id, first.getId());
+
+        assertEquals(Set.of(id), jobs.heartbeat("w1", List.of(id)));
+        assertEquals(0, jobs.requeueStale(Duration.ofMinutes(1)));
+        jdbc.update("UPDATE ingestion_jobs SET heartbeat_at = now() - interval '2 minutes' WHERE id = ?", id);
+        assertEquals(1, jobs.requeueStale(Duration.ofMinutes(1)));
+        assertEquals(Set.of(), jobs.heartbeat("w1", List.of(id)), "lease renewed after losing it");
+
+        IngestionJob second = jobs.claim("w2", 1, PER_UPLOADER).get(0);
+        assertEquals(id, second.getId());
+        assertEquals(2, second.getAttempts());
+        assertFalse(jobs.complete(first), "old owner finished a job it no longer holds");
+        assertTrue(jobs.complete(second));
+        assertEquals("COMPLETED", jdbc.queryForObject("SELECT status FROM ingestion_jobs WHERE id = ?",
+                String.class, id));
+    }
+
+    private long claimOne(String worker) {
+        List<IngestionJob> claimed = jobs.claim(worker, 1, PER_UPLOADER);
+        assertEquals(1, claimed.size());
+        return claimed.get(0).getId();
+    }
+
+    private long enqueue(String uploader, int priority) {
+        return jobs.create(new FileIngestionRequest("/object/raw/" + uploader + ".csv", "t", uploader, null, 1,
+                priority), 100).getId();
+    }
+
+    private long bulk(String uploader, int maxRunning) {
+        return jdbc.queryForObject("""
+                INSERT INTO ingestion_bulks (bucket, prefix, glob, table_name, uploader, mode, max_running, files,
+                                             created_at)
+                VALUES ('raw', 'p/', '**', 't', ?, 'BATCH', ?, 0, now()) RETURNING id
+                """, Long.class, uploader, maxRunning);
+    }
+
+    private void enqueueInBulk(long bulk, String uploader) {
+        jobs.createAll(bulk, List.of(new FileIngestionRequest("/object/raw/p/x.csv", "t", uploader, null, 1, null)),
+                100);
+    }
+
+    private Map<String, Long> runningByUploader() {
+        Map<String, Long> counts = new TreeMap<>();
+        jdbc.query("SELECT uploader, count(*) FROM ingestion_jobs WHERE status = 'RUNNING' GROUP BY uploader",
+                rs -> {
+                    counts.put(rs.getString(1), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    private long running() {
+        return jdbc.queryForObject("SELECT count(*) FROM ingestion_jobs WHERE status = 'RUNNING'", Long.class);
+    }
+
+    private void awaitAdvisoryLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbc.queryForObject("SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND NOT granted",
+                Long.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "claim never waited for the uploader lock");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.config.PipelineProperties;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import com.example.datalake.ingestionsvc.util.CsvFormat;
+import com.example.datalake.ingestionsvc.util.CsvRows;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class IngestionPipelineTest {
+
+    @Test
+    void stagesTheExecutorRejectsFailTheRunInsteadOfHangingIt() {
+        AtomicInteger accepted = new AtomicInteger(2);     // both converters, then no room for the writers
+        TaskExecutor executor = task -> {
+            if (accepted.getAndDecrement() <= 0) throw new TaskRejectedException("saturated");
+            new Thread(task).start();
+        };
+        IngestionPipeline pipeline = new IngestionPipeline(new PipelineProperties(true, 2, 2, 4), executor,
+                null, ConcurrencyLimits.of(1, 2, 1), new SimpleMeterRegistry(), LoadMode.BATCH, "t",
+                List.of(new ColumnMeta("a", Types.INTEGER, true, false)), new String[]{"a"}, 10,
+                BatchLedger.UNTRACKED);
+
+        IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (CsvRows csv = CsvRows.open(new ByteArrayInputStream("a\n1\n2\n".getBytes(StandardCharsets.UTF_8)),
+                    CsvFormat.DEFAULT)) {
+                return assertThrows(IllegalStateException.class, () -> pipeline.run(csv));
+            }
+        });
+        assertInstanceOf(TaskRejectedException.class, e.getCause());
+    }
+}
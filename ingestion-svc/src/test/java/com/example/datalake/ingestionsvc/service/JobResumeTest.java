@@ -0,0 +1,190 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.config.PipelineProperties;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import com.example.datalake.ingestionsvc.model.IngestionJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A job whose replica dies part-way through is re-queued by the lease check
+ * and resumed by another worker from its ledger, on real Postgres.
+ */
+@Import(IngestionJobService.class)
+class JobResumeTest extends EmbeddedPostgresTest {
+
+    private static final String TABLE = "resume_target";
+    private static final int LINES = 2_500;
+    private static final int BATCH_LINES = 100;
+
+    @Autowired
+    IngestionJobService jobs;
+
+    @Autowired
+    DataSource dataSource;
+
+    private final byte[] csv = csv();
+    private StorageClientService.ObjectVersion version = new StorageClientService.ObjectVersion("\"v1\"", csv.length);
+    private int crashAfterBytes = -1;
+    private BatchIngestionService ingestion;
+
+    /** Stands in for the replica dying mid-file: nothing catches it, the job stays RUNNING. */
+    private static class Crash extends Error {
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DROP TABLE IF EXISTS " + TABLE);
+        jdbc.execute("CREATE TABLE " + TABLE + " (id BIGINT NOT NULL, note TEXT)");
+        StorageClientService storage = new StorageClientService(null, null, null) {
+            @Override
+            public InputStream downloadStream(String fileUrl, Consumer<ObjectVersion> onVersion) {
+                onVersion.accept(version);
+                if (crashAfterBytes < 0) return new ByteArrayInputStream(csv);
+                return new SequenceInputStream(new ByteArrayInputStream(csv, 0, crashAfterBytes), new InputStream() {
+                    @Override
+                    public int read() {
+                        throw new Crash();
+                    }
+                });
+            }
+        };
+        ingestion = new BatchIngestionService(new SyncTaskExecutor(), new SimpleAsyncTaskExecutor("resume-stage-"),
+                storage, jobs, jdbc, dataSource, new PipelineProperties(false, 2, 2, 8),
+                ConcurrencyLimits.of(1, 4, 4), new SimpleMeterRegistry());
+    }
+
+    @ParameterizedTest
+    @EnumSource(LoadMode.class)
+    void resumedJobLoadsEveryRowExactlyOnce(LoadMode mode) {
+        long committed = crashPartWay(mode);
+
+        IngestionJob resumed = requeueAndClaim("w2");
+        assertEquals(2, resumed.getAttempts());
+        ingestion.runJob(resumed);
+
+        assertEquals(IngestionJob.Status.COMPLETED, status(resumed));
+        assertEquals(List.of((long) LINES, (long) LINES),
+                jdbc.query("SELECT count(*), count(DISTINCT id) FROM " + TABLE,
+                        (rs, i) -> List.of(rs.getLong(1), rs.getLong(2))).get(0),
+                "rows, distinct ids after resuming past " + committed + " committed batches");
+        assertEquals((LINES + BATCH_LINES - 1) / BATCH_LINES, batches(resumed));
+        assertEquals(LINES, jdbc.queryForObject("SELECT ok_rows FROM ingestion_jobs WHERE id = ?",
+                Long.class, resumed.getId()));
+    }
+
+    @Test
+    void replacedSourceFailsTheResumedJobInsteadOfSkippingItsBatches() {
+        long committed = crashPartWay(LoadMode.BATCH);
+        version = new StorageClientService.ObjectVersion("\"v2\"", csv.length);
+
+        IngestionJob resumed = requeueAndClaim("w2");
+        ingestion.runJob(resumed);
+
+        assertEquals(IngestionJob.Status.FAILED, status(resumed));
+        assertTrue(resumed.getError().startsWith("Source changed"), resumed.getError());
+        assertEquals(committed * BATCH_LINES, jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class));
+        assertEquals(committed, batches(resumed));
+    }
+
+    @Test
+    void replacedSourceWithNothingCommittedStartsOver() {
+        crashAfterBytes = 10;                                       // dies inside the header
+        IngestionJob job = createAndClaim(LoadMode.BATCH);
+        assertThrows(Crash.class, () -> ingestion.runJob(job));
+        assertEquals(0, batches(job));
+
+        crashAfterBytes = -1;
+        version = new StorageClientService.ObjectVersion("\"v2\"", csv.length);
+        IngestionJob resumed = requeueAndClaim("w2");
+        ingestion.runJob(resumed);
+
+        assertEquals(IngestionJob.Status.COMPLETED, status(resumed));
+        assertEquals("\"v2\"", jdbc.queryForObject("SELECT source_etag FROM ingestion_jobs WHERE id = ?",
+                String.class, resumed.getId()));
+        assertEquals(LINES, jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class));
+    }
+
+    @Test
+    void workerThatLostItsLeaseCommitsNothing() {
+        IngestionJob stale = createAndClaim(LoadMode.BATCH);
+        IngestionJob current = requeueAndClaim("w2");
+
+        ingestion.runJob(stale);                                    // w1 never noticed it lost the job
+        assertEquals(0, batches(current));
+        assertEquals(0L, jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class));
+        assertEquals(IngestionJob.Status.RUNNING, status(current));
+
+        ingestion.runJob(current);
+        assertEquals(IngestionJob.Status.COMPLETED, status(current));
+        assertEquals(LINES, jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class));
+    }
+
+    /** Runs a fresh job until the source fails a bit past half-way; returns the batches it committed. */
+    private long crashPartWay(LoadMode mode) {
+        crashAfterBytes = csv.length * 3 / 5;
+        IngestionJob job = createAndClaim(mode);
+        assertThrows(Crash.class, () -> ingestion.runJob(job));
+        crashAfterBytes = -1;
+
+        long committed = batches(job);
+        assertTrue(committed > 0 && committed < LINES / BATCH_LINES, committed + " batches committed");
+        assertEquals(committed * BATCH_LINES, jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class));
+        assertEquals(IngestionJob.Status.RUNNING, status(job));
+        return committed;
+    }
+
+    private IngestionJob createAndClaim(LoadMode mode) {
+        jobs.create(new FileIngestionRequest("/object/raw/resume.csv", TABLE, "alice@example.com", mode, 1, null),
+                BATCH_LINES);
+        List<IngestionJob> claimed = jobs.claim("w1", 1, 1);
+        assertEquals(1, claimed.size());
+        return claimed.get(0);
+    }
+
+    /** The lease of the dead worker expires and another worker picks the job up. */
+    private IngestionJob requeueAndClaim(String worker) {
+        assertEquals(1, jobs.requeueStale(Duration.ZERO));
+        List<IngestionJob> claimed = jobs.claim(worker, 1, 1);
+        assertEquals(1, claimed.size());
+        return claimed.get(0);
+    }
+
+    private IngestionJob.Status status(IngestionJob job) {
+        return IngestionJob.Status.valueOf(jdbc.queryForObject(
+                "SELECT status FROM ingestion_jobs WHERE id = ?", String.class, job.getId()));
+    }
+
+    private long batches(IngestionJob job) {
+        return jdbc.queryForObject("SELECT count(*) FROM ingestion_job_batches WHERE job_id = ?",
+                Long.class, job.getId());
+    }
+
+    private static byte[] csv() {
+        StringBuilder sb = new StringBuilder("id,note\n");
+        for (int i = 0; i < LINES; i++) sb.append(i).append(",\"row ").append(i).append("\"\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
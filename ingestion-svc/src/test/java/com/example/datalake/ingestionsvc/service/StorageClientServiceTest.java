@@ -0,0 +1,133 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageClientServiceTest {
+
+    private static final String URL = "/object/raw/uploads/a.csv";
+    private static final int CHUNKS = 64;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    @Test
+    void prefetchDownloadsWhatTheCacheKeeps() throws Exception {
+        ObjectCache cache = cache(1 << 20);
+        assertTrue(prefetch(cache, h -> h.setETag("\"v1\"")));
+        assertEquals(CHUNKS, served.get());
+        assertTrue(cache.contains(ObjectCache.keyOf(URL)));
+    }
+
+    @Test
+    void prefetchCancelsWhatTheCacheWouldDiscard() throws Exception {
+        assertDiscarded(cache(1 << 20), h -> { });                                   // no ETag
+        assertDiscarded(cache(1 << 20), h -> h.setETag("W/\"v1\""));                 // weak ETag
+        assertDiscarded(cache(CHUNKS - 1), h -> {                                    // over max-bytes
+            h.setETag("\"v1\"");
+            h.setContentLength(CHUNKS);
+        });
+    }
+
+    @Test
+    void openStreamReportsTheVersionOfTheResponseItReads() {
+        ConcurrencyLimits limits = ConcurrencyLimits.of(1, 1, 1);
+        StorageClientService storage = new StorageClientService(client(h -> {
+            h.setETag("\"v2\"");
+            h.setContentLength(CHUNKS);
+        }), limits, cache(0));
+        List<StorageClientService.ObjectVersion> seen = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> storage.openStream(URL, version -> {
+            seen.add(version);
+            throw new IllegalStateException("source replaced");
+        }));
+
+        assertEquals(List.of(new StorageClientService.ObjectVersion("\"v2\"", CHUNKS)), seen);
+        assertEquals(0, served.get(), "body bytes downloaded for a rejected version");
+        assertTrue(cancelled.get(), "body not cancelled");
+        assertTrue(limits.storage().tryAcquire(), "transfer permit not released");
+    }
+
+    @Test
+    void encodedObjectUrlsAreSentAsGiven() {
+        List<String> paths = new ArrayList<>();
+        WebClient client = WebClient.builder()
+                .baseUrl("http://storage.test/storage/v1")
+                .exchangeFunction(request -> {
+                    paths.add(request.url().getRawPath());
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .build();
+        StorageClientService storage = new StorageClientService(client, ConcurrencyLimits.of(1, 1, 1), cache(0));
+
+        storage.downloadToFile("/object/raw/odd/q%20%7B1%7D%3F%23100%25.csv").toFile().delete();
+        storage.downloadToFile("/object/raw/my file.csv").toFile().delete();   // raw, as single-file requests send it
+
+        assertEquals(List.of("/storage/v1/object/raw/odd/q%20%7B1%7D%3F%23100%25.csv",
+                "/storage/v1/object/raw/my%20file.csv"), paths);
+    }
+
+    private void assertDiscarded(ObjectCache cache, Consumer<HttpHeaders> headers) throws Exception {
+        served.set(0);
+        cancelled.set(false);
+        assertTrue(prefetch(cache, headers));
+        assertEquals(0, served.get(), "body bytes downloaded for nothing");
+        assertTrue(cancelled.get(), "body not cancelled");
+        assertFalse(cache.contains(ObjectCache.keyOf(URL)));
+    }
+
+    /** Starts a prefetch against the fake Storage and waits for it. */
+    private boolean prefetch(ObjectCache cache, Consumer<HttpHeaders> headers) throws Exception {
+        ConcurrencyLimits limits = ConcurrencyLimits.of(1, 1, 1);
+        boolean started = new StorageClientService(client(headers), limits, cache).prefetch(URL);
+        // the prefetch holds the only transfer permit until it has finished
+        assertTrue(limits.storage().tryAcquire(5, TimeUnit.SECONDS), "prefetch did not finish");
+        return started;
+    }
+
+    /** A fake Storage answering 200 with one-byte chunks. */
+    private WebClient client(Consumer<HttpHeaders> headers) {
+        Flux<DataBuffer> body = Flux.range(0, CHUNKS)
+                .<DataBuffer>map(i -> DefaultDataBufferFactory.sharedInstance.wrap("x".getBytes(StandardCharsets.US_ASCII)))
+                .doOnNext(b -> served.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true));
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .headers(headers)
+                        .body(body)
+                        .build()))
+                .build();
+    }
+
+    private ObjectCache cache(long maxBytes) {
+        return new ObjectCache(true, dir, maxBytes, new SimpleMeterRegistry());
+    }
+}
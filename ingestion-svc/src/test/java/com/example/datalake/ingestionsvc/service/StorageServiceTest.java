@@ -0,0 +1,91 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageServiceTest {
+
+    private static final int CHUNK = 1000;
+
+    @TempDir
+    Path dir;
+
+    /** Bytes the fake TUS server has stored so far. */
+    private final ByteArrayOutputStream stored = new ByteArrayOutputStream();
+    private int shortAcks;
+    private HttpServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/upload/resumable", this::tus);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void resumableUploadResendsWhatAPatchLeftUnaccepted() throws Exception {
+        byte[] source = new byte[CHUNK * 3 + 123];
+        new Random(42).nextBytes(source);
+
+        StorageService storage = new StorageService(
+                WebClient.create("http://127.0.0.1:" + server.getAddress().getPort()),
+                new ObjectCache(false, dir, 0, new SimpleMeterRegistry()),
+                new ObjectMapper(), "raw", 0, CHUNK, 100);
+        storage.uploadStream("uploads/a.bin", new ByteArrayInputStream(source), "application/octet-stream",
+                source.length).block();
+
+        assertArrayEquals(source, stored.toByteArray());
+        assertTrue(shortAcks > 0, "server never answered a PATCH with a short offset");
+    }
+
+    /** Fake TUS endpoint that keeps only the first half of every multi-byte PATCH body. */
+    private synchronized void tus(HttpExchange ex) throws IOException {
+        byte[] body = ex.getRequestBody().readAllBytes();
+        switch (ex.getRequestMethod()) {
+            case "POST" -> {
+                ex.getResponseHeaders().set("Location", "/upload/resumable/1");
+                ex.sendResponseHeaders(201, -1);
+            }
+            case "HEAD" -> {
+                ex.getResponseHeaders().set("Upload-Offset", Integer.toString(stored.size()));
+                ex.sendResponseHeaders(200, -1);
+            }
+            case "PATCH" -> {
+                long offset = Long.parseLong(ex.getRequestHeaders().getFirst("Upload-Offset"));
+                if (offset != stored.size()) {
+                    ex.sendResponseHeaders(409, -1);
+                    break;
+                }
+                int keep = body.length > 1 ? body.length / 2 : body.length;
+                if (keep < body.length) shortAcks++;
+                stored.write(body, 0, keep);
+                ex.getResponseHeaders().set("Upload-Offset", Integer.toString(stored.size()));
+                ex.sendResponseHeaders(204, -1);
+            }
+            default -> ex.sendResponseHeaders(405, -1);
+        }
+        ex.close();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.datalake.ingestionsvc.service;
+
+import com.example.datalake.ingestionsvc.config.ConcurrencyLimits;
+import com.example.datalake.ingestionsvc.config.PipelineProperties;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest;
+import com.example.datalake.ingestionsvc.dto.FileIngestionRequest.LoadMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many small jobs whose time is dominated by storage latency, against the
+ * same connection budget.  Platform mode can only overlap as many downloads
+ * as it has job threads; virtual mode claims every job and lets the DB and
+ * storage semaphores do the limiting, so downloads overlap while loads queue
+ * for connections.
+ *
+ * <p>The default run only checks that virtual mode overlaps more transfers
+ * than there are job threads.  The wall-clock comparison is too noisy for a
+ * shared build box and runs only when INGESTION_BENCH_VIRTUAL is set, e.g.
+ * <pre>
+ * INGESTION_BENCH_VIRTUAL=true mvn test -Dtest=VirtualThreadLoadTest
+ * </pre>
+ */
+class VirtualThreadLoadTest {
+
+    private static final int JOBS = 96;
+    private static final int ROWS = 2_000;
+    private static final int JOB_THREADS = 8;      // ingestion.executor.max-size
+    private static final int DB_PERMITS = 8;
+    private static final int TRANSFERS = 64;
+    private static final long LATENCY_MS = 200;    // simulated time to first byte
+
+    @Test
+    void virtualThreadsOverlapMoreTransfersThanJobThreads() throws Exception {
+        SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("load-vt-");
+        virtual.setVirtualThreads(true);
+
+        Run run = run("overlap", virtual, ConcurrencyLimits.of(JOBS, DB_PERMITS, TRANSFERS));
+
+        assertTrue(run.peakTransfers() > JOB_THREADS,
+                "peak open transfers: " + run.peakTransfers() + ", job threads: " + JOB_THREADS);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "INGESTION_BENCH_VIRTUAL", matches = "true")
+    void virtualThreadsRaiseConcurrentJobThroughput() throws Exception {
+        ThreadPoolTaskExecutor platform = new ThreadPoolTaskExecutor();
+        platform.setCorePoolSize(JOB_THREADS);
+        platform.setMaxPoolSize(JOB_THREADS);
+        platform.initialize();
+        SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("load-vt-");
+        virtual.setVirtualThreads(true);
+
+        double platformRate = run("platform", platform, ConcurrencyLimits.of(JOB_THREADS, DB_PERMITS, TRANSFERS)).rate();
+        double virtualRate = run("virtual", virtual, ConcurrencyLimits.of(JOBS, DB_PERMITS, TRANSFERS)).rate();
+        platform.shutdown();
+
+        assertTrue(virtualRate > 2 * platformRate, String.format("platform: %.1f jobs/s, virtual: %.1f jobs/s (x%.1f)",
+                platformRate, virtualRate, virtualRate / platformRate));
+    }
+
+    /** Jobs per second, and the most storage transfers that were open at once. */
+    private record Run(double rate, int peakTransfers) { }
+
+    private Run run(String name, TaskExecutor jobs, ConcurrencyLimits limits) throws Exception {
+        var ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE load_rows (id BIGINT NOT NULL, note VARCHAR(64))");
+
+        StringBuilder sb = new StringBuilder("id,note\n");
+        for (int i = 0; i < ROWS; i++) sb.append(i).append(",row ").append(i).append('\n');
+        byte[] csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        SlowStorage storage = new SlowStorage(limits, csv);
+        BatchIngestionService service = new BatchIngestionService(new SyncTaskExecutor(),
+                new SyncTaskExecutor(), storage, null, jdbc, ds,
+                new PipelineProperties(false, 1, 1, 1), limits, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "streamingDownload", true);
+
+        CountDownLatch done = new CountDownLatch(JOBS);
+        long start = System.nanoTime();
+        for (int i = 0; i < JOBS; i++) {
+            var req = new FileIngestionRequest("f" + i + ".csv", "load_rows", "load", LoadMode.BATCH, null, null);
+            jobs.execute(() -> {
+                try {
+                    service.runJob(req);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), name + " run timed out");
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals((long) JOBS * ROWS, jdbc.queryForObject("SELECT count(*) FROM load_rows", Long.class));
+        jdbc.execute("SHUTDOWN");
+        return new Run(JOBS / seconds, storage.peak.get());
+    }
+
+    /** Storage with a fixed time to first byte, holding a transfer permit like the real client. */
+    private static final class SlowStorage extends StorageClientService {
+        private final byte[] csv;
+        private final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        SlowStorage(ConcurrencyLimits limits, byte[] csv) {
+            super(null, limits, null);
+            this.csv = csv;
+        }
+
+        @Override
+        public InputStream openStream(String fileUrl, Consumer<ObjectVersion> onVersion) {
+            var permit = transferPermit();
+            opened();
+            return new FilterInputStream(new ByteArrayInputStream(csv)) {
+                private boolean started;
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (!started) {
+                        started = true;
+                        pause();
+                    }
+                    return super.read(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    open.decrementAndGet();
+                    permit.close();
+                }
+            };
+        }
+
+        @Override
+        public InputStream downloadStream(String fileUrl, Consumer<ObjectVersion> onVersion) {
+            try (var permit = transferPermit()) {
+                opened();
+                try {
+                    pause();
+                    return new ByteArrayInputStream(csv);
+                } finally {
+                    open.decrementAndGet();
+                }
+            }
+        }
+
+        private void opened() {
+            peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+        }
+
+        private static void pause() {
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new IOException("interrupted", e));
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void detectsByNameThenMagicAndStreams() throws Exception {
+        byte[] csv = csv(0, 5_000);
+        byte[] gz = gzip(csv, Deflater.DEFAULT_COMPRESSION);
+        byte[] zst = zstd(csv);
+
+        assertArrayEquals(csv, read(Compression.decompressing("day/part.csv.gz", new ByteArrayInputStream(gz))));
+        assertArrayEquals(csv, read(Compression.decompressing("day/part.csv.zst?token=x", new ByteArrayInputStream(zst))));
+        // no telling extension: magic bytes decide, plain text passes through
+        assertArrayEquals(csv, read(Compression.decompressing("blob", new ByteArrayInputStream(gz))));
+        assertArrayEquals(csv, read(Compression.decompressing("blob", new ByteArrayInputStream(zst))));
+        assertArrayEquals(csv, read(Compression.decompressing("data.csv", new ByteArrayInputStream(csv))));
+        assertArrayEquals(new byte[0], read(Compression.decompressing("blob", new ByteArrayInputStream(new byte[0]))));
+    }
+
+    @Test
+    void multiMemberGzipInflatesInParallel() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        for (int m = 0; m < 12; m++) {                       // like `cat part-*.csv.gz`
+            byte[] part = csv(m * 4_000, 4_000);
+            plain.write(part);
+            members.write(gzip(part, Deflater.DEFAULT_COMPRESSION));
+        }
+        Path src = Files.write(dir.resolve("in.csv.gz"), members.toByteArray());
+        Path dst = dir.resolve("out.csv");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            assertTrue(ParallelGunzip.inflate(src, dst, pool, 4));
+            assertArrayEquals(plain.toByteArray(), Files.readAllBytes(dst));
+
+            Files.delete(dst);
+            Compression.decompressToFile(Compression.detect("in", src), src, dst, pool, 4);
+            assertArrayEquals(plain.toByteArray(), Files.readAllBytes(dst));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void multiMemberGzipStreamsPastMembersWhileNothingIsAvailable() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        List<byte[]> members = new ArrayList<>();
+        for (int m = 0; m < 5; m++) {                        // bgzip-style blocks
+            byte[] part = csv(m * 1_000, 1_000);
+            plain.write(part);
+            members.add(gzip(part, Deflater.DEFAULT_COMPRESSION));
+        }
+
+        assertArrayEquals(plain.toByteArray(), read(Compression.decompressing("in.csv.gz", new Packets(members))));
+        assertArrayEquals(plain.toByteArray(), read(Compression.decompressing("blob", new Packets(members))));
+    }
+
+    @Test
+    void headerLookalikeInsideMemberFallsBackToSequential() throws Exception {
+        // stored (level 0) deflate keeps the lookalike header bytes verbatim inside member 1
+        byte[] fake = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 3};
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        first.write(csv(0, 1_000));
+        first.write(fake);
+        first.write(csv(1_000, 1_000));
+        byte[] second = csv(2_000, 1_000);
+
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        gz.write(gzip(first.toByteArray(), Deflater.NO_COMPRESSION));
+        gz.write(gzip(second, Deflater.NO_COMPRESSION));
+        Path src = Files.write(dir.resolve("tricky.gz"), gz.toByteArray());
+        Path dst = dir.resolve("tricky.csv");
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            assertFalse(ParallelGunzip.inflate(src, dst, pool, 3));
+            Compression.decompressToFile(Compression.GZIP, src, dst, pool, 3);
+        } finally {
+            pool.shutdown();
+        }
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first.toByteArray());
+        expected.write(second);
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(dst));
+    }
+
+    @Test
+    void singleMemberIsLeftToTheSequentialPath() throws Exception {
+        Path src = Files.write(dir.resolve("one.gz"), gzip(csv(0, 1_000), Deflater.DEFAULT_COMPRESSION));
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            assertFalse(ParallelGunzip.inflate(src, dir.resolve("one.csv"), pool, 4));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(Compression.NONE, Compression.detect("x", Files.write(dir.resolve("p"), csv(0, 1))));
+    }
+
+    /** A download that hands out one member per read and, like a socket between packets, has nothing available. */
+    private static final class Packets extends InputStream {
+        private final List<byte[]> packets;
+        private int next, pos;
+
+        Packets(List<byte[]> packets) {
+            this.packets = packets;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (next == packets.size()) return -1;
+            byte[] p = packets.get(next);
+            int n = Math.min(len, p.length - pos);
+            System.arraycopy(p, pos, b, off, n);
+            pos += n;
+            if (pos == p.length) {
+                next++;
+                pos = 0;
+            }
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+
+    private static byte[] csv(int from, int rows) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < from + rows; i++) sb.append(i).append(",row ").append(i).append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gz = new GZIPOutputStream(out) {{ def.setLevel(level); }}) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] zstd(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream z = new ZstdOutputStream(out)) {
+            z.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReaderBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRangeSplitterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rangesAlignToRecordsIncludingQuotedNewlines() throws Exception {
+        StringBuilder sb = new StringBuilder("id,note\n");
+        for (int i = 0; i < 2_000; i++) {
+            sb.append(i).append(',');
+            switch (i % 3) {
+                case 0 -> sb.append("plain");
+                case 1 -> sb.append("\"multi\nline, \"\"quoted\"\"\n\"");
+                default -> sb.append("\"\"");
+            }
+            sb.append('\n');
+        }
+        Path file = dir.resolve("in.csv");
+        Files.writeString(file, sb, StandardCharsets.UTF_8);
+
+        assertRangesReadLikeTheWholeFile(file, CsvFormat.DEFAULT, 7);
+    }
+
+    @Test
+    void escapedQuotesDoNotEndTheQuotedField() throws Exception {
+        for (CsvFormat format : List.of(CsvFormat.DEFAULT, CsvFormat.DEFAULT.withQuote('\''))) {
+            char q = format.quote();
+            StringBuilder sb = new StringBuilder("id,note\n");
+            for (int i = 0; i < 2_000; i++) {
+                sb.append(i).append(',');
+                switch (i % 3) {
+                    // an escaped quote before a newline: a bare quote scan would end the field there
+                    case 0 -> sb.append(q).append("say \\").append(q).append("hi\nthere\\").append(q).append(q);
+                    case 1 -> sb.append(q).append("dir C:\\\\").append(q);   // escaped escape, then the closing quote
+                    default -> sb.append("plain");
+                }
+                sb.append('\n');
+            }
+            Path file = dir.resolve("escaped-" + (int) q + ".csv");
+            Files.writeString(file, sb, StandardCharsets.UTF_8);
+
+            assertRangesReadLikeTheWholeFile(file, format, 7);
+        }
+    }
+
+    @Test
+    void headerOnlyFileHasNoRanges() throws Exception {
+        Path file = dir.resolve("empty.csv");
+        Files.writeString(file, "a,b\n");
+        assertTrue(CsvRangeSplitter.split(file, CsvFormat.DEFAULT, 4).ranges().isEmpty());
+    }
+
+    private static void assertRangesReadLikeTheWholeFile(Path file, CsvFormat format, int parts) throws Exception {
+        List<String[]> expected = readAll(Files.newInputStream(file), format);
+        expected.remove(0);                                   // header
+
+        CsvRangeSplitter.Split split = CsvRangeSplitter.split(file, format, parts);
+        assertEquals("id,note\n".length(), split.headerEnd());
+        assertTrue(split.ranges().size() > 1);
+
+        List<String[]> actual = new ArrayList<>();
+        for (CsvRangeSplitter.Range r : split.ranges()) {
+            actual.addAll(readAll(new FileRangeInputStream(file, r.start(), r.end()), format));
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(List.of(expected.get(i)), List.of(actual.get(i)));
+        }
+    }
+
+    private static List<String[]> readAll(InputStream in, CsvFormat format) throws Exception {
+        CSVParser parser = new CSVParserBuilder()
+                .withSeparator(format.separator()).withQuoteChar(format.quote()).withEscapeChar(format.escape())
+                .build();
+        try (var csv = new CSVReaderBuilder(new InputStreamReader(in, format.charset())).withCSVParser(parser).build()) {
+            return csv.readAll();
+        }
+    }
+}
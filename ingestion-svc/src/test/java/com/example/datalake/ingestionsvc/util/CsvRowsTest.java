@@ -0,0 +1,76 @@
+package com.example.datalake.ingestionsvc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowsTest {
+
+    @Test
+    void readsConfiguredDialectThroughOneReusedRowView() throws IOException {
+        String text = "# export\nid;name;city\n1;'Müller; Jörg';Köln\n2;'it''s';\n3;x\n";
+        CsvFormat format = CsvFormat.DEFAULT.withSeparator(';').withQuote('\'')
+                .withEscape(CsvFormat.NO_ESCAPE).withCharset(StandardCharsets.ISO_8859_1).withSkipLines(1);
+
+        List<Map<String, String>> copies = new ArrayList<>();
+        CsvRows.Row first = null;
+        try (CsvRows csv = CsvUtils.open(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1)), format)) {
+            assertArrayEquals(new String[]{"id", "name", "city"}, csv.header());
+            for (CsvRows.Row row : csv) {
+                if (first == null) first = row;
+                assertSame(first, row);
+                assertEquals(String.valueOf(row.number()), row.get("id"));
+                copies.add(row.toMap());
+            }
+            assertEquals(3, csv.recordsRead());
+            assertNull(first.get("city"));                          // short last record
+            assertNull(first.get("missing"));
+        }
+        assertEquals(Map.of("id", "1", "name", "Müller; Jörg", "city", "Köln"), copies.get(0));
+        assertEquals("it's", copies.get(1).get("name"));
+        assertEquals("", copies.get(1).get("city"));
+        assertEquals(Map.of("id", "3", "name", "x"), copies.get(2));
+    }
+
+    @Test
+    void headerlessRangesAndStreamsCloseTheSource() throws IOException {
+        byte[] bytes = "a,b\n1,2\n3,4\n5,6\n".getBytes(StandardCharsets.UTF_8);
+        try (CsvRows csv = CsvUtils.open(new ByteArrayInputStream(bytes), CsvFormat.DEFAULT.withoutHeader())) {
+            assertNull(csv.header());
+            assertEquals(2, csv.skip(2));
+            assertArrayEquals(new String[]{"3", "4"}, csv.next());
+            assertEquals(1, csv.skip(5));
+            assertNull(csv.next());
+        }
+
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes) {
+            @Override
+            public void close() { closed.set(true); }
+        };
+        try (Stream<CsvRows.Row> rows = CsvUtils.stream(in, CsvFormat.DEFAULT)) {
+            assertEquals(List.of("2", "4", "6"), rows.map(r -> r.get("b")).toList());
+        }
+        assertTrue(closed.get());
+
+        try (CsvRows empty = CsvUtils.open(new ByteArrayInputStream(new byte[0]), CsvFormat.DEFAULT)) {
+            assertNull(empty.header());
+            assertNull(empty.next());
+        }
+        assertThrows(IllegalArgumentException.class, () -> CsvFormat.DEFAULT.withQuote(','));
+    }
+}
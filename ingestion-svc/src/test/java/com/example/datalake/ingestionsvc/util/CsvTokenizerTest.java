@@ -0,0 +1,139 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvTokenizerTest {
+
+    private static final List<String> CELLS = List.of(
+            "", "42", "-7", "plain text", "\"a, b\"", "\"say \"\"hi\"\"\"", "\"two\nlines\"", "\"\"",
+            "Grüße €", "\"ünïcødé, quoted\"", "\"esc \\\" and \\\\\"", "   ",
+            "2025-06-01T10:15:30Z", "TRUE");
+
+    @Test
+    void splitsLikeOpenCsvAcrossBlockBoundaries() throws IOException {
+        Random rnd = new Random(7);
+        StringBuilder sb = new StringBuilder("id,a,b,c\n");
+        for (int r = 0; r < 40_000; r++) {                  // ~1 MB: records straddle every block edge
+            int width = r % 97 == 0 ? 1 : 1 + rnd.nextInt(6);
+            for (int c = 0; c < width; c++) {
+                if (c > 0) sb.append(',');
+                sb.append(CELLS.get(rnd.nextInt(CELLS.size())));
+            }
+            sb.append(r % 5 == 0 ? "\r\n" : "\n");
+        }
+        sb.append("last,\"unterminated line at eof\"");
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        try (CsvRows expected = CsvUtils.open(new ByteArrayInputStream(bytes), CsvFormat.DEFAULT);
+             CsvRows actual = CsvUtils.open(new ByteArrayInputStream(bytes), CsvFormat.DEFAULT, CsvRows.Parser.BYTES)) {
+            assertArrayEquals(expected.header(), actual.header());
+            String[] want;
+            while ((want = expected.next()) != null) {
+                assertArrayEquals(want, actual.next(), "record " + expected.recordsRead());
+            }
+            assertNull(actual.next());
+            assertEquals(expected.recordsRead(), actual.recordsRead());
+        }
+    }
+
+    @Test
+    void copySlicesEncodeLikeDecodedStrings() throws SQLException, IOException {
+        List<ColumnMeta> cols = List.of(
+                new ColumnMeta("id", Types.BIGINT, false, false),
+                new ColumnMeta("n", Types.INTEGER, true, false),
+                new ColumnMeta("x", Types.NUMERIC, true, false),
+                new ColumnMeta("ok", Types.BOOLEAN, true, false),
+                new ColumnMeta("at", Types.TIMESTAMP, true, false),
+                new ColumnMeta("note", Types.VARCHAR, true, false));
+        ColumnBinder[] binders = ColumnBinder.compile(cols);
+        int[] pos = {0, 1, 2, 3, 4, 5};
+        String text = """
+                1,2147483647,1.5e3,TRUE,2025-06-01 10:15:30+02:00,"Grüße, ""€""\"
+                -9223372036854775808,,NaN,no,2024-02-29T23:59:59.5Z,
+                3,2147483648,x,true,2025-13-01 00:00:00,overflow
+                 ,1,2,true,,blank id
+                5,٣,1,false,2025-06-01T10:15,"multi
+                line"
+                6
+                """;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        CopyRowBuffer fromStrings = new CopyRowBuffer(256), fromSlices = new CopyRowBuffer(256);
+        int validStrings = 0, validSlices = 0;
+        CsvFormat format = CsvFormat.DEFAULT.withoutHeader();
+        try (CsvRows strings = CsvUtils.open(new ByteArrayInputStream(bytes), format);
+             CsvRows slices = CsvUtils.open(new ByteArrayInputStream(bytes), format, CsvRows.Parser.BYTES)) {
+            CsvTokenizer record = slices.tokenizer();
+            String[] line;
+            while ((line = strings.next()) != null) {
+                if (appendRow(fromStrings, binders, pos, line)) validStrings++;
+                record.next();
+                if (appendRow(fromSlices, binders, pos, record)) validSlices++;
+            }
+        }
+        assertEquals(3, validStrings);                      // overflow, blank NOT NULL id, non-ASCII digit
+        assertEquals(validStrings, validSlices);
+        assertEquals(new String(fromStrings.drain(), StandardCharsets.UTF_8),
+                new String(fromSlices.drain(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void honoursDialectAndRejectsWhatItCannotScan() throws IOException {
+        byte[] latin1 = "skip me\nid;name\n1;'Müller; ''Jörg'''\n".getBytes(StandardCharsets.ISO_8859_1);
+        CsvFormat format = CsvFormat.DEFAULT.withSeparator(';').withQuote('\'')
+                .withCharset(StandardCharsets.ISO_8859_1).withSkipLines(1);
+        try (CsvRows csv = CsvUtils.open(new ByteArrayInputStream(latin1), format, CsvRows.Parser.BYTES)) {
+            assertArrayEquals(new String[]{"id", "name"}, csv.header());
+            assertArrayEquals(new String[]{"1", "Müller; 'Jörg'"}, csv.next());
+        }
+
+        byte[] open = "a,\"never closed\n1,2\n".getBytes(StandardCharsets.UTF_8);
+        try (CsvRows csv = CsvUtils.open(new ByteArrayInputStream(open), CsvFormat.DEFAULT.withoutHeader(),
+                CsvRows.Parser.BYTES)) {
+            assertThrows(IOException.class, csv::next);
+        }
+        assertThrows(IllegalArgumentException.class, () -> CsvUtils.open(new ByteArrayInputStream(open),
+                CsvFormat.DEFAULT.withCharset(StandardCharsets.UTF_16), CsvRows.Parser.BYTES));
+    }
+
+    private static boolean appendRow(CopyRowBuffer out, ColumnBinder[] binders, int[] pos, String[] line)
+            throws SQLException {
+        out.beginRow();
+        for (int i = 0; i < binders.length; i++) {
+            String raw = pos[i] < line.length ? line[pos[i]] : null;
+            if (!binders[i].appendCopy(out, raw)) {
+                out.discardRow();
+                return false;
+            }
+        }
+        out.endRow();
+        return true;
+    }
+
+    private static boolean appendRow(CopyRowBuffer out, ColumnBinder[] binders, int[] pos, CsvTokenizer record)
+            throws SQLException {
+        out.beginRow();
+        for (int i = 0; i < binders.length; i++) {
+            if (!binders[i].appendCopy(out, record, pos[i])) {
+                out.discardRow();
+                return false;
+            }
+        }
+        out.endRow();
+        return true;
+    }
+}
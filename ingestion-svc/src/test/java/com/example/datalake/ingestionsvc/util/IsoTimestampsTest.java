@@ -0,0 +1,81 @@
+package com.example.datalake.ingestionsvc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IsoTimestampsTest {
+
+    @Test
+    void matchesJavaTimeForOffsetAndLocalForms() {
+        List<String> offsetForms = List.of(
+                "2025-06-01T10:15:30Z", "2025-06-01 10:15:30+02:00", "2025-06-01T10:15:30+02",
+                "2025-06-01T10:15:30.123456789-05:30", "2024-02-29T23:59:59.5Z", " 1999-12-31T00:00+00:00 ",
+                "2025-06-01T10:15:30+05:45:10");
+        for (String s : offsetForms) {
+            String iso = s.trim().replace(' ', 'T');
+            if (iso.matches(".*[+-]\\d{2}$")) iso += ":00";
+            Instant expected = OffsetDateTime.parse(iso).toInstant();
+            assertEquals(micros(expected), IsoTimestamps.parseMicros(s), s);
+        }
+
+        List<String> localForms = List.of("2025-06-01 10:15:30", "2025-6-1 01:02:03.000001", "2025-06-01T10:15");
+        for (String s : localForms) {
+            LocalDateTime ldt = LocalDateTime.parse(normaliseLocal(s));
+            Instant expected = ldt.atZone(ZoneId.systemDefault()).toInstant();
+            assertEquals(micros(expected), IsoTimestamps.parseMicros(s), s);
+        }
+    }
+
+    @Test
+    void rejectsMalformedInputWithoutThrowing() {
+        for (String s : List.of("", "2025-06-01", "2025-13-01 10:00:00", "2025-02-30T10:00:00Z",
+                "2025-06-01T24:00:00Z", "2025-06-01T10:15:30+2", "2025-06-01T10:15:30.Z",
+                "2025-06-01T10:15:30.1234567891Z", "2025/06/01 10:15:30", "2025-06-01T10:15:30Zulu",
+                "2025-06-01T10:15:30+0200", "not a date")) {
+            assertEquals(IsoTimestamps.INVALID, IsoTimestamps.parseMicros(s), s);
+        }
+    }
+
+    @Test
+    void copyRenderingRoundTrips() {
+        Random rnd = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long micros = (long) (rnd.nextDouble() * 4_102_444_800_000_000L);   // 1970 … 2100
+            StringBuilder sb = new StringBuilder();
+            IsoTimestamps.appendIso(sb, micros);
+            assertEquals(micros, IsoTimestamps.parseMicros(sb), sb::toString);
+            assertEquals(micros, micros(IsoTimestamps.toTimestamp(micros).toInstant()));
+        }
+    }
+
+    @Test
+    void integerFastPathMatchesJdkBounds() {
+        assertEquals(Integer.MAX_VALUE, ColumnBinder.parseLong("2147483647", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(Integer.MIN_VALUE, ColumnBinder.parseLong("-2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(42, ColumnBinder.parseLong("+42", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, ColumnBinder.parseLong("9223372036854775807", Long.MIN_VALUE, Long.MAX_VALUE));
+        for (String bad : List.of("2147483648", "-2147483649", "-", "+", "1.0", " 1", "1e3", "")) {
+            assertEquals(Long.MIN_VALUE, ColumnBinder.parseLong(bad, Integer.MIN_VALUE, Integer.MAX_VALUE), bad);
+        }
+        assertEquals(Long.MIN_VALUE, ColumnBinder.parseLong("9223372036854775808", Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private static long micros(Instant i) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, i.plusNanos(500).truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private static String normaliseLocal(String s) {
+        String[] dt = s.split("[ T]");
+        String[] ymd = dt[0].split("-");
+        return String.format("%s-%02d-%02dT%s", ymd[0], Integer.parseInt(ymd[1]), Integer.parseInt(ymd[2]), dt[1]);
+    }
+}
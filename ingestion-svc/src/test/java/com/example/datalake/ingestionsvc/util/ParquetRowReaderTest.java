@@ -0,0 +1,153 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.example.datalake.ingestionsvc.model.ColumnMeta;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParquetRowReaderTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+            message sales {
+              required int64 ID;
+              optional int32 qty;
+              optional int32 price (DECIMAL(9, 2));
+              optional boolean active;
+              optional int64 created_at (TIMESTAMP(MICROS, true));
+              optional binary note (STRING);
+              optional binary code (STRING);
+              optional binary unused (STRING);
+            }
+            """);
+
+    private static final List<ColumnMeta> COLS = List.of(
+            new ColumnMeta("id", Types.BIGINT, false, false),
+            new ColumnMeta("qty", Types.INTEGER, true, false),
+            new ColumnMeta("price", Types.NUMERIC, true, false),
+            new ColumnMeta("active", Types.BOOLEAN, true, false),
+            new ColumnMeta("created_at", Types.TIMESTAMP, true, false),
+            new ColumnMeta("note", Types.VARCHAR, true, false),
+            new ColumnMeta("code", Types.INTEGER, true, false),       // strings in the file
+            new ColumnMeta("region", Types.VARCHAR, true, false));    // not in the file
+
+    private static final long T0 = 1_750_000_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void projectsTargetColumnsIntoCopyRows() throws Exception {
+        Path file = write("sales.parquet", CompressionCodecName.SNAPPY, 4, 0);
+        ParquetRowReader.Layout layout = ParquetRowReader.layout(file, 1);
+        assertArrayEquals(new String[]{"id", "qty", "price", "active", "created_at", "note", "code", "unused"},
+                layout.columns());
+
+        CopyRowBuffer out = new CopyRowBuffer(256);
+        int rejected = 0;
+        try (ParquetRowReader rows = ParquetRowReader.open(file, COLS, layout.ranges().get(0))) {
+            while (rows.next()) {
+                if (!rows.appendCopy(out)) rejected++;
+            }
+        }
+        assertEquals(1, rejected);                                   // row 3: code "x" is not an int
+        assertEquals(copyRow(0, "\"n0\",42") + copyRow(1, ",42") + copyRow(2, "\"n2\",42"),
+                new String(out.drain(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rangesCoverEveryRowGroupAndSkipWholeGroups() throws Exception {
+        for (CompressionCodecName codec : List.of(CompressionCodecName.SNAPPY, CompressionCodecName.ZSTD,
+                CompressionCodecName.GZIP, CompressionCodecName.LZ4_RAW, CompressionCodecName.UNCOMPRESSED)) {
+            Path file = write("ids-" + codec + ".parquet", codec, 20_000, 16 * 1024);
+            ParquetRowReader.Layout layout = ParquetRowReader.layout(file, 3);
+            List<ColumnMeta> idOnly = COLS.subList(0, 1);
+            assertEquals(3, layout.ranges().size(), codec.name());
+            assertEquals(0, layout.ranges().get(0).start());
+
+            List<Long> ids = new ArrayList<>();
+            int expectedFrom = 0;
+            for (ParquetRowReader.Range r : layout.ranges()) {
+                assertEquals(expectedFrom, r.fromGroup());
+                expectedFrom = r.toGroup();
+                long before = ids.size();
+                try (ParquetRowReader rows = ParquetRowReader.open(file, idOnly, r)) {
+                    CopyRowBuffer out = new CopyRowBuffer(16);
+                    while (rows.next()) {
+                        rows.appendCopy(out);
+                        String row = new String(out.drain(), StandardCharsets.US_ASCII);
+                        ids.add(Long.parseLong(row.trim()));
+                    }
+                }
+                assertEquals(r.rows(), ids.size() - before);
+            }
+            assertEquals(20_000, ids.size());
+            for (int i = 0; i < ids.size(); i++) assertEquals(i, ids.get(i));
+
+            try (ParquetRowReader rows = ParquetRowReader.open(file, idOnly,
+                    new ParquetRowReader.Range(0, expectedFrom, 0, 20_000))) {
+                assertEquals(15_001, rows.skip(15_001));
+                CopyRowBuffer out = new CopyRowBuffer(16);
+                assertTrue(rows.next());
+                assertTrue(rows.appendCopy(out));
+                assertEquals("15001\n", new String(out.drain(), StandardCharsets.US_ASCII));
+                assertEquals(4_998, rows.skip(10_000));
+                assertFalse(rows.next());
+            }
+        }
+    }
+
+    /** COPY text of row {@code i} with the given note / code fields. */
+    private static String copyRow(int i, String noteAndCode) {
+        StringBuilder ts = new StringBuilder();
+        IsoTimestamps.appendIso(ts, T0 + i);
+        String active = i == 1 ? "" : "t";
+        return i + "," + (i * 10) + "," + (i + 1) + ".0" + i + "," + active + "," + ts + ","
+                + noteAndCode + ",\n";
+    }
+
+    /** {@code rows} rows; row groups of about {@code groupBytes} when positive. */
+    private Path write(String name, CompressionCodecName codec, int rows, long groupBytes) throws IOException {
+        Path file = dir.resolve(name);
+        SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+        ExampleParquetWriter.Builder builder = ExampleParquetWriter.builder(new LocalOutputFile(file))
+                .withType(SCHEMA)
+                .withConf(new PlainParquetConfiguration())
+                .withCodecFactory(ParquetTestCodecs.INSTANCE)
+                .withCompressionCodec(codec);
+        if (groupBytes > 0) builder.withRowGroupSize(groupBytes).withMaxRowCountForPageSizeCheck(500);
+        try (ParquetWriter<Group> writer = builder.build()) {
+            for (int i = 0; i < rows; i++) {
+                Group g = groups.newGroup().append("ID", (long) i);
+                if (rows > 10) {
+                    writer.write(g);
+                    continue;
+                }
+                g.append("qty", i * 10).append("price", 100 + i * 101).append("created_at", T0 + i)
+                        .append("code", i == 3 ? "x" : "42").append("unused", "u" + i);
+                if (i != 1) g.append("active", true).append("note", "n" + i);
+                writer.write(g);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.datalake.ingestionsvc.util;
+
+import com.github.luben.zstd.Zstd;
+import io.airlift.compress.lz4.Lz4Compressor;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/** Writes test files with the codecs {@link ParquetCodecs} reads; decompression is delegated to it. */
+final class ParquetTestCodecs implements CompressionCodecFactory {
+
+    static final ParquetTestCodecs INSTANCE = new ParquetTestCodecs();
+
+    private ParquetTestCodecs() { }
+
+    @Override
+    public BytesInputCompressor getCompressor(CompressionCodecName codec) {
+        return new Compressor(codec);
+    }
+
+    @Override
+    public BytesInputDecompressor getDecompressor(CompressionCodecName codec) {
+        return ParquetCodecs.INSTANCE.getDecompressor(codec);
+    }
+
+    @Override
+    public void release() { }
+
+    private record Compressor(CompressionCodecName codec) implements BytesInputCompressor {
+
+        @Override
+        public BytesInput compress(BytesInput bytes) throws IOException {
+            ByteArrayOutputStream page = new ByteArrayOutputStream(Math.toIntExact(bytes.size()));
+            bytes.writeAllTo(page);
+            byte[] in = page.toByteArray();
+            return BytesInput.from(switch (codec) {
+                case UNCOMPRESSED -> in;
+                case SNAPPY -> Snappy.compress(in);
+                case ZSTD -> Zstd.compress(in);
+                case GZIP -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(in.length / 2 + 64);
+                    try (OutputStream gz = new GZIPOutputStream(out)) {
+                        gz.write(in);
+                    }
+                    yield out.toByteArray();
+                }
+                case LZ4_RAW -> {
+                    Lz4Compressor lz4 = new Lz4Compressor();
+                    byte[] out = new byte[lz4.maxCompressedLength(in.length)];
+                    int n = lz4.compress(in, 0, in.length, out, 0, out.length);
+                    yield Arrays.copyOf(out, n);
+                }
+                default -> throw new UnsupportedOperationException("Parquet codec " + codec + " is not supported");
+            });
+        }
+
+        @Override
+        public CompressionCodecName getCodecName() {
+            return codec;
+        }
+
+        @Override
+        public void release() { }
+    }
+}
@@ -11,14 +11,26 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -26,7 +38,11 @@ import java.util.List;
 @RequiredArgsConstructor
 @Validated
 public class DataSetController {
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final MetaService metaService;
+    private final ObjectMapper json;
 
     @Operation(
             summary = "Create a new dataset",
@@ -84,10 +100,11 @@ public class DataSetController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Schema retrieved",
                     content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ColumnDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "Schema unchanged (If-None-Match matched the ETag)"),
             @ApiResponse(responseCode = "404", description = "Dataset or schema version not found")
     })
     @GetMapping("/{id}/schema")
-    public List<ColumnDTO> getSchema(
+    public ResponseEntity<List<ColumnDTO>> getSchema(
             @Parameter(
                     name = "id",
                     in = ParameterIn.PATH,
@@ -100,26 +117,92 @@ public class DataSetController {
                     in = ParameterIn.QUERY,
                     description = "Schema version (optional)"
             )
-            @RequestParam(name = "version", required = false) Integer version) {
+            @RequestParam(name = "version", required = false) Integer version,
+            WebRequest request) {
 
-        return metaService.getSchema(id, version);   // return json
+        /* a schema version is immutable, so the version is its ETag; the schema
+           is resolved first (from the cache) so that a version that does not
+           exist is a 404 even when If-None-Match happens to name it */
+        int resolved = metaService.schemaVersion(id, version);
+        List<ColumnDTO> columns = metaService.getSchema(id, resolved);
+        String etag = "\"v" + resolved + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;                                          // 304, ETag already set
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(version == null
+                        ? CacheControl.noCache()                 // latest moves: always revalidate
+                        : CacheControl.maxAge(Duration.ofDays(365)).immutable())
+                .body(columns);
     }
 
     @PostMapping("/{id}/ingestions")
-    public ResponseEntity<Void> registerIngestion(@PathVariable String id,
+    public ResponseEntity<Void> registerIngestion(@PathVariable("id") String id,
                                                   @RequestBody FileMetadataRequest body) {
         metaService.registerIngestion(id, body);   // see next section
         return ResponseEntity.ok().build();
     }
 
     @Operation(
-            summary = "List all datasets",
-            description = "Returns a list of all registered datasets."
+            summary = "List datasets",
+            description = "Returns one page of datasets ordered by creation time, optionally filtered. "
+                    + "The X-Next-Cursor response header, when present, is the `after` value of the next page."
     )
-    @ApiResponse(responseCode = "200", description = "List of datasets",
-            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = DataSetDTO.class))))
-    @GetMapping
-    public List<DataSetDTO> list() {
-        return metaService.listAllDatasets();
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One page of datasets",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = DataSetDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<DataSetDTO>> list(
+            @RequestParam(name = "project", required = false) String project,
+            @RequestParam(name = "groupId", required = false) String groupId,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = "namePrefix", required = false) String namePrefix,
+            @Parameter(description = "Cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "100") @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+
+        DataSetPage page = metaService.listDatasets(new DataSetFilter(project, groupId, format, namePrefix), after, limit);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) ok.header(NEXT_CURSOR, page.nextCursor());
+        return ok.body(page.items());
+    }
+
+    @Operation(
+            summary = "Stream datasets as NDJSON",
+            description = "Streams every matching dataset, one JSON object per line, "
+                    + "when requested with Accept: application/x-ndjson."
+    )
+    @ApiResponse(responseCode = "200", description = "All matching datasets",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = DataSetDTO.class)))
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestParam(name = "project", required = false) String project,
+            @RequestParam(name = "groupId", required = false) String groupId,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = "namePrefix", required = false) String namePrefix) {
+
+        DataSetFilter filter = new DataSetFilter(project, groupId, format, namePrefix);
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            try {
+                metaService.forEachDatasetPage(filter, page -> {
+                    try {
+                        for (DataSetDTO dto : page) {
+                            buffered.write(json.writeValueAsBytes(dto));
+                            buffered.write('\n');
+                        }
+                        buffered.flush();                   // one chunk per page
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);  // client went away: stop paging
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 }
@@ -1,5 +1,6 @@
 package com.example.datalake.metadatasvc.controller;
 
+import com.example.datalake.metadatasvc.dto.InvalidCursorException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
@@ -39,6 +40,12 @@ public class RestExceptionHandler {
         return ResponseEntity.badRequest().body(msg);
     }
 
+    /* 400 Bad Request —— a listing cursor that was not issued by us */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
     /* 500 Internal Server Error */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleOther(Exception ex) {
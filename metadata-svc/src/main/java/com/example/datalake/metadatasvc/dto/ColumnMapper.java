@@ -0,0 +1,30 @@
+package com.example.datalake.metadatasvc.dto;
+
+import com.example.datalake.metadatasvc.model.DataSet;
+import com.example.datalake.metadatasvc.model.DataSetColumn;
+
+public final class ColumnMapper {
+    private ColumnMapper() {}
+
+    public static ColumnDTO toDTO(DataSetColumn entity) {
+        ColumnDTO dto = new ColumnDTO();
+        dto.setColumnName(entity.getColumnName());
+        dto.setDataType(entity.getDataType());
+        dto.setIsPartition(entity.getIsPartition());
+        dto.setIsPrimaryKey(entity.getIsPrimaryKey());
+        dto.setComment(entity.getComment());
+        return dto;
+    }
+
+    public static DataSetColumn toEntity(ColumnDTO dto, DataSet dataset, int version) {
+        DataSetColumn entity = new DataSetColumn();
+        entity.setDataset(dataset);
+        entity.setVersion(version);
+        entity.setColumnName(dto.getColumnName());
+        entity.setDataType(dto.getDataType());
+        entity.setIsPartition(dto.getIsPartition());
+        entity.setIsPrimaryKey(dto.getIsPrimaryKey());
+        entity.setComment(dto.getComment());
+        return entity;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.datalake.metadatasvc.dto;
+
+import com.example.datalake.metadatasvc.model.DataSet;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the dataset listing: the {@code (createdAt, id)} of the
+ * last dataset returned.  Handed to clients as an opaque URL-safe token.
+ */
+public record DataSetCursor(Instant createdAt, String id) {
+
+    public static DataSetCursor of(DataSet last) {
+        return new DataSetCursor(last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        byte[] raw = (createdAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /** @throws InvalidCursorException if {@code token} was not produced by {@link #encode()} */
+    public static DataSetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            if (bar < 0 || bar == raw.length() - 1) throw new IllegalArgumentException("malformed cursor");
+            return new DataSetCursor(Instant.parse(raw.substring(0, bar)), raw.substring(bar + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.datalake.metadatasvc.dto;
+
+/**
+ * Optional filters of the dataset listing; {@code null} or blank means "any".
+ * {@code namePrefix} matches names starting with it, literally (no wildcards).
+ */
+public record DataSetFilter(String project,
+                            String groupId,
+                            String format,
+                            String namePrefix) {
+
+    public static final DataSetFilter ANY = new DataSetFilter(null, null, null, null);
+}
@@ -17,4 +17,16 @@ public final class DataSetMapper {
                 .lastCommitId(entity.getLastCommitId())
                 .build();
     }
+
+    /* description and ownerUserId have no column; the creator is the acting user */
+    public static DataSet toEntity(NewDataSetDTO dto, String operator) {
+        DataSet entity = new DataSet();
+        entity.setName(dto.getName());
+        entity.setStorageUri(dto.getStorageUri());
+        entity.setFormat(dto.getFormat());
+        entity.setProject(dto.getProject());
+        entity.setGroupId(dto.getOwnerGroupId());
+        entity.setCreatedBy(operator);
+        return entity;
+    }
 }
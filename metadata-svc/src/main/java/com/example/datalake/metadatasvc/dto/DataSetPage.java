@@ -0,0 +1,7 @@
+package com.example.datalake.metadatasvc.dto;
+
+import java.util.List;
+
+/** One page of the dataset listing; {@code nextCursor} is null on the last page. */
+public record DataSetPage(List<DataSetDTO> items, String nextCursor) {
+}
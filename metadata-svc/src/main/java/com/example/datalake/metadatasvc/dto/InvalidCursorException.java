@@ -0,0 +1,9 @@
+package com.example.datalake.metadatasvc.dto;
+
+/** A listing cursor the client sent that {@link DataSetCursor#encode()} never produced. */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String token, Throwable cause) {
+        super("invalid cursor: " + token, cause);
+    }
+}
@@ -3,20 +3,27 @@ package com.example.datalake.metadatasvc.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "dataset_commits")
+@Table(name = "dataset_commits",
+        uniqueConstraints = @UniqueConstraint(name = "uk_commit_ds_ver", columnNames = {"dataset_id", "version"}))
 @Getter
 @Setter
-public class Commit {
+public class Commit implements Persistable<String> {
     @Id
     @Column(length = 36, nullable = false, updatable = false)
     private String id = UUID.randomUUID().toString();
@@ -32,4 +39,22 @@ public class Commit {
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "json")
     private Map<String, Object> extraMeta;
+
+    /* the id is assigned up front, so tell Spring Data a fresh commit is new:
+       save() then persists instead of merging (no SELECT before the INSERT) */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
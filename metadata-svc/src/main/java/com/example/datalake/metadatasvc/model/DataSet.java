@@ -2,15 +2,23 @@ package com.example.datalake.metadatasvc.model;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "datasets")
+/* listing walks (created_at, id) pages, optionally filtered on one of the leading columns */
+@Table(name = "datasets", indexes = {
+        @Index(name = "idx_ds_created", columnList = "created_at, id"),
+        @Index(name = "idx_ds_project_created", columnList = "project, created_at, id"),
+        @Index(name = "idx_ds_group_created", columnList = "group_id, created_at, id"),
+        @Index(name = "idx_ds_format_created", columnList = "format, created_at, id")
+})
 @Getter
 @Setter
 public class DataSet {
@@ -33,4 +41,15 @@ public class DataSet {
     private String createdBy;
     @Column(name = "last_commit_id", length = 36)
     private String lastCommitId;
+
+    /* 版本计数器：only DataSetRepository.incrementVersions writes them (an atomic
+       UPDATE), never the entity flush, so a stale copy cannot roll them back */
+    @Column(name = "commit_version", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private int commitVersion;
+    @Column(name = "schema_version", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private int schemaVersion;
 }
@@ -10,8 +10,11 @@ import java.io.Serializable;
 @Getter
 @Setter
 public class DataSetColumn {
+    /* pooled sequence (a table on MySQL, see V2 migration): ids are known before the
+       INSERT, so Hibernate can batch a whole schema commit – IDENTITY cannot */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dataset_column_ids")
+    @SequenceGenerator(name = "dataset_column_ids", sequenceName = "dataset_columns_seq", allocationSize = 1000)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
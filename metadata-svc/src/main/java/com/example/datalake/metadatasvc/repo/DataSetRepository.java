@@ -2,10 +2,43 @@ package com.example.datalake.metadatasvc.repo;
 
 import com.example.datalake.metadatasvc.model.DataSet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
-public interface DataSetRepository extends JpaRepository<DataSet, String> {
+public interface DataSetRepository extends JpaRepository<DataSet, String>, JpaSpecificationExecutor<DataSet> {
     Optional<DataSet> findByName(String name);
     boolean existsByName(String name);
+
+    /**
+     * Bumps the dataset's version counters in place; returns the rows updated
+     * (0 if the dataset does not exist).  The UPDATE holds the row lock until
+     * the transaction ends, so concurrent writers of one dataset queue on it
+     * and each reads back its own numbers with {@link #findVersions}.  Call it
+     * before inserting rows that reference the dataset: their foreign-key
+     * checks share-lock the same row, and two writers holding that share lock
+     * would deadlock on the upgrade.
+     */
+    @Modifying
+    @Query("""
+           update DataSet d
+              set d.commitVersion = d.commitVersion + 1,
+                  d.schemaVersion = d.schemaVersion + ?2
+            where d.id = ?1
+           """)
+    int incrementVersions(String datasetId, int schemaStep);
+
+    @Query("""
+           select d.commitVersion as commitVersion, d.schemaVersion as schemaVersion
+             from DataSet d
+            where d.id = ?1
+           """)
+    VersionCounters findVersions(String datasetId);
+
+    interface VersionCounters {
+        int getCommitVersion();
+        int getSchemaVersion();
+    }
 }
@@ -2,10 +2,13 @@ package com.example.datalake.metadatasvc.service;
 
 import com.example.datalake.metadatasvc.dto.ColumnDTO;
 import com.example.datalake.metadatasvc.dto.DataSetDTO;
+import com.example.datalake.metadatasvc.dto.DataSetFilter;
+import com.example.datalake.metadatasvc.dto.DataSetPage;
 import com.example.datalake.metadatasvc.dto.FileMetadataRequest;
 import com.example.datalake.metadatasvc.dto.NewDataSetDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MetaService {
     /** 注册数据集（幂等）*/
@@ -14,10 +17,17 @@ public interface MetaService {
     /** 提交一次 Schema 变更 */
     void commitSchema(String datasetId, List<ColumnDTO> columns, String message, String operator);
 
-    /** 查询列定义（version 为空返回最新）*/
+    /** 解析 schema 版本（version 为空返回最新，没有 schema 时 EntityNotFoundException）*/
+    int schemaVersion(String datasetId, Integer version);
+
+    /** 查询列定义（version 为空返回最新；版本不存在时 EntityNotFoundException）*/
     List<ColumnDTO> getSchema(String datasetId, Integer version);
 
     void registerIngestion(String id, FileMetadataRequest body);
 
-    List<DataSetDTO> listAllDatasets();
+    /** 分页列出数据集：按 (createdAt, id) 排序，after 为上一页的 nextCursor（为空从头开始）*/
+    DataSetPage listDatasets(DataSetFilter filter, String after, int limit);
+
+    /** 逐页遍历全部匹配的数据集（流式输出用），内存只保留一页 */
+    void forEachDatasetPage(DataSetFilter filter, Consumer<List<DataSetDTO>> page);
 }
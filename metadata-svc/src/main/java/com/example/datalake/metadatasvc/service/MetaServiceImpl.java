@@ -8,34 +8,41 @@ import com.example.datalake.metadatasvc.repo.CommitRepository;
 import com.example.datalake.metadatasvc.repo.DataSetColumnRepository;
 import com.example.datalake.metadatasvc.repo.DataSetRepository;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.beans.BeanUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MetaServiceImpl implements MetaService{
+    /* keyset order of the listing, served by the (…, created_at, id) indexes */
+    private static final Sort LISTING_ORDER = Sort.by("createdAt", "id");
+    private static final int STREAM_PAGE_SIZE = 500;
+
     private final DataSetRepository dataSetRepo;
     private final CommitRepository commitRepo;
     private final DataSetColumnRepository columnRepo;
+    private final SchemaCache schemaCache;
 
     @Transactional
     @Override
     public DataSetDTO registerDataSet(NewDataSetDTO dto, String operator) {
 
         DataSet entity = dataSetRepo.findByName(dto.getName())
-                .orElseGet(() -> {
-                    DataSet ds = new DataSet();
-                    BeanUtils.copyProperties(dto, ds);
-                    ds.setCreatedBy(operator);
-                    return dataSetRepo.save(ds);
-                });
+                .orElseGet(() -> dataSetRepo.save(DataSetMapper.toEntity(dto, operator)));
 
         return DataSetMapper.toDTO(entity);
     }
@@ -50,51 +57,65 @@ public class MetaServiceImpl implements MetaService{
         DataSet ds = dataSetRepo.findById(datasetId)
                 .orElseThrow(() -> new EntityNotFoundException("dataset not found"));
 
-        int nextVersion = columnRepo.findMaxVersion(datasetId) == null
-                ? 1
-                : columnRepo.findMaxVersion(datasetId) + 1;
+        /* the schema gets the next schema version, its commit the next commit version */
+        DataSetRepository.VersionCounters next = allocateVersions(datasetId, true);
+        int nextVersion = next.getSchemaVersion();
 
-        columns.forEach(c -> {
-            DataSetColumn col = new DataSetColumn();
-            col.setDataset(ds);
-            col.setVersion(nextVersion);
-            BeanUtils.copyProperties(c, col);
-            columnRepo.save(col);
-        });
+        /* ids come from the pooled sequence, so nothing is written until the flush,
+           which sends all columns as one JDBC batch (multi-row INSERT on MySQL) */
+        List<DataSetColumn> cols = new ArrayList<>(columns.size());
+        for (ColumnDTO c : columns) {
+            cols.add(ColumnMapper.toEntity(c, ds, nextVersion));
+        }
+        columnRepo.saveAll(cols);
 
         Commit commit = new Commit();
         commit.setDatasetId(datasetId);
-        commit.setVersion(nextVersion);
+        commit.setVersion(next.getCommitVersion());
         commit.setAuthor(operator);
         commit.setMessage(message);
+        commit.setExtraMeta(Map.of("schemaVersion", nextVersion));
         commitRepo.save(commit);
 
-        /* 回写最新 commit id */
+        /* 回写最新 commit id（ds is managed: the UPDATE goes out with the same flush） */
         ds.setLastCommitId(commit.getId());
-        dataSetRepo.save(ds);
+
+        /* readers may cache the new latest version only once it is visible */
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schemaCache.invalidateLatest(datasetId);
+            }
+        });
     }
 
-    @Transactional(readOnly = true)
+    /* 不开事务：a cache hit must not take a connection; both reads stand alone
+       (a committed version never changes) */
     @Override
-    public List<ColumnDTO> getSchema(String datasetId, Integer version) {
-
-        /* 若未传版本，拉最新 */
-        Integer targetVer = (version == null)
-                ? columnRepo.findMaxVersion(datasetId)
-                : version;
+    public int schemaVersion(String datasetId, Integer version) {
+        if (version != null) return version;
 
-        if (targetVer == null) {
+        /* 若未传版本，取最新 */
+        Integer latest = schemaCache.latestVersion(datasetId, () -> columnRepo.findMaxVersion(datasetId));
+        if (latest == null) {
             throw new EntityNotFoundException("schema not found");
         }
+        return latest;
+    }
 
-        return columnRepo.findByDataset_IdAndVersionOrderById(datasetId, targetVer)
-                .stream()
-                .map(col -> {
-                    ColumnDTO dto = new ColumnDTO();
-                    BeanUtils.copyProperties(col, dto);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    @Override
+    public List<ColumnDTO> getSchema(String datasetId, Integer version) {
+        int targetVer = schemaVersion(datasetId, version);
+
+        List<ColumnDTO> columns = schemaCache.schema(datasetId, targetVer, () ->
+                columnRepo.findByDataset_IdAndVersionOrderById(datasetId, targetVer)
+                        .stream()
+                        .map(ColumnMapper::toDTO)
+                        .collect(Collectors.toList()));
+        if (columns.isEmpty()) {
+            throw new EntityNotFoundException("schema version " + targetVer + " not found");
+        }
+        return columns;
     }
 
     /**
@@ -114,12 +135,8 @@ public class MetaServiceImpl implements MetaService{
                 .orElseThrow(() ->
                         new IllegalArgumentException("Dataset " + datasetId + " not found"));
 
-        /* -------- 2. Calculate next sequential version -------- */
-        Integer lastVersion = commitRepo
-                .findTopByDatasetIdOrderByVersionDesc(datasetId)  // may return null
-                .map(Commit::getVersion)
-                .orElse(null);
-        int nextVersion = lastVersion == null ? 1 : lastVersion + 1;
+        /* -------- 2. Allocate the next version (atomic counter, no read-max race) -------- */
+        int nextVersion = allocateVersions(datasetId, false).getCommitVersion();
 
         /* -------- 3. Persist the Commit -------- */
         Commit c  = new Commit();
@@ -142,11 +159,72 @@ public class MetaServiceImpl implements MetaService{
         dataSetRepo.save(dataSet);
     }
 
+    /**
+     * Takes the next commit version (and schema version, if {@code schema})
+     * of the dataset.  Concurrent callers queue on the dataset row until the
+     * transaction ends, so versions are unique and gapless and commits land
+     * in version order; must run before anything referencing the dataset is
+     * inserted (see {@link DataSetRepository#incrementVersions}).
+     */
+    private DataSetRepository.VersionCounters allocateVersions(String datasetId, boolean schema) {
+        dataSetRepo.incrementVersions(datasetId, schema ? 1 : 0);
+        return dataSetRepo.findVersions(datasetId);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public DataSetPage listDatasets(DataSetFilter filter, String after, int limit) {
+        DataSetCursor cursor = after == null || after.isBlank() ? null : DataSetCursor.decode(after);
+
+        /* one extra row tells whether another page follows, without a COUNT */
+        List<DataSet> rows = dataSetRepo.findBy(listing(filter, cursor),
+                q -> q.sortBy(LISTING_ORDER).limit(limit + 1).all());
+
+        boolean more = rows.size() > limit;
+        List<DataSetDTO> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            items.add(DataSetMapper.toDTO(rows.get(i)));
+        }
+        return new DataSetPage(items, more ? DataSetCursor.of(rows.get(limit - 1)).encode() : null);
+    }
+
     @Override
-    public List<DataSetDTO> listAllDatasets() {
-        List<DataSetDTO> result = new ArrayList<>();
-        for (DataSet dataSet: dataSetRepo.findAll())
-            result.add(DataSetMapper.toDTO(dataSet));
-        return result;
+    public void forEachDatasetPage(DataSetFilter filter, Consumer<List<DataSetDTO>> page) {
+        String after = null;
+        do {
+            DataSetPage p = listDatasets(filter, after, STREAM_PAGE_SIZE);   // each page its own short read
+            page.accept(p.items());
+            after = p.nextCursor();
+        } while (after != null);
+    }
+
+    /** Filters plus the keyset condition {@code (created_at, id) > cursor}. */
+    private static Specification<DataSet> listing(DataSetFilter filter, DataSetCursor after) {
+        return (root, query, cb) -> {
+            List<Predicate> where = new ArrayList<>();
+            if (hasText(filter.project())) where.add(cb.equal(root.get("project"), filter.project()));
+            if (hasText(filter.groupId())) where.add(cb.equal(root.get("groupId"), filter.groupId()));
+            if (hasText(filter.format())) where.add(cb.equal(root.get("format"), filter.format()));
+            if (hasText(filter.namePrefix())) {
+                where.add(cb.like(root.get("name"), escapeLike(filter.namePrefix()) + "%", '!'));
+            }
+            if (after != null) {
+                Path<Instant> createdAt = root.get("createdAt");
+                where.add(cb.or(
+                        cb.greaterThan(createdAt, after.createdAt()),
+                        cb.and(cb.equal(createdAt, after.createdAt()),
+                               cb.greaterThan(root.get("id"), after.id()))));
+            }
+            return cb.and(where.toArray(Predicate[]::new));
+        };
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+
+    /* '!' rather than a backslash as the LIKE escape: MySQL reads a backslash in a literal as a string escape */
+    private static String escapeLike(String s) {
+        return s.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 }
@@ -0,0 +1,150 @@
+package com.example.datalake.metadatasvc.service;
+
+import com.example.datalake.metadatasvc.dto.ColumnDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory read-through cache of committed schemas.  A schema version never
+ * changes once committed, so {@code (datasetId, version) → columns} entries
+ * are never invalidated, only evicted (least recently used first) once the
+ * cached schemas hold more than {@code metadata.schema-cache.max-columns}
+ * columns.  The latest version of each dataset is cached separately, bounded
+ * by {@code metadata.schema-cache.max-datasets}, dropped by
+ * {@link #invalidateLatest} when a schema commit of this replica lands, and
+ * re-read after {@code metadata.schema-cache.latest-ttl} at the latest, which
+ * bounds how long a commit made through another replica goes unseen.
+ * <p>
+ * Loaders run outside the lock; two concurrent misses may both load.  The
+ * cached column lists are shared and must not be modified.
+ */
+@Component
+public class SchemaCache {
+
+    private record Key(String datasetId, int version) {
+    }
+
+    private record Latest(int version, long loadedAt) {
+    }
+
+    private final long maxColumns;
+    private final int maxDatasets;
+    private final long latestTtlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Key, List<ColumnDTO>> schemas = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, Latest> latest = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedColumns;
+    private long invalidations;               // a latest version read before one of these is not cached
+    private final Counter schemaHits, schemaMisses, latestHits, latestMisses;
+
+    @Autowired
+    public SchemaCache(@Value("${metadata.schema-cache.max-columns}") long maxColumns,
+                       @Value("${metadata.schema-cache.max-datasets}") int maxDatasets,
+                       @Value("${metadata.schema-cache.latest-ttl}") Duration latestTtl,
+                       MeterRegistry meters) {
+        this(maxColumns, maxDatasets, latestTtl, meters, System::nanoTime);
+    }
+
+    SchemaCache(long maxColumns, int maxDatasets, Duration latestTtl, MeterRegistry meters, LongSupplier clock) {
+        this.maxColumns = maxColumns;
+        this.maxDatasets = maxDatasets;
+        this.latestTtlNanos = latestTtl.toNanos();
+        this.clock = clock;
+        this.schemaHits = requests(meters, "schema", "hit");
+        this.schemaMisses = requests(meters, "schema", "miss");
+        this.latestHits = requests(meters, "latest", "hit");
+        this.latestMisses = requests(meters, "latest", "miss");
+        Gauge.builder("metadata.schema.cache.columns", this, SchemaCache::columns)
+                .description("Columns held by the schema cache")
+                .register(meters);
+    }
+
+    private static Counter requests(MeterRegistry meters, String cache, String result) {
+        return Counter.builder("metadata.schema.cache.requests")
+                .tag("cache", cache)
+                .tag("result", result)
+                .description("Schema cache lookups; hit rate = hit / (hit + miss)")
+                .register(meters);
+    }
+
+    /** Columns of a committed schema version, from {@code loader} on a miss (empty results are not cached). */
+    public List<ColumnDTO> schema(String datasetId, int version, Supplier<List<ColumnDTO>> loader) {
+        Key key = new Key(datasetId, version);
+        synchronized (this) {
+            List<ColumnDTO> cached = schemas.get(key);
+            if (cached != null) {
+                schemaHits.increment();
+                return cached;
+            }
+        }
+        schemaMisses.increment();
+        List<ColumnDTO> loaded = List.copyOf(loader.get());
+        if (!loaded.isEmpty() && loaded.size() <= maxColumns) put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Latest schema version of a dataset, from {@code loader} on a miss or once
+     * the cached one is older than the TTL (null results are not cached).
+     */
+    public Integer latestVersion(String datasetId, Supplier<Integer> loader) {
+        long seen;
+        long now = clock.getAsLong();
+        synchronized (this) {
+            Latest cached = latest.get(datasetId);
+            if (cached != null && now - cached.loadedAt() < latestTtlNanos) {
+                latestHits.increment();
+                return cached.version();
+            }
+            seen = invalidations;
+        }
+        latestMisses.increment();
+        Integer loaded = loader.get();
+        if (loaded != null) {
+            synchronized (this) {
+                if (seen == invalidations) {          // no commit landed while we were reading
+                    latest.put(datasetId, new Latest(loaded, now));
+                    if (latest.size() > maxDatasets) {
+                        Iterator<String> lru = latest.keySet().iterator();
+                        lru.next();
+                        lru.remove();
+                    }
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /** Called once a schema commit of the dataset is durable. */
+    public synchronized void invalidateLatest(String datasetId) {
+        latest.remove(datasetId);
+        invalidations++;
+    }
+
+    synchronized long columns() {
+        return cachedColumns;
+    }
+
+    private synchronized void put(Key key, List<ColumnDTO> columns) {
+        List<ColumnDTO> old = schemas.put(key, columns);
+        if (old != null) cachedColumns -= old.size();
+        cachedColumns += columns.size();
+        Iterator<Map.Entry<Key, List<ColumnDTO>>> lru = schemas.entrySet().iterator();
+        while (cachedColumns > maxColumns && lru.hasNext()) {
+            cachedColumns -= lru.next().getValue().size();
+            lru.remove();
+        }
+    }
+}
@@ -27,7 +27,8 @@ CREATE TABLE dataset_columns (
                                  comment         VARCHAR(256),
                                  CONSTRAINT fk_dataset FOREIGN KEY (dataset_id) REFERENCES datasets(id)
 ) ENGINE = InnoDB
-  DEFAULT CHARSET = utf8mb4;
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
 
 ALTER TABLE dataset_columns
     ADD UNIQUE KEY uk_ds_ver_col (dataset_id, version, column_name);
@@ -43,4 +44,5 @@ CREATE TABLE dataset_commits (
                                  extra_meta       JSON,
                                  CONSTRAINT fk_commit_dataset FOREIGN KEY (dataset_id) REFERENCES datasets(id)
 ) ENGINE = InnoDB
-  DEFAULT CHARSET = utf8mb4;
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
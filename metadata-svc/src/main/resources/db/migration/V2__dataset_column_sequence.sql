@@ -0,0 +1,21 @@
+-- =========================================================
+--  V2  • dataset_columns ids from a pooled sequence
+-- =========================================================
+-- MySQL has no sequences; Hibernate emulates @SequenceGenerator with a one-row
+-- table.  Ids are allocated 1000 at a time (pooled-lo: next_val is the low end
+-- of the next block), so a schema commit can batch its column inserts.
+-- Start past the ids AUTO_INCREMENT has handed out so far.  Builds that ran
+-- with ddl-auto=update may already have created the table, counting from 1
+-- below those ids: keep it, but move next_val past every id in use.
+
+CREATE TABLE IF NOT EXISTS dataset_columns_seq (
+                                     next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO dataset_columns_seq (next_val)
+SELECT 1 FROM DUAL
+WHERE NOT EXISTS (SELECT * FROM dataset_columns_seq);
+
+UPDATE dataset_columns_seq
+SET next_val = GREATEST(COALESCE(next_val, 0),
+                        (SELECT COALESCE(MAX(id), 0) + 1 FROM dataset_columns));
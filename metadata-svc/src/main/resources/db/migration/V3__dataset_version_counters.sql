@@ -0,0 +1,33 @@
+-- =========================================================
+--  V3  • per-dataset version counters  • unique commit versions
+-- =========================================================
+-- Versions used to be read as MAX(version) + 1, so concurrent ingestions of
+-- one dataset could take the same number.  Each dataset now carries its own
+-- counters, bumped with an atomic UPDATE, and the database rejects duplicates.
+
+ALTER TABLE datasets
+    ADD COLUMN commit_version INT NOT NULL DEFAULT 0,
+    ADD COLUMN schema_version INT NOT NULL DEFAULT 0;
+
+-- the commits that raced: the first copy of a duplicated version keeps it,
+-- later copies and NULL versions move, in order, past the dataset's highest
+-- version; every other commit keeps the number it was published with
+UPDATE dataset_commits c
+    JOIN (SELECT d.id,
+                 m.max_version + ROW_NUMBER() OVER (PARTITION BY d.dataset_id
+                     ORDER BY d.version IS NULL, d.version, d.commit_time, d.id) AS new_version
+            FROM (SELECT id, dataset_id, version, commit_time,
+                         ROW_NUMBER() OVER (PARTITION BY dataset_id, version ORDER BY commit_time, id) AS copy
+                    FROM dataset_commits) d
+            JOIN (SELECT dataset_id, COALESCE(MAX(version), 0) AS max_version
+                    FROM dataset_commits GROUP BY dataset_id) m ON m.dataset_id = d.dataset_id
+           WHERE d.version IS NULL OR d.copy > 1) r ON r.id = c.id
+   SET c.version = r.new_version;
+
+ALTER TABLE dataset_commits
+    MODIFY version INT NOT NULL,
+    ADD CONSTRAINT uk_commit_ds_ver UNIQUE (dataset_id, version);
+
+UPDATE datasets d
+   SET d.commit_version = (SELECT COALESCE(MAX(c.version), 0)  FROM dataset_commits c  WHERE c.dataset_id  = d.id),
+       d.schema_version = (SELECT COALESCE(MAX(dc.version), 0) FROM dataset_columns dc WHERE dc.dataset_id = d.id);
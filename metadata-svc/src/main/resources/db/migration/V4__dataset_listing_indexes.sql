@@ -0,0 +1,12 @@
+-- =========================================================
+--  V4  • indexes for the keyset-paginated dataset listing
+-- =========================================================
+-- GET /api/datasets pages through datasets ordered by (created_at, id) and
+-- filters on project, group_id or format; each index below serves one filter
+-- (or none) and the order, so a page reads only its own rows.  The name
+-- prefix filter ranges over the existing unique index on name.
+
+CREATE INDEX idx_ds_created         ON datasets (created_at, id);
+CREATE INDEX idx_ds_project_created ON datasets (project, created_at, id);
+CREATE INDEX idx_ds_group_created   ON datasets (group_id, created_at, id);
+CREATE INDEX idx_ds_format_created  ON datasets (format, created_at, id);
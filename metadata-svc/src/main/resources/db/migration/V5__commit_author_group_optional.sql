@@ -0,0 +1,16 @@
+-- =========================================================
+--  V5  • dataset_commits.author_group_id no longer required
+-- =========================================================
+-- V1 declared author_group_id NOT NULL, but commits are written without it;
+-- databases that Hibernate created before Flyway never had the column at all.
+-- Relax it where it exists so both shapes accept the same inserts.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE()
+                  AND table_name   = 'dataset_commits'
+                  AND column_name  = 'author_group_id') > 0,
+              'ALTER TABLE dataset_commits MODIFY author_group_id VARCHAR(64) NULL',
+              'DO 0');
+PREPARE relax_author_group FROM @ddl;
+EXECUTE relax_author_group;
+DEALLOCATE PREPARE relax_author_group;
@@ -0,0 +1,109 @@
+package com.example.datalake.metadatasvc.controller;
+
+import com.example.datalake.metadatasvc.model.DataSet;
+import com.example.datalake.metadatasvc.repo.CommitRepository;
+import com.example.datalake.metadatasvc.repo.DataSetColumnRepository;
+import com.example.datalake.metadatasvc.repo.DataSetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hundreds of parallel ingestion registrations (plus a few schema commits)
+ * against one dataset over HTTP: every request must succeed and the commit
+ * versions must come out as 1..N with no duplicates and no gaps.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:versions;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                + "DATABASE_TO_UPPER=false;LOCK_TIMEOUT=60000")
+@ActiveProfiles("test")
+class ConcurrentVersionTest {
+
+    private static final int INGESTIONS = 400;
+    private static final int SCHEMA_COMMITS = 20;
+    private static final int CLIENTS = 64;
+
+    @Autowired TestRestTemplate http;
+    @Autowired DataSetRepository dataSets;
+    @Autowired CommitRepository commits;
+    @Autowired DataSetColumnRepository columns;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void parallelIngestionsGetUniqueGaplessVersions() throws Exception {
+        DataSet ds = new DataSet();
+        ds.setName("concurrent_" + UUID.randomUUID());
+        ds.setStorageUri("s3://bench/" + ds.getName());
+        ds.setFormat("parquet");
+        ds.setGroupId("bench");
+        String id = dataSets.save(ds).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<ResponseEntity<String>>> calls = new ArrayList<>();
+        for (int i = 0; i < INGESTIONS; i++) {
+            Map<String, Object> body = Map.of(
+                    "fileName", "part-" + i + ".csv",
+                    "path", "s3://bench/part-" + i + ".csv",
+                    "sizeBytes", 1024 + i,
+                    "ingestedAt", Instant.now().toString(),
+                    "userId", "loader-" + i % 8);
+            calls.add(() -> {
+                start.await();
+                return http.postForEntity("/api/datasets/{id}/ingestions", body, String.class, id);
+            });
+        }
+        for (int i = 0; i < SCHEMA_COMMITS; i++) {
+            Map<String, Object> body = Map.of(
+                    "message", "schema " + i,
+                    "columns", List.of(Map.of("columnName", "id", "dataType", "BIGINT"),
+                                       Map.of("columnName", "c" + i, "dataType", "VARCHAR(64)")));
+            calls.add(() -> {
+                start.await();
+                return http.postForEntity("/api/datasets/{id}/commits", body, String.class, id);
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<ResponseEntity<String>>> results = new ArrayList<>();
+            for (Callable<ResponseEntity<String>> call : calls) results.add(pool.submit(call));
+            start.countDown();
+            for (Future<ResponseEntity<String>> r : results) {
+                ResponseEntity<String> response = r.get();
+                assertTrue(response.getStatusCode().is2xxSuccessful(), "request failed: " + response);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = INGESTIONS + SCHEMA_COMMITS;
+        List<Integer> versions = jdbc.queryForList(
+                "select version from dataset_commits where dataset_id = ? order by version", Integer.class, id);
+        assertEquals(IntStream.rangeClosed(1, total).boxed().toList(), versions);
+        assertEquals(SCHEMA_COMMITS, columns.findMaxVersion(id));
+
+        DataSet after = dataSets.findById(id).orElseThrow();
+        assertEquals(total, after.getCommitVersion());
+        assertEquals(SCHEMA_COMMITS, after.getSchemaVersion());
+        assertEquals(total, commits.findVersionById(after.getLastCommitId()));
+    }
+}
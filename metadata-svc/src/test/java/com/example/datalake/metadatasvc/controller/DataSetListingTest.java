@@ -0,0 +1,112 @@
+package com.example.datalake.metadatasvc.controller;
+
+import com.example.datalake.metadatasvc.model.DataSet;
+import com.example.datalake.metadatasvc.repo.DataSetRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:listing;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DataSetListingTest {
+
+    private static final int DATASETS = 230;
+
+    @Autowired MockMvc mvc;
+    @Autowired DataSetRepository dataSets;
+    @Autowired ObjectMapper json;
+
+    private final List<DataSet> ordered = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        dataSets.deleteAll();
+        ordered.clear();
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < DATASETS; i++) {
+            DataSet ds = new DataSet();
+            ds.setName((i % 7 == 0 ? "salesX" : i % 2 == 0 ? "sales_" : "ops_") + i);   // salesX must not match "sales_"
+            ds.setStorageUri("s3://lake/" + i);
+            ds.setFormat(i % 3 == 0 ? "ICEBERG" : "PARQUET");
+            ds.setProject(i % 2 == 0 ? "alpha" : "beta");
+            ds.setGroupId("g" + i % 4);
+            ds.setCreatedAt(base.plusSeconds(i / 3));                            // ties on created_at: id decides
+            ordered.add(dataSets.save(ds));
+        }
+        ordered.sort(Comparator.comparing(DataSet::getCreatedAt).thenComparing(DataSet::getId));
+    }
+
+    @Test
+    void walksEveryPageInKeysetOrder() throws Exception {
+        assertEquals(ids(d -> true), walk("", 37));
+        assertEquals(ids(d -> d.getProject().equals("alpha") && d.getGroupId().equals("g2")
+                        && d.getName().startsWith("sales_")),
+                walk("project=alpha&groupId=g2&namePrefix=sales_", 5));
+        assertEquals(ids(d -> d.getFormat().equals("ICEBERG")), walk("format=ICEBERG", 1000));
+    }
+
+    @Test
+    void streamsNdjsonAndRejectsBadInput() throws Exception {
+        MvcResult started = mvc.perform(get("/api/datasets?project=beta").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<String> streamed = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            streamed.add(json.readValue(line, new TypeReference<Map<String, Object>>() {}).get("id").toString());
+        }
+        assertEquals(ids(d -> d.getProject().equals("beta")), streamed);
+
+        mvc.perform(get("/api/datasets").accept(MediaType.ALL))                 // curl & co. get the JSON page
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mvc.perform(get("/api/datasets?after=bm90LWEtY3Vyc29y")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/datasets?limit=0")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/datasets?limit=1001")).andExpect(status().isBadRequest());
+    }
+
+    /** Follows X-Next-Cursor from the first page to the last, collecting ids. */
+    private List<String> walk(String query, int limit) throws Exception {
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        do {
+            String url = "/api/datasets?" + query + "&limit=" + limit + (after == null ? "" : "&after=" + after);
+            MvcResult page = mvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+            List<Map<String, Object>> items = json.readValue(page.getResponse().getContentAsString(),
+                    new TypeReference<>() {});
+            items.forEach(m -> ids.add(m.get("id").toString()));
+            after = page.getResponse().getHeader(DataSetController.NEXT_CURSOR);
+            if (after != null) assertEquals(limit, items.size());       // only the last page is short
+        } while (after != null);
+        return ids;
+    }
+
+    private List<String> ids(Predicate<DataSet> filter) {
+        return ordered.stream().filter(filter).map(DataSet::getId).toList();
+    }
+}
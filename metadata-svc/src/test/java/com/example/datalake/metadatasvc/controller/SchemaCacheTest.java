@@ -0,0 +1,97 @@
+package com.example.datalake.metadatasvc.controller;
+
+import com.example.datalake.metadatasvc.dto.ColumnDTO;
+import com.example.datalake.metadatasvc.model.DataSet;
+import com.example.datalake.metadatasvc.repo.DataSetRepository;
+import com.example.datalake.metadatasvc.service.MetaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SchemaCacheTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired MetaService meta;
+    @Autowired DataSetRepository dataSets;
+    @Autowired EntityManagerFactory emf;
+    @Autowired MeterRegistry meters;
+
+    @Test
+    void servesCommittedSchemasFromMemoryAndRevalidatesByVersion() throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        String id = newDataSet();
+        String url = "/api/datasets/" + id + "/schema";
+        meta.commitSchema(id, List.of(column("id"), column("name")), "v1", "test");
+
+        mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        stats.clear();
+        mvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$[1].columnName").value("name"));
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")).andExpect(status().isNotModified());
+        assertEquals(0, stats.getPrepareStatementCount(), "cached reads must not touch the database");
+
+        meta.commitSchema(id, List.of(column("id"), column("name"), column("city")), "v2", "test");
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))    // the commit moved latest
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v2\""))
+                .andExpect(jsonPath("$.length()").value(3));
+
+        stats.clear();
+        mvc.perform(get(url + "?version=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, immutable"))
+                .andExpect(jsonPath("$.length()").value(2));
+        assertEquals(0, stats.getPrepareStatementCount());
+        mvc.perform(get(url + "?version=9")).andExpect(status().isNotFound());
+        mvc.perform(get(url + "?version=9").header(HttpHeaders.IF_NONE_MATCH, "\"v9\""))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/api/datasets/" + UUID.randomUUID() + "/schema")).andExpect(status().isNotFound());
+
+        double hits = meters.get("metadata.schema.cache.requests").tag("cache", "schema").tag("result", "hit")
+                .counter().count();
+        double misses = meters.get("metadata.schema.cache.requests").tag("cache", "schema").tag("result", "miss")
+                .counter().count();
+        assertTrue(hits >= 2 && misses >= 2, "hits " + hits + ", misses " + misses);
+    }
+
+    private String newDataSet() {
+        DataSet ds = new DataSet();
+        ds.setName("cache_" + UUID.randomUUID());
+        ds.setStorageUri("s3://lake/" + ds.getName());
+        ds.setFormat("parquet");
+        ds.setGroupId("test");
+        return dataSets.save(ds).getId();
+    }
+
+    private static ColumnDTO column(String name) {
+        ColumnDTO c = new ColumnDTO();
+        c.setColumnName(name);
+        c.setDataType("VARCHAR(64)");
+        return c;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.datalake.metadatasvc.dto;
+
+import com.example.datalake.metadatasvc.model.DataSet;
+import com.example.datalake.metadatasvc.model.DataSetColumn;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Every field of every DTO / entity pair is either mapped or listed here as
+ * deliberately not mapped.  Sources are filled with a distinct value per
+ * field (booleans both ways round); each source value has to show up in the
+ * target, and each target field has to hold a source value or a mapper
+ * argument.  A field added on either side without touching the mapper fails.
+ */
+class MapperCoverageTest {
+
+    private static final String OPERATOR = "operator";
+    private static final DataSet OWNER = new DataSet();
+    private static final int VERSION = 424242;
+
+    @Test
+    void newDataSetToEntity() throws Exception {
+        check(NewDataSetDTO.class, dto -> DataSetMapper.toEntity(dto, OPERATOR),
+                Set.of("description", "ownerUserId"),                           // no column for them
+                Set.of("id", "createdAt", "lastCommitId", "commitVersion", "schemaVersion"),
+                OPERATOR);
+    }
+
+    @Test
+    void dataSetToDto() throws Exception {
+        check(DataSet.class, DataSetMapper::toDTO,
+                Set.of("groupId", "commitVersion", "schemaVersion"),            // not exposed
+                Set.of());
+    }
+
+    @Test
+    void columnToEntityAndBack() throws Exception {
+        check(ColumnDTO.class, dto -> ColumnMapper.toEntity(dto, OWNER, VERSION),
+                Set.of(),
+                Set.of("id"),                                                   // from the sequence
+                OWNER, VERSION);
+        check(DataSetColumn.class, ColumnMapper::toDTO,
+                Set.of("id", "dataset", "version"),                             // implied by the request
+                Set.of());
+    }
+
+    private static <S, T> void check(Class<S> sourceType, Function<S, T> mapper,
+                                     Set<String> unmappedSource, Set<String> unmappedTarget,
+                                     Object... arguments) throws Exception {
+        for (int variant = 0; variant < 2; variant++) {
+            S source = sourceType.getDeclaredConstructor().newInstance();
+            List<Object> provided = new ArrayList<>(Arrays.asList(arguments));
+            int n = 0;
+            for (Field f : fields(sourceType)) {
+                Object value = sample(f, variant, ++n);
+                f.set(source, value);
+                provided.add(value);
+            }
+
+            T target = mapper.apply(source);
+            List<Object> mapped = new ArrayList<>();
+            for (Field f : fields(target.getClass())) {
+                Object value = f.get(target);
+                mapped.add(value);
+                if (unmappedTarget.contains(f.getName())) continue;
+                assertNotNull(value, target.getClass().getSimpleName() + "." + f.getName() + " is not mapped");
+                assertTrue(provided.stream().anyMatch(p -> Objects.equals(p, value)),
+                        target.getClass().getSimpleName() + "." + f.getName() + " is not mapped");
+            }
+            for (Field f : fields(sourceType)) {
+                if (unmappedSource.contains(f.getName())) continue;
+                Object value = f.get(source);
+                assertTrue(mapped.stream().anyMatch(m -> Objects.equals(m, value)),
+                        sourceType.getSimpleName() + "." + f.getName() + " is not mapped");
+            }
+        }
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        List<Field> out = new ArrayList<>();
+        for (Field f : type.getDeclaredFields()) {
+            int mod = f.getModifiers();
+            if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || f.isSynthetic()) continue;
+            f.setAccessible(true);
+            out.add(f);
+        }
+        return out;
+    }
+
+    private static Object sample(Field f, int variant, int n) {
+        Class<?> t = f.getType();
+        if (t == String.class) return f.getName() + "-" + variant;
+        if (t == Integer.class || t == int.class) return 1000 * variant + n;
+        if (t == Long.class || t == long.class) return 1000L * variant + n;
+        if (t == Boolean.class || t == boolean.class) return (n + variant) % 2 == 0;
+        if (t == Instant.class) return Instant.ofEpochSecond(1_700_000_000L + 1000L * variant + n);
+        if (t == DataSet.class) return new DataSet();
+        return fail("no sample value for " + f + ": extend MapperCoverageTest.sample");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.datalake.metadatasvc.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** The latest-version entries, which another replica's commits never invalidate. */
+class SchemaCacheLatestTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger stored = new AtomicInteger(1);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SchemaCache cache = new SchemaCache(1_000, 10, Duration.ofSeconds(5), new SimpleMeterRegistry(),
+            now::get);
+
+    @Test
+    void aCommitThroughAnotherReplicaShowsOnceTheEntryExpires() {
+        assertEquals(1, latest());
+        stored.set(2);                                             // committed elsewhere: no invalidateLatest here
+
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertEquals(1, latest());
+        assertEquals(1, loads.get());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, latest());
+        assertEquals(2, latest());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void aLocalCommitShowsAtOnce() {
+        assertEquals(1, latest());
+        stored.set(2);
+        cache.invalidateLatest("ds");
+        assertEquals(2, latest());
+    }
+
+    private int latest() {
+        return cache.latestVersion("ds", () -> {
+            loads.incrementAndGet();
+            return stored.get();
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.datalake.metadatasvc.service;
+
+import com.example.datalake.metadatasvc.dto.ColumnDTO;
+import com.example.datalake.metadatasvc.model.DataSet;
+import com.example.datalake.metadatasvc.repo.DataSetColumnRepository;
+import com.example.datalake.metadatasvc.repo.DataSetRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Schema commit cost against column count.  The statement count is checked on
+ * the in-memory H2 of the test profile; the latency sweep runs only when
+ * METADATA_BENCH_JDBC_URL points at a MySQL database (with
+ * {@code rewriteBatchedStatements=true}), e.g.
+ * <pre>
+ * METADATA_BENCH_JDBC_URL='jdbc:mysql://localhost:3306/metadata?user=metadata&amp;password=password&amp;rewriteBatchedStatements=true' \
+ * mvn test -Dtest=SchemaCommitLatencyTest
+ * </pre>
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class SchemaCommitLatencyTest {
+
+    private static final int[] WIDTHS = {10, 100, 400, 800};
+    private static final int RUNS = 5;
+
+    @Autowired MetaService meta;
+    @Autowired DataSetRepository dataSets;
+    @Autowired DataSetColumnRepository columns;
+    @Autowired EntityManagerFactory emf;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        String url = System.getenv("METADATA_BENCH_JDBC_URL");
+        if (url == null || url.isBlank()) return;
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registry.add("spring.datasource.username", () -> "");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithColumns() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        String id = newDataSet();
+        meta.commitSchema(id, columns(10), "warm-up", "bench");     // first sequence block
+
+        long narrow = statementsFor(stats, id, 10);
+        long wide = statementsFor(stats, id, 800);
+
+        assertEquals(800, meta.getSchema(id, columns.findMaxVersion(id)).size());
+        // dataset + max version lookups, one batched INSERT per table, the dataset UPDATE,
+        // and at most one sequence block fetch – independent of the column count
+        assertTrue(wide <= narrow + 2,
+                "statements grew with width: " + narrow + " for 10 columns, " + wide + " for 800");
+    }
+
+    /** The latency sweep only means something against a real database: opt in with METADATA_BENCH_JDBC_URL. */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "METADATA_BENCH_JDBC_URL", matches = ".+")
+    void commitLatencyIsSublinearInWidth() {
+        String id = newDataSet();
+        meta.commitSchema(id, columns(10), "warm-up", "bench");     // first sequence block, JIT
+
+        long[] medians = new long[WIDTHS.length];
+        StringBuilder table = new StringBuilder();
+        for (int w = 0; w < WIDTHS.length; w++) {
+            List<ColumnDTO> cols = columns(WIDTHS[w]);
+            long[] micros = new long[RUNS];
+            for (int r = 0; r < RUNS; r++) {
+                long t0 = System.nanoTime();
+                meta.commitSchema(id, cols, "bench", "bench");
+                micros[r] = (System.nanoTime() - t0) / 1_000;
+            }
+            Arrays.sort(micros);
+            medians[w] = micros[RUNS / 2];
+            table.append(String.format("%n%4d columns: median %,7d us, max %,7d us",
+                    WIDTHS[w], medians[w], micros[RUNS - 1]));
+        }
+
+        assertEquals(1 + WIDTHS.length * RUNS, columns.findMaxVersion(id));
+        // per-row round trips would scale with the width (80x from 10 to 800 columns);
+        // batched inserts leave the fixed per-commit statements dominating
+        int last = WIDTHS.length - 1;
+        long linear = medians[0] * WIDTHS[last] / WIDTHS[0];
+        assertTrue(medians[last] < linear / 2, "commit latency close to linear in width:" + table);
+    }
+
+    private long statementsFor(Statistics stats, String id, int width) {
+        List<ColumnDTO> cols = columns(width);
+        stats.clear();
+        meta.commitSchema(id, cols, "bench", "bench");
+        return stats.getPrepareStatementCount();
+    }
+
+    private String newDataSet() {
+        DataSet ds = new DataSet();
+        ds.setName("bench_" + UUID.randomUUID());
+        ds.setStorageUri("s3://bench/" + ds.getName());
+        ds.setFormat("parquet");
+        ds.setGroupId("bench");
+        return dataSets.save(ds).getId();
+    }
+
+    private static List<ColumnDTO> columns(int n) {
+        List<ColumnDTO> cols = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ColumnDTO c = new ColumnDTO();
+            c.setColumnName("col_" + i);
+            c.setDataType(i % 3 == 0 ? "BIGINT" : "VARCHAR(255)");
+            c.setIsPrimaryKey(i == 0);
+            c.setComment("column " + i);
+            cols.add(c);
+        }
+        return cols;
+    }
+}